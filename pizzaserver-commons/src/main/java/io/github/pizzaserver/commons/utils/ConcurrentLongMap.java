@@ -0,0 +1,327 @@
+package io.github.pizzaserver.commons.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Thread safe map of primitive long keys to values.
+ * Looking up a key does not lock or allocate. Writes lock the segment of the map the key belongs to.
+ * Null values are not supported.
+ * @param <V> value type
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap() {
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            this.segments[i] = new Segment<>();
+        }
+    }
+
+    /**
+     * Pack two ints into a long key.
+     * @param x first int
+     * @param z second int
+     * @return key made of both ints
+     */
+    public static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public V get(long key) {
+        int hash = hash(key);
+        return this.getSegment(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Map a key to a value.
+     * @param key key
+     * @param value value
+     * @return the previous value of the key or null if there was none
+     */
+    public V put(long key, V value) {
+        Check.nullParam(value, "value");
+        int hash = hash(key);
+        return this.getSegment(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Map a key to a value if it is not mapped yet.
+     * @param key key
+     * @param value value
+     * @return the current value of the key or null if the value was added
+     */
+    public V putIfAbsent(long key, V value) {
+        Check.nullParam(value, "value");
+        int hash = hash(key);
+        return this.getSegment(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Retrieve the value of a key or compute and add it if the key is not mapped yet.
+     * The mapping function is called at most once per key at a time. It is called while the segment of the key is locked,
+     * so it must not write to this map and writes of other keys in the same segment wait until it returns.
+     * @param key key
+     * @param mappingFunction function to compute the value
+     * @return the current value or the computed value, which is null if the function returned null
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        int hash = hash(key);
+        Segment<V> segment = this.getSegment(hash);
+        V value = segment.get(key, hash);
+        if (value != null) {
+            return value;
+        }
+        return segment.computeIfAbsent(key, hash, mappingFunction);
+    }
+
+    /**
+     * Remove a key.
+     * @param key key
+     * @return the removed value or null if the key was not mapped
+     */
+    public V remove(long key) {
+        int hash = hash(key);
+        return this.getSegment(hash).remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : this.segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Retrieve every value in this map.
+     * Values added or removed while the map is being copied may or may not be included.
+     * @return copy of the values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(this.size());
+        for (Segment<V> segment : this.segments) {
+            segment.addValuesTo(values);
+        }
+        return values;
+    }
+
+    public void clear() {
+        for (Segment<V> segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment<V> getSegment(int hash) {
+        return this.segments[hash >>> 28];
+    }
+
+    private static int hash(long key) {
+        // Mix every bit of the key so that nearby coordinates are spread over segments and slots
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+
+    private static class Node<V> {
+
+        private final long key;
+        // null once the key is removed
+        private volatile V value;
+
+
+        public Node(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * Open addressing hash table of nodes.
+     * A slot is never emptied or reassigned to another key once it holds a node, so readers can probe without locking.
+     * Removed keys leave their node behind with a null value until the table is rebuilt.
+     */
+    private static class Segment<V> {
+
+        private volatile AtomicReferenceArray<Node<V>> nodes = new AtomicReferenceArray<>(INITIAL_SEGMENT_CAPACITY);
+
+        // Guarded by this
+        private volatile int size;
+        private int usedSlots;
+
+
+        public V get(long key, int hash) {
+            AtomicReferenceArray<Node<V>> nodes = this.nodes;
+            int mask = nodes.length() - 1;
+            int slot = hash & mask;
+            while (true) {
+                Node<V> node = nodes.get(slot);
+                if (node == null) {
+                    return null;
+                }
+                if (node.key == key) {
+                    return node.value;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        public synchronized V put(long key, int hash, V value, boolean onlyIfAbsent) {
+            Node<V> node = this.findOrAddNode(key, hash);
+            V previousValue = node.value;
+            if (previousValue == null) {
+                this.size++;
+            } else if (onlyIfAbsent) {
+                return previousValue;
+            }
+            node.value = value;
+            return previousValue;
+        }
+
+        public synchronized V computeIfAbsent(long key, int hash, LongFunction<? extends V> mappingFunction) {
+            V value = this.get(key, hash);
+            if (value != null) {
+                return value;
+            }
+
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                this.findOrAddNode(key, hash).value = value;
+                this.size++;
+            }
+            return value;
+        }
+
+        public synchronized V remove(long key, int hash) {
+            AtomicReferenceArray<Node<V>> nodes = this.nodes;
+            int mask = nodes.length() - 1;
+            int slot = hash & mask;
+            while (true) {
+                Node<V> node = nodes.get(slot);
+                if (node == null) {
+                    return null;
+                }
+                if (node.key == key) {
+                    V value = node.value;
+                    if (value != null) {
+                        node.value = null;
+                        this.size--;
+                    }
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        public synchronized void clear() {
+            AtomicReferenceArray<Node<V>> nodes = this.nodes;
+            for (int slot = 0; slot < nodes.length(); slot++) {
+                Node<V> node = nodes.get(slot);
+                if (node != null) {
+                    node.value = null;
+                }
+            }
+            this.nodes = new AtomicReferenceArray<>(INITIAL_SEGMENT_CAPACITY);
+            this.size = 0;
+            this.usedSlots = 0;
+        }
+
+        public void addValuesTo(List<V> values) {
+            AtomicReferenceArray<Node<V>> nodes = this.nodes;
+            for (int slot = 0; slot < nodes.length(); slot++) {
+                Node<V> node = nodes.get(slot);
+                if (node != null) {
+                    V value = node.value;
+                    if (value != null) {
+                        values.add(value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Find the node of a key or add one with no value.
+         * Must be called while holding the lock of this segment.
+         * @param key key
+         * @param hash hash of the key
+         * @return the node of the key
+         */
+        private Node<V> findOrAddNode(long key, int hash) {
+            AtomicReferenceArray<Node<V>> nodes = this.nodes;
+            int mask = nodes.length() - 1;
+            int slot = hash & mask;
+            while (true) {
+                Node<V> node = nodes.get(slot);
+                if (node == null) {
+                    break;
+                }
+                if (node.key == key) {
+                    return node;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // Keep the table at most half full, counting the nodes of removed keys
+            if ((this.usedSlots + 1) * 2 > nodes.length()) {
+                this.rebuild();
+                return this.findOrAddNode(key, hash);
+            }
+
+            Node<V> node = new Node<>(key, null);
+            nodes.set(slot, node);
+            this.usedSlots++;
+            return node;
+        }
+
+        /**
+         * Copy the nodes that still have a value into a new table, growing it if needed.
+         * Readers of the old table still see the same nodes and therefore any later changes to their values.
+         */
+        private void rebuild() {
+            int capacity = this.nodes.length();
+            while ((this.size + 1) * 4 > capacity) {
+                capacity *= 2;
+            }
+
+            AtomicReferenceArray<Node<V>> oldNodes = this.nodes;
+            AtomicReferenceArray<Node<V>> newNodes = new AtomicReferenceArray<>(capacity);
+            int mask = capacity - 1;
+            int usedSlots = 0;
+            for (int oldSlot = 0; oldSlot < oldNodes.length(); oldSlot++) {
+                Node<V> node = oldNodes.get(oldSlot);
+                if (node != null && node.value != null) {
+                    int slot = hash(node.key) & mask;
+                    while (newNodes.get(slot) != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    newNodes.set(slot, node);
+                    usedSlots++;
+                }
+            }
+
+            this.nodes = newNodes;
+            this.usedSlots = usedSlots;
+        }
+
+    }
+
+}
@@ -1,20 +1,17 @@
 package io.github.pizzaserver.commons.utils;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 /**
  * Locks a key preventing other threads from acquiring that key until the Thread holding that lock unlocks it.
  */
 public class KeyLock<K> {
 
-    private final Map<K, Lock> locks = new HashMap<>();
+    private static final Predicate<ReentrantLock> IS_HELD = ReentrantLock::isHeldByCurrentThread;
+
+    private final KeyLockTable<K, ReentrantLock> locks = new KeyLockTable<>(ReentrantLock::new);
 
-    // Stores how many locks a key has before it can be removed from the lock cache
-    // key: [threadId : locksObtained]
-    private final Map<K, Map<Long, Integer>> lockCount = new HashMap<>();
 
     /**
      * Obtain a lock on a key, blocking any other Thread from obtaining this lock until it is unlocked by the capturing Thread.
@@ -22,14 +19,8 @@ public class KeyLock<K> {
      */
     public void lock(K key) {
         Check.nullParam(key, "key");
-        Lock lock;
-        // synchronized so that we can increment the lock count and avoid race conditions where unlock is
-        // triggered before the lock count is incremented.
-        synchronized (this.locks) {
-            lock = this.getLockForLocking(key);
-            this.incrementLockCount(key);
-        }
-        lock.lock();
+        // The key keeps its lock until it is released, even while this thread is waiting for it
+        this.locks.acquire(key).lock();
     }
 
     /**
@@ -39,107 +30,24 @@ public class KeyLock<K> {
      */
     public boolean tryLock(K key) {
         Check.nullParam(key, "key");
-        // synchronized so that we can increment the lock count and avoid race conditions where unlock is
-        // triggered before the lock count is incremented.
-        synchronized (this.locks) {
-            Lock lock = this.getLockForLocking(key);
-            if (lock.tryLock()) {
-                this.incrementLockCount(key);
-                return true;
-            } else {
-                return false;
-            }
-        }
-    }
-
-    /**
-     * Retrieve the lock used for LOCKING.
-     * If no lock exists, a new lock is created.
-     * @param key the key of the lock
-     * @return the {@link Lock}
-     */
-    private Lock getLockForLocking(K key) {
-        if (this.locks.containsKey(key)) {
-            return this.locks.get(key);
+        if (this.locks.acquire(key).tryLock()) {
+            return true;
         } else {
-            Lock lock = new ReentrantLock();
-            this.locks.put(key, lock);
-            return lock;
+            this.locks.release(key);
+            return false;
         }
     }
 
-    /**
-     * Increment the amount of locks held on a key
-     * This should be called while holding a synchronization lock on the this.locks property
-     * @param key the key of the lock to be incremented
-     */
-    private void incrementLockCount(K key) {
-        long threadId = Thread.currentThread().getId();
-
-        if (!this.lockCount.containsKey(key)) {
-            this.lockCount.put(key, new HashMap<>());
-        }
-        int currentLockCount = this.lockCount.get(key).getOrDefault(threadId, 0);
-        this.lockCount.get(key).put(threadId, currentLockCount + 1);
-    }
-
-
     /**
      * Unlock a lock the current Thread has obtained using the key given.
      * @param key key the lock was assigned under
-     */
-    public void unlock(K key) {
-        Check.nullParam(key, "key");
-        Lock lock;
-        synchronized (this.locks) {
-            lock = this.getLockForUnlocking(key);
-            this.decrementLockCount(key);
-        }
-        lock.unlock();
-    }
-
-    /**
-     * Retrieve the lock associated with a key if one exists.
-     * Otherwise an exception will be thrown.
-     * @param key the key associated with the lock
-     * @return the {@link Lock} under this key
      * @throws IllegalArgumentException if no lock exists under this key
      * @throws IllegalStateException if the thread trying to unlock this key does not have a lock on it
      */
-    private Lock getLockForUnlocking(K key) {
-        long threadId = Thread.currentThread().getId();
-
-        // Check to make sure this key can be unlocked
-        if (!this.locks.containsKey(key)) {
-            throw new IllegalArgumentException("No lock exists with the key " + key);
-        }
-        if (!this.lockCount.get(key).containsKey(threadId)) {
-            throw new IllegalStateException("This thread does not hold any locks by the key of " + key);
-        }
-
-        return this.locks.get(key);
-    }
-
-    /**
-     * Decrement the amount of holds on a lock
-     * This should be called while holding a synchronization lock on the this.locks property
-     * @param key the key associated with the lock
-     */
-    private void decrementLockCount(K key) {
-        long threadId = Thread.currentThread().getId();
-
-        // Decrement lock count to clear data as needed
-        int currentLockCount = this.lockCount.get(key).get(threadId);
-        if (currentLockCount > 1) {
-            this.lockCount.get(key).put(threadId, currentLockCount - 1);
-        } else {
-            this.lockCount.get(key).remove(threadId);
-            if (this.lockCount.get(key).size() == 0) {
-                // Nothing is holding a lock on this key
-                this.lockCount.remove(key);
-                this.locks.remove(key);
-            }
-        }
+    public void unlock(K key) {
+        Check.nullParam(key, "key");
+        this.locks.getHeldLock(key, IS_HELD).unlock();
+        this.locks.release(key);
     }
 
 }
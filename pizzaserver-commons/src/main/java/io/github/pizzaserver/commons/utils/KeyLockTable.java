@@ -0,0 +1,160 @@
+package io.github.pizzaserver.commons.utils;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Table of the locks of keys used by {@link KeyLock} and {@link ReadWriteKeyLock}.
+ * A key only has a lock while a thread holds or is waiting for it. Keys are split between stripes that are synchronized
+ * separately, so threads using different keys rarely wait on each other to find their lock.
+ * Locks that are no longer used are kept by their stripe and given to the next key that needs one.
+ * @param <K> key type
+ * @param <L> lock type
+ */
+class KeyLockTable<K, L> {
+
+    private static final int STRIPE_COUNT = 64;
+
+    private final Stripe<K, L>[] stripes;
+    private final Supplier<L> lockFactory;
+
+
+    @SuppressWarnings("unchecked")
+    public KeyLockTable(Supplier<L> lockFactory) {
+        this.lockFactory = lockFactory;
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            this.stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Retrieve the lock of a key, creating one if the key has none, and register the current thread as a user of it.
+     * Every call must be followed by a call to {@link #release(Object)} once the thread is done with the lock.
+     * @param key key of the lock
+     * @return the lock of the key
+     */
+    public L acquire(K key) {
+        Stripe<K, L> stripe = this.getStripe(key);
+        synchronized (stripe) {
+            Entry<K, L> entry = stripe.find(key);
+            if (entry == null) {
+                entry = stripe.add(key, this.lockFactory);
+            }
+            entry.users++;
+            return entry.lock;
+        }
+    }
+
+    /**
+     * Retrieve the lock of a key that the current thread holds.
+     * @param key key of the lock
+     * @param isHeldByCurrentThread checks if the current thread holds a lock
+     * @return the lock of the key
+     * @throws IllegalArgumentException if no thread holds or is waiting for the lock of the key
+     * @throws IllegalStateException if the current thread does not hold the lock of the key
+     */
+    public L getHeldLock(K key, Predicate<L> isHeldByCurrentThread) {
+        Stripe<K, L> stripe = this.getStripe(key);
+        synchronized (stripe) {
+            Entry<K, L> entry = stripe.find(key);
+            if (entry == null) {
+                throw new IllegalArgumentException("No lock exists with the key " + key);
+            }
+            if (!isHeldByCurrentThread.test(entry.lock)) {
+                throw new IllegalStateException("This thread does not hold any locks by the key of " + key);
+            }
+            return entry.lock;
+        }
+    }
+
+    /**
+     * Unregister the current thread as a user of the lock of a key.
+     * The lock is removed from the key once it has no users left.
+     * @param key key of the lock
+     */
+    public void release(K key) {
+        Stripe<K, L> stripe = this.getStripe(key);
+        synchronized (stripe) {
+            Entry<K, L> entry = stripe.find(key);
+            if (entry != null && --entry.users == 0) {
+                stripe.remove(entry);
+            }
+        }
+    }
+
+    private Stripe<K, L> getStripe(K key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return this.stripes[hash >>> 26];
+    }
+
+
+    private static class Entry<K, L> {
+
+        private final L lock;
+
+        private K key;
+        private int users;
+        private int index;
+
+
+        public Entry(L lock) {
+            this.lock = lock;
+        }
+
+    }
+
+    /**
+     * Keys of a stripe with a lock. Few keys of a stripe are locked at once, so the keys are searched one by one.
+     */
+    private static class Stripe<K, L> {
+
+        private static final int MAX_FREE_ENTRIES = 8;
+
+        @SuppressWarnings("unchecked")
+        private Entry<K, L>[] entries = new Entry[4];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private final Entry<K, L>[] freeEntries = new Entry[MAX_FREE_ENTRIES];
+        private int freeSize;
+
+
+        public Entry<K, L> find(K key) {
+            for (int i = 0; i < this.size; i++) {
+                Entry<K, L> entry = this.entries[i];
+                if (entry.key == key || entry.key.equals(key)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        public Entry<K, L> add(K key, Supplier<L> lockFactory) {
+            Entry<K, L> entry = this.freeSize > 0 ? this.freeEntries[--this.freeSize] : new Entry<>(lockFactory.get());
+            if (this.size == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.size * 2);
+            }
+            entry.key = key;
+            entry.index = this.size;
+            this.entries[this.size++] = entry;
+            return entry;
+        }
+
+        public void remove(Entry<K, L> entry) {
+            // Move the last entry into the gap
+            Entry<K, L> lastEntry = this.entries[--this.size];
+            this.entries[entry.index] = lastEntry;
+            lastEntry.index = entry.index;
+            this.entries[this.size] = null;
+
+            entry.key = null;
+            if (this.freeSize < MAX_FREE_ENTRIES) {
+                this.freeEntries[this.freeSize++] = entry;
+            }
+        }
+
+    }
+
+}
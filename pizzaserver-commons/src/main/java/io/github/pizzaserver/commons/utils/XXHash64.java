@@ -0,0 +1,121 @@
+package io.github.pizzaserver.commons.utils;
+
+/**
+ * Implementation of the 64 bit xxHash algorithm.
+ * Bedrock clients use xxHash64 to identify the blobs they keep in their local cache.
+ */
+public final class XXHash64 {
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+
+    private XXHash64() {}
+
+    /**
+     * Hash the contents of a byte array using a seed of 0.
+     * @param data data to hash
+     * @return 64 bit hash
+     */
+    public static long hash(byte[] data) {
+        return hash(data, 0, data.length, 0);
+    }
+
+    /**
+     * Hash a region of a byte array.
+     * @param data data to hash
+     * @param offset index of the first byte to hash
+     * @param length amount of bytes to hash
+     * @param seed seed of the hash
+     * @return 64 bit hash
+     */
+    public static long hash(byte[] data, int offset, int length, long seed) {
+        int end = offset + length;
+        int pos = offset;
+        long hash;
+
+        if (length >= 32) {
+            long v1 = seed + PRIME_1 + PRIME_2;
+            long v2 = seed + PRIME_2;
+            long v3 = seed;
+            long v4 = seed - PRIME_1;
+
+            int limit = end - 32;
+            do {
+                v1 = round(v1, readLongLE(data, pos));
+                v2 = round(v2, readLongLE(data, pos + 8));
+                v3 = round(v3, readLongLE(data, pos + 16));
+                v4 = round(v4, readLongLE(data, pos + 24));
+                pos += 32;
+            } while (pos <= limit);
+
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME_5;
+        }
+
+        hash += length;
+
+        while (pos + 8 <= end) {
+            hash ^= round(0, readLongLE(data, pos));
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+            pos += 8;
+        }
+
+        if (pos + 4 <= end) {
+            hash ^= (readIntLE(data, pos) & 0xFFFFFFFFL) * PRIME_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+            pos += 4;
+        }
+
+        while (pos < end) {
+            hash ^= (data[pos] & 0xFF) * PRIME_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+            pos++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME_2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME_1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0, value);
+        return accumulator * PRIME_1 + PRIME_4;
+    }
+
+    private static long readLongLE(byte[] data, int index) {
+        return (data[index] & 0xFFL)
+                | (data[index + 1] & 0xFFL) << 8
+                | (data[index + 2] & 0xFFL) << 16
+                | (data[index + 3] & 0xFFL) << 24
+                | (data[index + 4] & 0xFFL) << 32
+                | (data[index + 5] & 0xFFL) << 40
+                | (data[index + 6] & 0xFFL) << 48
+                | (data[index + 7] & 0xFFL) << 56;
+    }
+
+    private static int readIntLE(byte[] data, int index) {
+        return (data[index] & 0xFF)
+                | (data[index + 1] & 0xFF) << 8
+                | (data[index + 2] & 0xFF) << 16
+                | (data[index + 3] & 0xFF) << 24;
+    }
+
+}
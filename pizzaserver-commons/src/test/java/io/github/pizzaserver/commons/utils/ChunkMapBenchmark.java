@@ -0,0 +1,185 @@
+package io.github.pizzaserver.commons.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Measures looking up loaded chunks by their coordinates the way block queries of entities do.
+ * Compares the {@code ConcurrentHashMap<Tuple<Integer, Integer>, ?>} chunks were stored in before with a {@link ConcurrentLongMap},
+ * and a {@link ConcurrentLongMap} with a one entry "last chunk" cache held by every caller, either in a local variable
+ * or in a {@link ThreadLocal} as a chunk manager shared between threads would need.
+ * This is not ran as part of the tests. Run the main method with the test classpath, e.g.
+ * {@code java -cp target/classes:target/test-classes io.github.pizzaserver.commons.utils.ChunkMapBenchmark}.
+ */
+public class ChunkMapBenchmark {
+
+    // Loaded chunks form a square around the origin, like the chunks loaded around players
+    private static final int LOADED_RADIUS = 16;
+    // Block queries made in the same chunk in a row, e.g. the blocks around an entity
+    private static final int QUERIES_PER_CHUNK = 27;
+    private static final int SINGLE_THREAD_QUERIES = 20_000_000;
+    private static final int CONTENDED_QUERIES = 5_000_000;
+    private static final int CONTENDED_THREADS = 5;
+    private static final int ROUNDS = 5;
+
+
+    public static void main(String[] args) throws Exception {
+        Map<Tuple<Integer, Integer>, Object> tupleChunks = new ConcurrentHashMap<>();
+        ConcurrentLongMap<Object> longChunks = new ConcurrentLongMap<>();
+        for (int x = -LOADED_RADIUS; x < LOADED_RADIUS; x++) {
+            for (int z = -LOADED_RADIUS; z < LOADED_RADIUS; z++) {
+                Object chunk = new Object();
+                tupleChunks.put(new Tuple<>(x, z), chunk);
+                longChunks.put(ConcurrentLongMap.key(x, z), chunk);
+            }
+        }
+
+        List<Lookup> lookups = List.of(
+                new Lookup("ConcurrentHashMap<Tuple>", () -> (x, z) -> tupleChunks.get(new Tuple<>(x, z))),
+                new Lookup("ConcurrentLongMap", () -> (x, z) -> longChunks.get(ConcurrentLongMap.key(x, z))),
+                new Lookup("ConcurrentLongMap + local last chunk", () -> new LastChunkCache(longChunks)),
+                new Lookup("ConcurrentLongMap + ThreadLocal last chunk", () -> {
+                    ThreadLocal<LastChunkCache> cache = ThreadLocal.withInitial(() -> new LastChunkCache(longChunks));
+                    return (x, z) -> cache.get().getChunk(x, z);
+                }));
+
+        System.out.println("Single thread, " + QUERIES_PER_CHUNK + " queries per chunk in a row");
+        for (Lookup lookup : lookups) {
+            System.out.println(lookup.name);
+            for (int round = 0; round < ROUNDS; round++) {
+                measureSingleThread(lookup.create());
+            }
+        }
+
+        System.out.println(CONTENDED_THREADS + " threads, " + QUERIES_PER_CHUNK + " queries per chunk in a row");
+        for (Lookup lookup : lookups) {
+            System.out.println(lookup.name);
+            for (int round = 0; round < ROUNDS; round++) {
+                measureContended(lookup);
+            }
+        }
+    }
+
+    private static void measureSingleThread(ChunkLookup lookup) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        int found = runQueries(lookup, SINGLE_THREAD_QUERIES, 0);
+        long time = System.nanoTime() - startTime;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        if (found != SINGLE_THREAD_QUERIES) {
+            throw new AssertionError("Chunk was not found");
+        }
+        System.out.printf("  %.1f ns, %.1f B per query%n",
+                time / (double) SINGLE_THREAD_QUERIES,
+                bytes / (double) SINGLE_THREAD_QUERIES);
+    }
+
+    private static void measureContended(Lookup lookup) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONTENDED_THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> threads = new ArrayList<>(CONTENDED_THREADS);
+            for (int thread = 0; thread < CONTENDED_THREADS; thread++) {
+                // Every thread is a different caller, e.g. a region tick thread
+                ChunkLookup threadLookup = lookup.create();
+                long threadSeed = thread * 7919L;
+                threads.add(executor.submit(() -> {
+                    start.await();
+                    return runQueries(threadLookup, CONTENDED_QUERIES, threadSeed);
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> thread : threads) {
+                thread.get();
+            }
+            long time = System.nanoTime() - startTime;
+
+            // Every thread ran for the whole time, so this is the time each thread spent per query
+            System.out.printf("  %.1f ns per query per thread%n", time / (double) CONTENDED_QUERIES);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int runQueries(ChunkLookup lookup, int queries, long seed) {
+        int found = 0;
+        int chunkX = 0;
+        int chunkZ = 0;
+        for (int i = 0; i < queries; i++) {
+            if (i % QUERIES_PER_CHUNK == 0) {
+                seed = seed * 6364136223846793005L + 1;
+                chunkX = (int) ((seed >>> 33) % (LOADED_RADIUS * 2)) - LOADED_RADIUS;
+                chunkZ = (int) ((seed >>> 43) % (LOADED_RADIUS * 2)) - LOADED_RADIUS;
+            }
+            if (lookup.getChunk(chunkX, chunkZ) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+
+    private interface ChunkLookup {
+
+        Object getChunk(int x, int z);
+
+    }
+
+    private static class Lookup {
+
+        private final String name;
+        // Creates the lookup of a single caller
+        private final Supplier<ChunkLookup> factory;
+
+
+        public Lookup(String name, Supplier<ChunkLookup> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        public ChunkLookup create() {
+            return this.factory.get();
+        }
+
+    }
+
+    private static class LastChunkCache implements ChunkLookup {
+
+        private final ConcurrentLongMap<Object> chunks;
+        private long lastKey;
+        private Object lastChunk;
+
+
+        public LastChunkCache(ConcurrentLongMap<Object> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public Object getChunk(int x, int z) {
+            long key = ConcurrentLongMap.key(x, z);
+            if (this.lastChunk != null && this.lastKey == key) {
+                return this.lastChunk;
+            }
+
+            this.lastKey = key;
+            this.lastChunk = this.chunks.get(key);
+            return this.lastChunk;
+        }
+
+    }
+
+}
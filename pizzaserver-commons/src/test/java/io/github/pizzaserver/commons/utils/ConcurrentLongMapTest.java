@@ -0,0 +1,105 @@
+package io.github.pizzaserver.commons.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentLongMapTest {
+
+    @Test
+    public void keysShouldBeUniquePerCoordinate() {
+        assertNotEquals(ConcurrentLongMap.key(1, 0), ConcurrentLongMap.key(0, 1));
+        assertNotEquals(ConcurrentLongMap.key(-1, 0), ConcurrentLongMap.key(0, -1));
+        assertNotEquals(ConcurrentLongMap.key(-1, -1), ConcurrentLongMap.key(-1, 0));
+    }
+
+    @Test
+    public void shouldMatchHashMap() {
+        ConcurrentLongMap<Integer> map = new ConcurrentLongMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            long key = ConcurrentLongMap.key(random.nextInt(64) - 32, random.nextInt(64) - 32);
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.put(key, i), map.put(key, i));
+                case 1 -> assertEquals(expected.putIfAbsent(key, i), map.putIfAbsent(key, i));
+                case 2 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+        assertEquals(expected.size(), map.values().size());
+    }
+
+    @Test
+    public void shouldComputeOnlyMissingValues() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("a", map.computeIfAbsent(5, key -> {
+            calls.incrementAndGet();
+            return "a";
+        }));
+        assertEquals("a", map.computeIfAbsent(5, key -> {
+            calls.incrementAndGet();
+            return "b";
+        }));
+        assertNull(map.computeIfAbsent(6, key -> null));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey(6));
+    }
+
+    @Test
+    public void shouldClear() {
+        ConcurrentLongMap<Integer> map = new ConcurrentLongMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(10));
+        map.put(10, 10);
+        assertEquals(10, map.get(10));
+    }
+
+    @Test
+    public void concurrentComputeShouldCreateOneValuePerKey() throws InterruptedException {
+        ConcurrentLongMap<Object> map = new ConcurrentLongMap<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int key = 0; key < 10000; key++) {
+                    Object value = map.computeIfAbsent(key, ignored -> {
+                        calls.incrementAndGet();
+                        return new Object();
+                    });
+                    assertSame(value, map.get(key));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(10000, calls.get());
+        assertEquals(10000, map.size());
+    }
+
+}
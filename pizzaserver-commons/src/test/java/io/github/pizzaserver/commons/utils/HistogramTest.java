@@ -0,0 +1,60 @@
+package io.github.pizzaserver.commons.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    public void bucketsShouldContainTheirValues() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = Histogram.getBucketIndex(value);
+            assertTrue(value <= Histogram.getBucketUpperBound(index), "value " + value + " is above its bucket");
+            if (index > 0) {
+                assertTrue(value > Histogram.getBucketUpperBound(index - 1), "value " + value + " belongs in an earlier bucket");
+            }
+        }
+    }
+
+    @Test
+    public void shouldTrackTotals() {
+        Histogram histogram = new Histogram();
+        histogram.record(10);
+        histogram.record(30);
+        histogram.record(-5);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(40, histogram.getTotal());
+        assertEquals(30, histogram.getMax());
+        assertEquals(40 / 3d, histogram.getAverage(), 0.0001);
+    }
+
+    @Test
+    public void percentilesShouldBeWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 500_000 && median <= 500_000 * 1.125, "median was " + median);
+
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 1.125, "p99 was " + p99);
+
+        assertEquals(1_000_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void resetShouldClearValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(100);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+}
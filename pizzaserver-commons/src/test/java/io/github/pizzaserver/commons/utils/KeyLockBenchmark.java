@@ -0,0 +1,112 @@
+package io.github.pizzaserver.commons.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the cost of locking and unlocking keys of a {@link ReadWriteKeyLock}.
+ * This is not ran as part of the tests. Run the main method with the test classpath, e.g.
+ * {@code java -cp target/classes:target/test-classes io.github.pizzaserver.commons.utils.KeyLockBenchmark}.
+ * The public API of the key locks did not change when they were striped,
+ * so the same class can be compiled against an older commit to compare both implementations.
+ */
+public class KeyLockBenchmark {
+
+    private static final int KEY_COUNT = 1024;
+    private static final int SINGLE_THREAD_OPERATIONS = 2_000_000;
+    private static final int CONTENDED_OPERATIONS = 200_000;
+    private static final int CONTENDED_THREADS = 5;
+    // One in every this many contended operations takes the write lock
+    private static final int WRITE_INTERVAL = 16;
+    private static final int ROUNDS = 5;
+
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Read lock plus unlock, single thread, " + KEY_COUNT + " keys");
+        for (int round = 0; round < ROUNDS; round++) {
+            measureSingleThread();
+        }
+
+        System.out.println(CONTENDED_THREADS + " threads over " + KEY_COUNT + " keys, one write per " + WRITE_INTERVAL + " ops");
+        for (int round = 0; round < ROUNDS; round++) {
+            measureContended();
+        }
+    }
+
+    private static void measureSingleThread() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Boxed once up front so that only the lock itself allocates
+        Long[] keys = new Long[KEY_COUNT];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 1000L;
+        }
+
+        ReadWriteKeyLock<Long> lock = new ReadWriteKeyLock<>();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < SINGLE_THREAD_OPERATIONS; i++) {
+            Long key = keys[i % KEY_COUNT];
+            lock.readLock(key);
+            lock.readUnlock(key);
+        }
+        long time = System.nanoTime() - startTime;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        System.out.printf("  %.0f ns, %.1f B per pair%n",
+                time / (double) SINGLE_THREAD_OPERATIONS,
+                bytes / (double) SINGLE_THREAD_OPERATIONS);
+    }
+
+    private static void measureContended() throws Exception {
+        Long[] keys = new Long[KEY_COUNT];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) i;
+        }
+
+        ReadWriteKeyLock<Long> lock = new ReadWriteKeyLock<>();
+        ExecutorService executor = Executors.newFixedThreadPool(CONTENDED_THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> threads = new ArrayList<>(CONTENDED_THREADS);
+            for (int thread = 0; thread < CONTENDED_THREADS; thread++) {
+                long threadSeed = thread * 7919L;
+                threads.add(executor.submit(() -> {
+                    start.await();
+                    long seed = threadSeed;
+                    for (int i = 0; i < CONTENDED_OPERATIONS; i++) {
+                        seed = seed * 6364136223846793005L + 1;
+                        Long key = keys[(int) ((seed >>> 40) % KEY_COUNT)];
+                        if (i % WRITE_INTERVAL == 0) {
+                            lock.writeLock(key);
+                            lock.writeUnlock(key);
+                        } else {
+                            lock.readLock(key);
+                            lock.readUnlock(key);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> thread : threads) {
+                thread.get();
+            }
+            long time = System.nanoTime() - startTime;
+
+            // Every thread ran for the whole time, so this is the time each thread spent per operation
+            System.out.printf("  %.2f us per op per thread%n", time / (double) CONTENDED_OPERATIONS / 1000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
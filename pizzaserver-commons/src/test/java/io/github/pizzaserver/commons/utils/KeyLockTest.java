@@ -3,9 +3,12 @@ package io.github.pizzaserver.commons.utils;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -49,4 +52,35 @@ public class KeyLockTest extends Thread {
 
     }
 
+    @Test
+    public void shouldOnlyLetOneThreadHoldAKeyAtOnce() throws InterruptedException {
+        KeyLock<Integer> keyLock = new KeyLock<>();
+        int[] counters = new int[16];
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    int key = j % counters.length;
+                    keyLock.lock(key);
+                    try {
+                        counters[key]++;
+                    } finally {
+                        keyLock.unlock(key);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int counter : counters) {
+            assertEquals(4 * 100000 / counters.length, counter);
+        }
+        assertThrows(IllegalArgumentException.class, () -> keyLock.unlock(0), "lock was not removed once every thread released it");
+    }
+
 }
@@ -0,0 +1,24 @@
+package io.github.pizzaserver.commons.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class XXHash64Test {
+
+    @Test
+    public void shouldMatchReferenceHashes() {
+        assertEquals(0xEF46DB3751D8E999L, XXHash64.hash(new byte[0]));
+        assertEquals(0x44BC2CF5AD770999L, XXHash64.hash("abc".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(0xFBCEA83C8A378BF1L, XXHash64.hash("Nobody inspects the spammish repetition".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void shouldApplySeed() {
+        byte[] data = "xxhash".getBytes(StandardCharsets.UTF_8);
+        assertEquals(0xB559B98D844E0635L, XXHash64.hash(data, 0, data.length, 20141025));
+    }
+
+}
@@ -18,6 +18,7 @@ import io.github.pizzaserver.api.player.Player;
 import io.github.pizzaserver.api.plugin.PluginManager;
 import io.github.pizzaserver.api.scheduler.Scheduler;
 import io.github.pizzaserver.api.scoreboard.Scoreboard;
+import io.github.pizzaserver.api.timings.Timings;
 import io.github.pizzaserver.api.utils.Logger;
 import io.github.pizzaserver.api.utils.ServerState;
 
@@ -85,6 +86,25 @@ public abstract class Server {
      */
     public abstract int getCurrentTps();
 
+    /**
+     * Retrieve the ticks per second averaged over the last 5 seconds.
+     * @return average tps
+     */
+    public abstract double getAverageTps();
+
+    /**
+     * Retrieve the milliseconds each tick took averaged over the last 5 seconds.
+     * @return average milliseconds per tick
+     */
+    public abstract double getAverageMspt();
+
+    /**
+     * Retrieve the milliseconds per tick that the given percentage of ticks in the last 5 seconds took less than or equal to.
+     * @param percentile percentile between 0 and 100
+     * @return milliseconds per tick
+     */
+    public abstract double getMsptPercentile(double percentile);
+
     /**
      * Get the current server tick.
      * @return server tick
@@ -101,6 +121,12 @@ public abstract class Server {
 
     public abstract Scheduler getScheduler();
 
+    /**
+     * Retrieve the timings of the server tick.
+     * @return timings
+     */
+    public abstract Timings getTimings();
+
     public abstract Set<Scheduler> getSyncedSchedulers();
 
     /**
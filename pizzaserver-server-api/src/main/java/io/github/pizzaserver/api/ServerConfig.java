@@ -1,6 +1,9 @@
 package io.github.pizzaserver.api;
 
 import io.github.pizzaserver.api.utils.Config;
+import io.github.pizzaserver.api.utils.TickCatchUpPolicy;
+
+import java.util.List;
 
 public class ServerConfig {
 
@@ -47,6 +50,54 @@ public class ServerConfig {
         return this.config.getInteger("server.minimum-supported-protocol");
     }
 
+    /**
+     * Returns if the time spent on each part of the server tick should be recorded.
+     * @return if timings are enabled
+     */
+    public boolean areTimingsEnabled() {
+        return this.config.getBoolean("server.timings");
+    }
+
+    /**
+     * Returns what the server should do with ticks it missed during a lag spike.
+     * @return tick catch up policy
+     */
+    public TickCatchUpPolicy getTickCatchUpPolicy() {
+        return TickCatchUpPolicy.valueOf(this.config.getString("server.tick-catch-up").toUpperCase());
+    }
+
+    /**
+     * Seconds a tick can run for before the stack of the main thread is logged.
+     * @return seconds before a tick is considered stalled or 0 if the watchdog is disabled
+     */
+    public int getWatchdogWarningSeconds() {
+        return this.config.getInteger("server.watchdog.warning-seconds");
+    }
+
+    /**
+     * Seconds between logging the stack of the main thread again while a tick is still stalled.
+     * @return seconds between reports
+     */
+    public int getWatchdogRepeatSeconds() {
+        return this.config.getInteger("server.watchdog.repeat-seconds");
+    }
+
+    /**
+     * Seconds a tick can run for before the server is shut down.
+     * @return seconds before the server is shut down or 0 to never shut down
+     */
+    public int getWatchdogShutdownSeconds() {
+        return this.config.getInteger("server.watchdog.shutdown-seconds");
+    }
+
+    /**
+     * Returns if every thread and the locks they hold should be logged when a tick is stalled instead of only the main thread.
+     * @return if all threads are logged
+     */
+    public boolean isWatchdogDumpingAllThreads() {
+        return this.config.getBoolean("server.watchdog.dump-all-threads");
+    }
+
     public int getMaxChunkThreads() {
         return this.config.getInteger("world.chunk.threads");
     }
@@ -67,6 +118,23 @@ public class ServerConfig {
         return this.config.getInteger("world.chunk.thread-processing-cap");
     }
 
+    /**
+     * Max amount of chunks that can be requested for a player per tick.
+     * @return max chunks sent to a player per tick
+     */
+    public int getPlayerChunkSendRate() {
+        return this.config.getInteger("world.chunk.player-send-rate");
+    }
+
+    /**
+     * Max amount of chunks a player can be waiting on at once.
+     * Chunks past this limit are queued until earlier chunks are sent.
+     * @return max chunks in flight per player
+     */
+    public int getMaxPlayerChunksInFlight() {
+        return this.config.getInteger("world.chunk.player-max-in-flight");
+    }
+
     /**
      * Returns the amount of seconds it takes for a chunk with no chunk loaders
      * (caused by plugins fetching a block in an unloaded chunk) to be automatically unloaded.
@@ -76,6 +144,23 @@ public class ServerConfig {
         return this.config.getInteger("world.chunk.expiry-time");
     }
 
+    /**
+     * Returns if every sub chunk of a chunk should be decoded when the chunk is loaded.
+     * Otherwise sub chunks are decoded when they are first used, which may be on the main thread.
+     * @return if sub chunks are loaded with their chunk
+     */
+    public boolean isEagerSubChunkLoadingEnabled() {
+        return this.config.getBoolean("world.chunk.eager-sub-chunk-loading");
+    }
+
+    /**
+     * Max amount of unloaded chunks that can wait to be written to disk at once.
+     * @return chunk save queue size
+     */
+    public int getChunkSaveQueueSize() {
+        return this.config.getInteger("world.chunk.save-queue-size");
+    }
+
     /**
      * Returns the radius of chunks a player must be to a chunk for it to tick block updates/entities.
      * @return chunk radius
@@ -84,6 +169,49 @@ public class ServerConfig {
         return this.config.getInteger("world.chunk.player-tick-radius");
     }
 
+    /**
+     * Returns if chunks that are far apart from each other should be ticked at the same time on separate threads.
+     * @return if parallel chunk ticking is enabled
+     */
+    public boolean isParallelChunkTickingEnabled() {
+        return this.config.getBoolean("world.chunk.parallel-ticking");
+    }
+
+    /**
+     * Width in chunks of the regions loaded chunks are split into when ticking chunks in parallel.
+     * Chunks in regions that are not next to each other are ticked on separate threads.
+     * @return region width in chunks
+     */
+    public int getChunkTickRegionSize() {
+        return this.config.getInteger("world.chunk.tick-region-size");
+    }
+
+    /**
+     * Returns if clients that support the client blob cache should be sent chunks using it.
+     * Cached sub chunks and biomes are not sent again to the client.
+     * @return if the client blob cache is enabled
+     */
+    public boolean isClientChunkCacheEnabled() {
+        return this.config.getBoolean("world.chunk.client-cache");
+    }
+
+    /**
+     * Max amount of blobs held for a player until the client reports if it had them cached.
+     * Chunks that would go over this amount are sent to the player without using the client blob cache.
+     * @return max pending blobs per player
+     */
+    public int getClientChunkCacheMaxPendingBlobs() {
+        return this.config.getInteger("world.chunk.client-cache-max-pending-blobs");
+    }
+
+    /**
+     * Returns if clients that support it should request the sub chunks they need instead of being sent every sub chunk.
+     * @return if sub chunk requests are enabled
+     */
+    public boolean areSubChunkRequestsEnabled() {
+        return this.config.getBoolean("world.chunk.sub-chunk-requests");
+    }
+
     public String getDefaultWorldName() {
         return this.config.getString("world.default-name");
     }
@@ -104,6 +232,48 @@ public class ServerConfig {
         return (float) this.config.getDouble("world.default-pitch");
     }
 
+    /**
+     * Returns if levels should be ticked at the same time on separate threads.
+     * The dimensions of a level are still ticked on the same thread.
+     * @return if parallel world ticking is enabled
+     */
+    public boolean isParallelWorldTickingEnabled() {
+        return this.config.getBoolean("world.parallel-ticking");
+    }
+
+    /**
+     * Names of the levels that should be opened as read only.
+     * Changes made to read only levels are never written to their files.
+     * @return names of read only levels
+     */
+    public List<String> getReadOnlyLevels() {
+        return this.config.getStringList("world.read-only-levels");
+    }
+
+    /**
+     * Seconds between automatic saves of every level.
+     * @return autosave interval in seconds or 0 if autosaving is disabled
+     */
+    public int getAutosaveInterval() {
+        return this.config.getInteger("world.autosave.interval");
+    }
+
+    /**
+     * Max amount of modified chunks an autosave can queue to be written per tick.
+     * @return max chunks saved per tick
+     */
+    public int getAutosaveChunksPerTick() {
+        return this.config.getInteger("world.autosave.chunks-per-tick");
+    }
+
+    /**
+     * Max amount of milliseconds an autosave can spend per tick.
+     * @return max milliseconds spent saving per tick
+     */
+    public int getAutosaveMaxMillisecondsPerTick() {
+        return this.config.getInteger("world.autosave.max-milliseconds-per-tick");
+    }
+
     public int getNetworkCompressionLevel() {
         return this.config.getInteger("network.compression-level");
     }
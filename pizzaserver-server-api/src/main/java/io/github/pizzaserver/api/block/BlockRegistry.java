@@ -1,5 +1,6 @@
 package io.github.pizzaserver.api.block;
 
+import com.nukkitx.nbt.NbtMap;
 import io.github.pizzaserver.api.Server;
 import io.github.pizzaserver.api.block.behavior.BlockBehavior;
 import io.github.pizzaserver.api.block.behavior.impl.DefaultBlockBehavior;
@@ -34,6 +35,22 @@ public interface BlockRegistry {
 
     Block getBlock(String blockId, int state);
 
+    /**
+     * Retrieve the shared state of a registered block.
+     * @param blockId the id of the block (e.g. minecraft:air)
+     * @param state index of the state in {@link Block#getNBTStates()}
+     * @return the block state
+     */
+    BlockState getBlockState(String blockId, int state);
+
+    /**
+     * Retrieve the shared state of a registered block.
+     * @param blockId the id of the block (e.g. minecraft:air)
+     * @param state NBT of the state
+     * @return the block state
+     */
+    BlockState getBlockState(String blockId, NbtMap state);
+
     default BlockBehavior<? extends Block> getBlockBehavior(String blockId) {
         return this.getBlockBehavior(this.getBlock(blockId));
     }
@@ -0,0 +1,143 @@
+package io.github.pizzaserver.api.block;
+
+import com.nukkitx.nbt.NbtMap;
+import io.github.pizzaserver.api.level.world.World;
+import io.github.pizzaserver.api.utils.BoundingBox;
+
+/**
+ * An immutable state of a registered block type.
+ * A single instance exists per state and is shared by every block in that state, so retrieving one does not create any objects.
+ * The properties needed to simulate entities moving through the world are read once when the state is created.
+ * Use {@link #toBlock()} when a {@link Block} is needed.
+ */
+public final class BlockState {
+
+    private final Block block;
+    private final int stateIndex;
+
+    private final boolean air;
+    private final boolean collision;
+    private final boolean transparent;
+    private final boolean replaceable;
+    private final boolean affectedByGravity;
+    private final float friction;
+    private final int lightAbsorption;
+    private final int lightEmission;
+    // Bounding box of the block at 0, 0, 0
+    private final BoundingBox boundingBox;
+
+
+    /**
+     * Create the state of a block.
+     * @param block a block of the registered block type
+     * @param stateIndex index of the state in {@link Block#getNBTStates()}
+     */
+    public BlockState(Block block, int stateIndex) {
+        this.block = block.clone();
+        this.block.setBlockState(stateIndex);
+        this.stateIndex = stateIndex;
+
+        this.air = this.block.isAir();
+        this.collision = this.block.hasCollision();
+        this.transparent = this.block.isTransparent();
+        this.replaceable = this.block.isReplaceable();
+        this.affectedByGravity = this.block.isAffectedByGravity();
+        this.friction = this.block.getFriction();
+        this.lightAbsorption = this.block.getLightAbsorption();
+        this.lightEmission = this.block.getLightEmission();
+        this.boundingBox = this.block.getBoundingBox();
+    }
+
+    public String getBlockId() {
+        return this.block.getBlockId();
+    }
+
+    /**
+     * Retrieve the index of this state in {@link Block#getNBTStates()}.
+     * @return state index
+     */
+    public int getStateIndex() {
+        return this.stateIndex;
+    }
+
+    public NbtMap getNBTState() {
+        return this.block.getNBTState();
+    }
+
+    public boolean isAir() {
+        return this.air;
+    }
+
+    /**
+     * If true, entities cannot pass through this block.
+     * @return if this block stops entities from moving through it
+     * @see Block#hasCollision()
+     */
+    public boolean hasCollision() {
+        return this.collision;
+    }
+
+    public boolean isTransparent() {
+        return this.transparent;
+    }
+
+    public boolean isReplaceable() {
+        return this.replaceable;
+    }
+
+    public boolean isAffectedByGravity() {
+        return this.affectedByGravity;
+    }
+
+    public float getFriction() {
+        return this.friction;
+    }
+
+    public int getLightAbsorption() {
+        return this.lightAbsorption;
+    }
+
+    public int getLightEmission() {
+        return this.lightEmission;
+    }
+
+    /**
+     * Retrieve the bounding box of a block in this state.
+     * @param x x coordinate of the block
+     * @param y y coordinate of the block
+     * @param z z coordinate of the block
+     * @return the bounding box at those coordinates
+     */
+    public BoundingBox getBoundingBox(int x, int y, int z) {
+        return this.boundingBox.translate(x, y, z);
+    }
+
+    /**
+     * Create a block in this state with no location.
+     * @return a new block
+     */
+    public Block toBlock() {
+        return this.block.clone();
+    }
+
+    /**
+     * Create a block in this state at a location.
+     * @param world world of the block
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param z z coordinate
+     * @param layer layer
+     * @return a new block
+     */
+    public Block toBlock(World world, int x, int y, int z, int layer) {
+        Block block = this.block.clone();
+        block.setLocation(world, x, y, z, layer);
+        return block;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockState(" + this.getBlockId() + ", " + this.getNBTState() + ")";
+    }
+
+}
@@ -21,6 +21,29 @@ public interface Level {
 
     void setDifficulty(Difficulty difficulty);
 
+    /**
+     * Save the level data and every modified chunk of this level on the current thread.
+     * Returns once everything has been written to disk, including chunks that were already waiting to be saved.
+     * @throws IOException if the level failed to save
+     */
     void save() throws IOException;
 
+    /**
+     * Start saving this level over the next few ticks.
+     * Does nothing if the level is already being saved.
+     */
+    void scheduleSave();
+
+    /**
+     * Returns if this level is currently being saved over multiple ticks.
+     * @return if an autosave is in progress
+     */
+    boolean isSaving();
+
+    /**
+     * Retrieve how far along the current save of this level is.
+     * @return a value between 0 and 1 or 1 if the level is not being saved
+     */
+    float getSaveProgress();
+
 }
@@ -6,6 +6,7 @@ import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.data.SoundEvent;
 import io.github.pizzaserver.api.Server;
 import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.block.BlockRegistry;
 import io.github.pizzaserver.api.block.data.BlockUpdateType;
 import io.github.pizzaserver.api.blockentity.BlockEntity;
@@ -84,6 +85,27 @@ public interface World extends ChunkManager {
 
     Block getBlock(int x, int y, int z, int layer);
 
+    /**
+     * Retrieve the {@link BlockState} at these world coordinates without creating a {@link Block}.
+     * @param x x world coordinate
+     * @param y y world coordinate
+     * @param z z world coordinate
+     * @return the {@link BlockState} at these coordinates
+     */
+    default BlockState getBlockState(int x, int y, int z) {
+        return this.getBlockState(x, y, z, 0);
+    }
+
+    /**
+     * Retrieve the {@link BlockState} at these world coordinates without creating a {@link Block}.
+     * @param x x world coordinate
+     * @param y y world coordinate
+     * @param z z world coordinate
+     * @param layer layer
+     * @return the {@link BlockState} at these coordinates
+     */
+    BlockState getBlockState(int x, int y, int z, int layer);
+
     default Optional<BlockEntity> getBlockEntity(Vector3i blockCoordinates) {
         return this.getBlockEntity(blockCoordinates.getX(), blockCoordinates.getY(), blockCoordinates.getZ());
     }
@@ -3,6 +3,7 @@ package io.github.pizzaserver.api.level.world.chunks;
 import com.nukkitx.math.vector.Vector2i;
 import com.nukkitx.math.vector.Vector3i;
 import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.block.BlockRegistry;
 import io.github.pizzaserver.api.block.data.BlockUpdateType;
 import io.github.pizzaserver.api.blockentity.BlockEntity;
@@ -113,6 +114,27 @@ public interface Chunk extends Watchable {
      */
     Block getBlock(int x, int y, int z, int layer);
 
+    /**
+     * Retrieve the {@link BlockState} at these chunk coordinates without creating a {@link Block}.
+     * @param x x chunk coordinate
+     * @param y y chunk coordinate
+     * @param z z chunk coordinate
+     * @return the {@link BlockState} at these coordinates
+     */
+    default BlockState getBlockState(int x, int y, int z) {
+        return this.getBlockState(x, y, z, 0);
+    }
+
+    /**
+     * Retrieve the {@link BlockState} at these chunk coordinates without creating a {@link Block}.
+     * @param x x chunk coordinate
+     * @param y y chunk coordinate
+     * @param z z chunk coordinate
+     * @param layer layer
+     * @return the {@link BlockState} at these coordinates
+     */
+    BlockState getBlockState(int x, int y, int z, int layer);
+
     default Optional<BlockEntity> getBlockEntity(Vector3i blockCoordinates) {
         return this.getBlockEntity(blockCoordinates.getX(), blockCoordinates.getY(), blockCoordinates.getZ());
     }
@@ -6,6 +6,7 @@ import com.nukkitx.protocol.bedrock.data.BlockPropertyData;
 import com.nukkitx.protocol.bedrock.data.inventory.ComponentItemData;
 import com.nukkitx.protocol.bedrock.packet.StartGamePacket;
 import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.format.MinecraftSerializationHandler;
 import io.github.pizzaserver.api.item.Item;
 
@@ -26,6 +27,20 @@ public interface MinecraftVersion extends MinecraftSerializationHandler {
 
     BedrockPacketCodec getPacketCodec();
 
+    /**
+     * Resolves the runtime id of a block.
+     * @param block the block
+     * @return runtime id of the block
+     */
+    int getBlockRuntimeId(Block block);
+
+    /**
+     * Resolves the runtime id of a block state.
+     * @param blockState the block state
+     * @return runtime id of the block state
+     */
+    int getBlockRuntimeId(BlockState blockState);
+
     /**
      * Resolves the runtime id of an item given its item id.
      * @param itemName item id
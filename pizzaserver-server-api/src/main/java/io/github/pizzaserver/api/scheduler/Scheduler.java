@@ -3,6 +3,8 @@ package io.github.pizzaserver.api.scheduler;
 import io.github.pizzaserver.api.Server;
 import io.github.pizzaserver.api.scheduler.task.RunnableTypeTask;
 import io.github.pizzaserver.api.scheduler.task.SchedulerTask;
+import io.github.pizzaserver.api.timings.TimingCategory;
+import io.github.pizzaserver.api.timings.TimingHandler;
 import io.github.pizzaserver.commons.utils.Check;
 
 import java.util.*;
@@ -131,12 +133,15 @@ public class Scheduler {
                                     this.activeThreads.add(Thread.currentThread());
                                 }
 
+                                TimingHandler timing = this.getTiming(task);
+                                long startTime = timing.start();
                                 try {
                                     task.getTask().run();
 
                                 } catch (Exception err) {
                                     Scheduler.this.server.getLogger().error("Error thrown in a scheduler (asynchronous) task:", err);
                                 }
+                                timing.stop(startTime);
 
                                 synchronized (this.activeThreads) {
                                     this.activeThreads.remove(Thread.currentThread());
@@ -146,6 +151,8 @@ public class Scheduler {
                         } else {
                             // Run as sync. This task must complete before the next one
                             // is ran.
+                            TimingHandler timing = this.getTiming(task);
+                            long startTime = timing.start();
                             try {
                                 task.getTask().run();
 
@@ -153,6 +160,7 @@ public class Scheduler {
                                 this.server.getLogger().error("Error thrown in a scheduler (synchronous) task:");
                                 err.printStackTrace();
                             }
+                            timing.stop(startTime);
                         }
 
 
@@ -180,6 +188,11 @@ public class Scheduler {
     }
 
 
+    private TimingHandler getTiming(SchedulerTaskEntry task) {
+        return this.server.getTimings().getHandler(TimingCategory.SCHEDULER_TASK, task.getTask().getName());
+    }
+
+
     // -- Task Control --
 
     protected synchronized void queueTaskEntry(SchedulerTaskEntry entry) {
@@ -15,4 +15,9 @@ public final class RunnableTypeTask extends SchedulerTask {
         this.taskRunnable.run();
     }
 
+    @Override
+    public String getName() {
+        return getClassName(this.taskRunnable.getClass());
+    }
+
 }
@@ -29,6 +29,25 @@ public abstract class SchedulerTask {
         return this.taskID;
     }
 
+    /**
+     * Retrieve the name used to identify this type of task in timings.
+     * @return name of the task
+     */
+    public String getName() {
+        return getClassName(this.getClass());
+    }
+
+    /**
+     * Retrieve the name of a class, grouping lambdas under the class they were declared in.
+     * @param clazz class
+     * @return class name
+     */
+    protected static String getClassName(Class<?> clazz) {
+        String name = clazz.getName();
+        int lambdaIndex = name.indexOf("$$Lambda");
+        return lambdaIndex != -1 ? name.substring(0, lambdaIndex) + " (lambda)" : name;
+    }
+
     /**
      * Retrieve if this task is cancelled.
      * @return true if the task has been cancelled.
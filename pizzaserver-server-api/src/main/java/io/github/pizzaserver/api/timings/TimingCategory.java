@@ -0,0 +1,24 @@
+package io.github.pizzaserver.api.timings;
+
+public enum TimingCategory {
+    /**
+     * A part of the server tick (e.g. processing incoming packets).
+     */
+    PHASE,
+    /**
+     * A world identified by its level name and dimension.
+     */
+    WORLD,
+    /**
+     * Entities identified by their entity definition id.
+     */
+    ENTITY,
+    /**
+     * Block entities identified by their block entity type id.
+     */
+    BLOCK_ENTITY,
+    /**
+     * Scheduler tasks identified by their class name.
+     */
+    SCHEDULER_TASK
+}
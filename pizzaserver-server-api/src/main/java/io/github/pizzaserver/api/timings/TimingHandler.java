@@ -0,0 +1,85 @@
+package io.github.pizzaserver.api.timings;
+
+import io.github.pizzaserver.commons.utils.Histogram;
+
+/**
+ * Records how long something takes each time it runs.
+ */
+public class TimingHandler {
+
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private final Timings timings;
+    private final TimingCategory category;
+    private final String name;
+
+    private final Histogram histogram = new Histogram();
+
+
+    public TimingHandler(Timings timings, TimingCategory category, String name) {
+        this.timings = timings;
+        this.category = category;
+        this.name = name;
+    }
+
+    public TimingCategory getCategory() {
+        return this.category;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Start timing.
+     * @return the start time to pass to {@link #stop(long)}
+     */
+    public long start() {
+        return this.timings.isEnabled() ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Stop timing and record the time elapsed.
+     * Nothing is recorded if timings were disabled when the timing started.
+     * @param startTime the start time returned by {@link #start()}
+     */
+    public void stop(long startTime) {
+        if (startTime != DISABLED) {
+            this.histogram.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Amount of times this was recorded.
+     * @return count
+     */
+    public long getCount() {
+        return this.histogram.getCount();
+    }
+
+    public long getTotalNanos() {
+        return this.histogram.getTotal();
+    }
+
+    public long getMaxNanos() {
+        return this.histogram.getMax();
+    }
+
+    public double getAverageNanos() {
+        return this.histogram.getAverage();
+    }
+
+    /**
+     * Retrieve the time that the given percentage of recordings took less than or equal to.
+     * @param percentile percentile between 0 and 100
+     * @return time in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        return this.histogram.getPercentile(percentile);
+    }
+
+    public void reset() {
+        this.histogram.reset();
+    }
+
+}
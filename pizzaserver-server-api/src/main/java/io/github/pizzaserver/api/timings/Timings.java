@@ -0,0 +1,65 @@
+package io.github.pizzaserver.api.timings;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records how long each part of the server tick takes.
+ */
+public interface Timings {
+
+    /**
+     * Name of the {@link TimingCategory#PHASE} timing that covers the entire tick.
+     */
+    String TICK = "tick";
+
+    /**
+     * Name of the {@link TimingCategory#PHASE} timing that covers processing incoming packets.
+     */
+    String PLAYER_PACKETS = "player-packets";
+
+    /**
+     * Name of the {@link TimingCategory#PHASE} timing that covers ticking levels.
+     */
+    String LEVELS = "levels";
+
+    /**
+     * Name of the {@link TimingCategory#PHASE} timing that covers ticking synced schedulers.
+     */
+    String SCHEDULERS = "schedulers";
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * Retrieve the timing handler of something, creating it if it does not exist.
+     * @param category category of the timing
+     * @param name name of the timing
+     * @return timing handler
+     */
+    TimingHandler getHandler(TimingCategory category, String name);
+
+    Set<TimingHandler> getHandlers();
+
+    /**
+     * Retrieve the timings that took the most time in total.
+     * Tick phases are excluded as they cover everything else.
+     * @param amount max amount of timings to return
+     * @return timings sorted by the total time they took
+     */
+    List<TimingHandler> getTopOffenders(int amount);
+
+    /**
+     * Create a human readable report of the milliseconds per tick, each tick phase and the top offenders.
+     * @param topOffenders amount of top offenders to include
+     * @return report
+     */
+    String createReport(int topOffenders);
+
+    /**
+     * Clear everything recorded so far.
+     */
+    void reset();
+
+}
@@ -0,0 +1,13 @@
+package io.github.pizzaserver.api.utils;
+
+public enum TickCatchUpPolicy {
+    /**
+     * Ticks missed during a lag spike are dropped and the server continues at the normal rate.
+     */
+    SKIP,
+
+    /**
+     * Ticks missed during a lag spike are ran back to back until the server has caught up.
+     */
+    BURST
+}
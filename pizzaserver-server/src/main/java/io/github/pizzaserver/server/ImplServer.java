@@ -20,9 +20,13 @@ import io.github.pizzaserver.api.player.Player;
 import io.github.pizzaserver.api.plugin.PluginManager;
 import io.github.pizzaserver.api.scheduler.Scheduler;
 import io.github.pizzaserver.api.scoreboard.Scoreboard;
+import io.github.pizzaserver.api.timings.TimingCategory;
+import io.github.pizzaserver.api.timings.TimingHandler;
+import io.github.pizzaserver.api.timings.Timings;
 import io.github.pizzaserver.api.utils.Config;
 import io.github.pizzaserver.api.utils.Logger;
 import io.github.pizzaserver.api.utils.ServerState;
+import io.github.pizzaserver.api.utils.TickCatchUpPolicy;
 import io.github.pizzaserver.server.block.ImplBlockRegistry;
 import io.github.pizzaserver.server.blockentity.ImplBlockEntityRegistry;
 import io.github.pizzaserver.server.entity.ImplEntityRegistry;
@@ -43,7 +47,9 @@ import io.github.pizzaserver.server.player.playerdata.provider.NBTPlayerDataProv
 import io.github.pizzaserver.server.player.playerdata.provider.PlayerDataProvider;
 import io.github.pizzaserver.server.plugin.ImplPluginManager;
 import io.github.pizzaserver.server.scoreboard.ImplScoreboard;
+import io.github.pizzaserver.server.timings.ImplTimings;
 import io.github.pizzaserver.server.utils.ImplLogger;
+import io.github.pizzaserver.server.utils.TickTimeTracker;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -53,6 +59,7 @@ import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 
 public class ImplServer extends Server {
@@ -70,6 +77,7 @@ public class ImplServer extends Server {
 
     protected Set<Scheduler> syncedSchedulers = Collections.synchronizedSet(new HashSet<>());
     protected Scheduler scheduler = new Scheduler(this, 1);
+    protected ImplTimings timings;
 
     protected final BedrockNetworkServer network = new BedrockNetworkServer(this);
     protected final String ip;
@@ -81,6 +89,11 @@ public class ImplServer extends Server {
     protected final Logger logger;
 
     protected int currentTps;
+    private volatile long tickStartTime;
+    private volatile boolean ticking;
+    private ServerWatchdog watchdog;
+    // The last 5 seconds of ticks
+    protected final TickTimeTracker tickTimes = new TickTimeTracker(100);
     protected long currentTick;
 
     protected ServerState state = ServerState.INACTIVE;
@@ -108,6 +121,7 @@ public class ImplServer extends Server {
         this.setMotd(this.config.getMotd());
         this.setMaximumPlayerCount(this.config.getMaximumPlayers());
 
+        this.timings = new ImplTimings(this.config.areTimingsEnabled());
         this.levelManager = new ImplLevelManager(this);
         this.dataPackManager.setPacksRequired(this.config.arePacksForced());
 
@@ -151,6 +165,11 @@ public class ImplServer extends Server {
         this.running = true;
         this.scheduler.startScheduler();
 
+        if (this.config.getWatchdogWarningSeconds() > 0) {
+            this.watchdog = new ServerWatchdog(this, Thread.currentThread());
+            this.watchdog.start();
+        }
+
         this.runTickLoop();
         this.stop();
 
@@ -160,38 +179,41 @@ public class ImplServer extends Server {
     private void runTickLoop() {
         this.state = ServerState.RUNNING;
 
-        int currentTps = 0;
-        long nextTpsRecording = 0;
+        long tickInterval = TimeUnit.SECONDS.toNanos(1) / 20;
+        TickCatchUpPolicy catchUpPolicy = this.config.getTickCatchUpPolicy();
 
-        long nanoSleepTime = 0;
+        int currentTps = 0;
+        long nextTpsRecording = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long nextTickTime = System.nanoTime();
 
         while (this.running) {
-            long idealNanoSleepPerTick = TimeUnit.SECONDS.toNanos(1) / 20;
-
             // Figure out how long it took to tick
             long startTickTime = System.nanoTime();
             this.tick();
             this.currentTick++;
             currentTps++;
-            long timeTakenToTick = System.nanoTime() - startTickTime;
-
-            // Sleep for the ideal time but take into account the time spent running the tick
-            nanoSleepTime += idealNanoSleepPerTick - timeTakenToTick;
-            long sleepStart = System.nanoTime();
-            try {
-                Thread.sleep(Math.max(TimeUnit.NANOSECONDS.toMillis(nanoSleepTime), 0));
-            } catch (InterruptedException exception) {
-                exception.printStackTrace();
-                this.stop();
-                return;
+            long endTickTime = System.nanoTime();
+            this.tickTimes.record(startTickTime, endTickTime - startTickTime);
+
+            nextTickTime += tickInterval;
+            long nanosBehind = endTickTime - nextTickTime;
+            if (nanosBehind > 0) {
+                // We are behind schedule. Either drop the missed ticks or run them back to back without waiting
+                if (catchUpPolicy == TickCatchUpPolicy.SKIP || nanosBehind > TimeUnit.SECONDS.toNanos(1)) {
+                    nextTickTime = endTickTime;
+                }
+            } else {
+                // parkNanos can return early, so keep parking until the next tick is due
+                long nanosUntilNextTick;
+                while ((nanosUntilNextTick = nextTickTime - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(nanosUntilNextTick);
+                    if (Thread.interrupted()) {
+                        this.stop();
+                        return;
+                    }
+                }
             }
 
-            // How long did it actually take to sleep?
-            // If we didn't sleep for the correct amount,
-            // take that into account for the next sleep by
-            // leaving extra/less for the next sleep.
-            nanoSleepTime -= System.nanoTime() - sleepStart;
-
             // Record TPS every second
             if (System.nanoTime() > nextTpsRecording) {
                 this.currentTps = currentTps;
@@ -202,6 +224,57 @@ public class ImplServer extends Server {
     }
 
     private void tick() {
+        this.tickStartTime = System.nanoTime();
+        this.ticking = true;
+
+        TimingHandler tickTiming = this.timings.getHandler(TimingCategory.PHASE, Timings.TICK);
+        long tickStartTime = tickTiming.start();
+        try {
+            this.tickPhases();
+        } finally {
+            tickTiming.stop(tickStartTime);
+            this.ticking = false;
+        }
+    }
+
+    /**
+     * Check if the main thread is currently running a tick.
+     * @return if a tick is in progress
+     */
+    public boolean isTicking() {
+        return this.ticking;
+    }
+
+    /**
+     * Retrieve when the current or last tick started.
+     * @return {@link System#nanoTime()} when the tick started
+     */
+    public long getTickStartTime() {
+        return this.tickStartTime;
+    }
+
+    /**
+     * The server will stop after the current tick finishes.
+     * Safe to call from any thread.
+     */
+    public void requestShutdown() {
+        this.running = false;
+    }
+
+    /**
+     * Wait for the server to finish stopping.
+     * @param timeout max time to wait
+     * @param unit unit of the timeout
+     * @return if the server stopped within the time given
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public boolean awaitShutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.shutdownLatch.await(timeout, unit);
+    }
+
+    private void tickPhases() {
+        TimingHandler packetsTiming = this.timings.getHandler(TimingCategory.PHASE, Timings.PLAYER_PACKETS);
+        long packetsStartTime = packetsTiming.start();
         synchronized (this.sessions) {
             for (PlayerSession session : this.sessions) {
                 try {
@@ -216,15 +289,22 @@ public class ImplServer extends Server {
                 }
             }
         }
+        packetsTiming.stop(packetsStartTime);
 
+        TimingHandler levelsTiming = this.timings.getHandler(TimingCategory.PHASE, Timings.LEVELS);
+        long levelsStartTime = levelsTiming.start();
         try {
             this.getLevelManager().tick();
         } catch (Exception exception) {
             this.getLogger().error("Error occurred while ticking", exception);
             this.stop();
             return;
+        } finally {
+            levelsTiming.stop(levelsStartTime);
         }
 
+        TimingHandler schedulersTiming = this.timings.getHandler(TimingCategory.PHASE, Timings.SCHEDULERS);
+        long schedulersStartTime = schedulersTiming.start();
         for (Scheduler scheduler : this.syncedSchedulers) {
             try {
                 scheduler.serverTick();
@@ -232,6 +312,7 @@ public class ImplServer extends Server {
                 this.getLogger().error("Failed to tick scheduler", exception);
             }
         }
+        schedulersTiming.stop(schedulersStartTime);
     }
 
     /**
@@ -239,6 +320,9 @@ public class ImplServer extends Server {
      */
     private void stop() {
         this.state = ServerState.STOPPING;
+        if (this.watchdog != null) {
+            this.watchdog.interrupt();
+        }
 
         this.getLogger().info("Stopping server...");
 
@@ -344,6 +428,21 @@ public class ImplServer extends Server {
         return this.currentTps;
     }
 
+    @Override
+    public double getAverageTps() {
+        return this.tickTimes.getAverageTps();
+    }
+
+    @Override
+    public double getAverageMspt() {
+        return this.tickTimes.getAverageMspt();
+    }
+
+    @Override
+    public double getMsptPercentile(double percentile) {
+        return this.tickTimes.getMsptPercentile(percentile);
+    }
+
     @Override
     public long getTick() {
         return this.currentTick;
@@ -374,6 +473,11 @@ public class ImplServer extends Server {
         return this.scheduler;
     }
 
+    @Override
+    public ImplTimings getTimings() {
+        return this.timings;
+    }
+
     @Override
     public Set<Scheduler> getSyncedSchedulers() {
         return Collections.unmodifiableSet(this.syncedSchedulers);
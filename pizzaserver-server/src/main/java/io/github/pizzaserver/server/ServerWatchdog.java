@@ -0,0 +1,161 @@
+package io.github.pizzaserver.server;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the main thread for ticks that take too long.
+ * Stalled ticks have the stack of the main thread logged repeatedly until the tick finishes
+ * and the server is shut down if the tick does not finish within the configured hard limit.
+ */
+public class ServerWatchdog extends Thread {
+
+    private static final long CHECK_INTERVAL_MILLIS = 1000;
+    private static final long SHUTDOWN_GRACE_SECONDS = 30;
+
+    private final ImplServer server;
+    private final Thread mainThread;
+
+    private final long warningNanos;
+    private final long repeatNanos;
+    private final long shutdownNanos;
+    private final boolean dumpAllThreads;
+
+
+    public ServerWatchdog(ImplServer server, Thread mainThread) {
+        this.server = server;
+        this.mainThread = mainThread;
+
+        this.warningNanos = TimeUnit.SECONDS.toNanos(server.getConfig().getWatchdogWarningSeconds());
+        this.repeatNanos = TimeUnit.SECONDS.toNanos(server.getConfig().getWatchdogRepeatSeconds());
+        this.shutdownNanos = TimeUnit.SECONDS.toNanos(server.getConfig().getWatchdogShutdownSeconds());
+        this.dumpAllThreads = server.getConfig().isWatchdogDumpingAllThreads();
+
+        this.setName("Server Watchdog");
+        this.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        long reportedTick = -1;
+        long lastReportTime = 0;
+
+        while (!this.isInterrupted()) {
+            try {
+                Thread.sleep(CHECK_INTERVAL_MILLIS);
+            } catch (InterruptedException exception) {
+                return;
+            }
+
+            long tick = this.server.getTick();
+            long tickStartTime = this.server.getTickStartTime();
+            if (!this.server.isTicking()) {
+                continue;
+            }
+
+            long now = System.nanoTime();
+            long tickDuration = now - tickStartTime;
+            if (tickDuration < this.warningNanos) {
+                continue;
+            }
+
+            if (tick != reportedTick || now - lastReportTime >= this.repeatNanos) {
+                this.report(tick, tickDuration);
+                reportedTick = tick;
+                lastReportTime = now;
+            }
+
+            if (this.shutdownNanos > 0 && tickDuration >= this.shutdownNanos) {
+                this.shutdown(tickDuration);
+                return;
+            }
+        }
+    }
+
+    private void report(long tick, long tickDuration) {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Tick %d has been running for %.1f seconds!%n", tick, tickDuration / (double) TimeUnit.SECONDS.toNanos(1)));
+        if (this.dumpAllThreads) {
+            for (ThreadInfo threadInfo : threadMXBean.dumpAllThreads(true, true)) {
+                appendThread(report, threadInfo);
+            }
+
+            long[] deadlockedThreadIds = threadMXBean.findDeadlockedThreads();
+            if (deadlockedThreadIds != null) {
+                report.append("Deadlocked threads:").append(System.lineSeparator());
+                for (ThreadInfo threadInfo : threadMXBean.getThreadInfo(deadlockedThreadIds, true, true)) {
+                    appendThread(report, threadInfo);
+                }
+            }
+        } else {
+            ThreadInfo[] threadInfo = threadMXBean.getThreadInfo(new long[]{ this.mainThread.getId() }, true, true);
+            if (threadInfo.length > 0 && threadInfo[0] != null) {
+                appendThread(report, threadInfo[0]);
+            }
+        }
+
+        this.server.getLogger().error(report.toString());
+    }
+
+    /**
+     * Stop the server as the tick has not finished within the hard limit.
+     * The main thread is interrupted and given time to save and stop before the process exits.
+     * @param tickDuration how long the stalled tick has taken
+     */
+    private void shutdown(long tickDuration) {
+        this.server.getLogger().error(String.format("Tick took longer than %.1f seconds. Shutting down the server...",
+                tickDuration / (double) TimeUnit.SECONDS.toNanos(1)));
+
+        this.server.requestShutdown();
+        this.mainThread.interrupt();
+
+        try {
+            if (this.server.awaitShutdown(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                return;
+            }
+        } catch (InterruptedException exception) {
+            return;
+        }
+
+        this.server.getLogger().error("The main thread did not stop. Exiting without saving.");
+        System.exit(1);
+    }
+
+    private static void appendThread(StringBuilder report, ThreadInfo threadInfo) {
+        report.append('"').append(threadInfo.getThreadName()).append("\" id=").append(threadInfo.getThreadId())
+                .append(' ').append(threadInfo.getThreadState());
+        if (threadInfo.getLockName() != null) {
+            report.append(" on ").append(threadInfo.getLockName());
+        }
+        if (threadInfo.getLockOwnerName() != null) {
+            report.append(" owned by \"").append(threadInfo.getLockOwnerName()).append("\" id=").append(threadInfo.getLockOwnerId());
+        }
+        report.append(System.lineSeparator());
+
+        StackTraceElement[] stackTrace = threadInfo.getStackTrace();
+        for (int depth = 0; depth < stackTrace.length; depth++) {
+            report.append("    at ").append(stackTrace[depth]).append(System.lineSeparator());
+            for (MonitorInfo monitorInfo : threadInfo.getLockedMonitors()) {
+                if (monitorInfo.getLockedStackDepth() == depth) {
+                    report.append("    - locked ").append(monitorInfo).append(System.lineSeparator());
+                }
+            }
+        }
+
+        LockInfo[] lockedSynchronizers = threadInfo.getLockedSynchronizers();
+        if (lockedSynchronizers.length > 0) {
+            report.append("    Locked synchronizers:").append(System.lineSeparator());
+            for (LockInfo lockInfo : lockedSynchronizers) {
+                report.append("    - ").append(lockInfo).append(System.lineSeparator());
+            }
+        }
+        report.append(System.lineSeparator());
+    }
+
+}
@@ -1,13 +1,18 @@
 package io.github.pizzaserver.server.block;
 
+import com.nukkitx.nbt.NbtMap;
 import io.github.pizzaserver.api.Server;
 import io.github.pizzaserver.api.block.Block;
 import io.github.pizzaserver.api.block.BlockRegistry;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.block.behavior.BlockBehavior;
 import io.github.pizzaserver.api.item.ItemRegistry;
 import io.github.pizzaserver.api.item.impl.ItemBlock;
 import io.github.pizzaserver.api.utils.ServerState;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockStateRegistry;
 import io.github.pizzaserver.server.item.behavior.impl.ItemBlockBehavior;
+import io.github.pizzaserver.server.network.protocol.ServerProtocol;
 
 import java.util.*;
 
@@ -17,6 +22,14 @@ public class ImplBlockRegistry implements BlockRegistry {
     private final Map<String, Block> blocks = new HashMap<>();
     private final Map<Class<? extends Block>, BlockBehavior<? extends Block>> behaviors = new HashMap<>();
 
+    // Every state of the registered block types by their state index
+    private final Map<String, BlockState[]> blockStates = new HashMap<>();
+    private final Map<String, Map<NbtMap, BlockState>> blockStatesByNBT = new HashMap<>();
+    // Palette state ids of the registered block types by their state index
+    private final Map<String, int[]> paletteStateIds = new HashMap<>();
+    // palette state id : block state. Filled as palette entries are looked up.
+    private volatile BlockState[] blockStatesByPaletteStateId = new BlockState[0];
+
     // All registered CUSTOM block types
     private final Set<Block> customTypes = new HashSet<>();
 
@@ -33,9 +46,30 @@ public class ImplBlockRegistry implements BlockRegistry {
 
         this.blocks.put(registeredBlock.getBlockId(), registeredBlock);
         this.behaviors.put(registeredBlock.getClass(), behavior);
+        this.registerBlockStates(registeredBlock);
         ItemRegistry.getInstance().register(new ItemBlock(registeredBlock), new ItemBlockBehavior());
     }
 
+    private void registerBlockStates(Block block) {
+        List<NbtMap> nbtStates = block.getNBTStates();
+        BlockState[] states = new BlockState[nbtStates.size()];
+        Map<NbtMap, BlockState> statesByNBT = new HashMap<>();
+        int[] stateIds = new int[nbtStates.size()];
+        for (int stateIndex = 0; stateIndex < states.length; stateIndex++) {
+            states[stateIndex] = new BlockState(block, stateIndex);
+            statesByNBT.putIfAbsent(nbtStates.get(stateIndex), states[stateIndex]);
+            stateIds[stateIndex] = BlockStateRegistry.getEntry(block.getBlockId(), ServerProtocol.LATEST_BLOCK_STATES_VERSION, nbtStates.get(stateIndex))
+                    .getStateId();
+        }
+
+        this.blockStates.put(block.getBlockId(), states);
+        this.blockStatesByNBT.put(block.getBlockId(), statesByNBT);
+        this.paletteStateIds.put(block.getBlockId(), stateIds);
+        synchronized (this) {
+            this.blockStatesByPaletteStateId = new BlockState[0];
+        }
+    }
+
     @Override
     public boolean hasBlock(String blockId) {
         return this.blocks.containsKey(blockId);
@@ -53,13 +87,79 @@ public class ImplBlockRegistry implements BlockRegistry {
 
     @Override
     public Block getBlock(String blockId, int state) {
-        if (!this.blocks.containsKey(blockId)) {
+        return this.getBlockState(blockId, state).toBlock();
+    }
+
+    @Override
+    public BlockState getBlockState(String blockId, int state) {
+        BlockState[] states = this.blockStates.get(blockId);
+        if (states == null) {
+            throw new NullPointerException("No registered block could be found by the id: " + blockId);
+        }
+        if (state < 0 || state >= states.length) {
+            throw new IndexOutOfBoundsException("The block state index is out of bounds.");
+        }
+
+        return states[state];
+    }
+
+    @Override
+    public BlockState getBlockState(String blockId, NbtMap state) {
+        Map<NbtMap, BlockState> states = this.blockStatesByNBT.get(blockId);
+        if (states == null) {
             throw new NullPointerException("No registered block could be found by the id: " + blockId);
         }
 
-        Block block = this.blocks.get(blockId).clone();
-        block.setBlockState(state);
-        return block;
+        BlockState blockState = states.get(state);
+        if (blockState == null) {
+            throw new NullPointerException("The provided block state does not exist on this block.");
+        }
+        return blockState;
+    }
+
+    /**
+     * Retrieve the shared state of a block stored in a chunk.
+     * The state of each interned palette entry is only looked up once.
+     * @param entry the palette entry
+     * @return the block state or null if the block id is not registered
+     */
+    public BlockState getBlockState(BlockPaletteEntry entry) {
+        int stateId = entry.getStateId();
+        BlockState[] states = this.blockStatesByPaletteStateId;
+        if (stateId >= 0 && stateId < states.length && states[stateId] != null) {
+            return states[stateId];
+        }
+
+        if (!this.hasBlock(entry.getId())) {
+            return null;
+        }
+        BlockState blockState = this.getBlockState(entry.getId(), entry.getState());
+        if (stateId >= 0) {
+            synchronized (this) {
+                states = this.blockStatesByPaletteStateId;
+                if (stateId >= states.length) {
+                    states = Arrays.copyOf(states, Math.max(stateId + 1, states.length * 2));
+                }
+                // Block states are immutable and safe to share through a plain array write
+                states[stateId] = blockState;
+                this.blockStatesByPaletteStateId = states;
+            }
+        }
+        return blockState;
+    }
+
+    /**
+     * Retrieve the state id of the {@link BlockPaletteEntry} that represents a block state in chunks.
+     * @param blockId id of the block
+     * @param state index of the block state
+     * @return the palette state id or -1 if the block state is not registered
+     */
+    public int getPaletteStateId(String blockId, int state) {
+        int[] stateIds = this.paletteStateIds.get(blockId);
+        if (stateIds == null || state < 0 || state >= stateIds.length) {
+            return -1;
+        }
+        return stateIds[state];
     }
 
     @Override
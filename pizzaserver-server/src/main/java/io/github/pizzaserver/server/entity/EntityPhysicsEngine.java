@@ -1,14 +1,15 @@
 package io.github.pizzaserver.server.entity;
 
 import com.nukkitx.math.vector.Vector3f;
-import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.entity.Entity;
 import io.github.pizzaserver.api.entity.definition.components.impl.EntityPhysicsComponent;
 import io.github.pizzaserver.api.level.world.chunks.Chunk;
 import io.github.pizzaserver.api.utils.BoundingBox;
+import io.github.pizzaserver.server.level.world.chunks.LastChunkCache;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 public class EntityPhysicsEngine {
 
@@ -126,13 +127,18 @@ public class EntityPhysicsEngine {
                 int minBlockZCheck = (int) Math.floor(intersectingBlockBoundingBox.getMinZ());
                 int maxBlockZCheck = (int) Math.ceil(intersectingBlockBoundingBox.getMaxZ());
 
-                Set<Block> collidingBlocks = new HashSet<>();
+                // Only the bounding boxes are needed, so block states are used to avoid creating a block per position
+                List<BoundingBox> collidingBoundingBoxes = new ArrayList<>();
+                LastChunkCache chunkCache = new LastChunkCache(this.entity.getWorld());
                 for (int y = minBlockYCheck; y <= maxBlockYCheck; y++) {
                     for (int x = minBlockXCheck; x <= maxBlockXCheck; x++) {
                         for (int z = minBlockZCheck; z <= maxBlockZCheck; z++) {
-                            Block block = this.entity.getWorld().getBlock(x, y, z);
-                            if (block.hasCollision() && block.getBoundingBox().collidesWith(targetNewLocationBoundingBox)) {
-                                collidingBlocks.add(block);
+                            BlockState blockState = chunkCache.getBlockState(x, y, z);
+                            if (blockState.hasCollision()) {
+                                BoundingBox blockBoundingBox = blockState.getBoundingBox(x, y, z);
+                                if (blockBoundingBox.collidesWith(targetNewLocationBoundingBox)) {
+                                    collidingBoundingBoxes.add(blockBoundingBox);
+                                }
                             }
                         }
                     }
@@ -142,20 +148,20 @@ public class EntityPhysicsEngine {
                 BoundingBox newEntityBoundingBox = this.entity.getBoundingBox();
 
                 // Adjust y
-                for (Block block : collidingBlocks) {
-                    deltaY = newEntityBoundingBox.calcYOffset(block.getBoundingBox(), deltaY);
+                for (BoundingBox blockBoundingBox : collidingBoundingBoxes) {
+                    deltaY = newEntityBoundingBox.calcYOffset(blockBoundingBox, deltaY);
                 }
                 newEntityBoundingBox = newEntityBoundingBox.translate(0, deltaY, 0);
 
                 // Adjust x
-                for (Block block : collidingBlocks) {
-                    deltaX = newEntityBoundingBox.calcXOffset(block.getBoundingBox(), deltaX);
+                for (BoundingBox blockBoundingBox : collidingBoundingBoxes) {
+                    deltaX = newEntityBoundingBox.calcXOffset(blockBoundingBox, deltaX);
                 }
                 newEntityBoundingBox = newEntityBoundingBox.translate(deltaX, 0, 0);
 
                 // Adjust z
-                for (Block block : collidingBlocks) {
-                    deltaZ = newEntityBoundingBox.calcZOffset(block.getBoundingBox(), deltaZ);
+                for (BoundingBox blockBoundingBox : collidingBoundingBoxes) {
+                    deltaZ = newEntityBoundingBox.calcZOffset(blockBoundingBox, deltaZ);
                 }
 
 
@@ -185,7 +191,7 @@ public class EntityPhysicsEngine {
             if (this.entity.isOnGround()) {
                 // Consider block friction
                 if (Math.abs(this.getMotion().getX()) > 0 || Math.abs(this.getMotion().getZ()) > 0) {
-                    friction *= this.entity.getWorld().getBlock(this.entity.getLocation().toVector3i().sub(0, 1, 0)).getFriction();
+                    friction *= this.entity.getWorld().getBlockState(this.entity.getFloorX(), this.entity.getFloorY() - 1, this.entity.getFloorZ()).getFriction();
                 }
             }
             newMotion = newMotion.mul(friction, 1, friction);
@@ -9,6 +9,7 @@ import com.nukkitx.protocol.bedrock.data.inventory.ContainerType;
 import com.nukkitx.protocol.bedrock.packet.*;
 import io.github.pizzaserver.api.Server;
 import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.entity.Entity;
 import io.github.pizzaserver.api.entity.boss.BossBar;
 import io.github.pizzaserver.api.entity.data.DamageCause;
@@ -42,6 +43,7 @@ import io.github.pizzaserver.server.item.ItemUtils;
 import io.github.pizzaserver.server.level.ImplLevel;
 import io.github.pizzaserver.server.level.world.ImplWorld;
 import io.github.pizzaserver.server.level.world.chunks.ImplChunk;
+import io.github.pizzaserver.server.level.world.chunks.LastChunkCache;
 
 import java.util.*;
 
@@ -252,10 +254,12 @@ public class ImplEntity implements Entity {
         int maxBlockZCheck = (int) boundingBox.getMaxZ();
 
         BoundingBox intersectingBoundingBox = this.getBoundingBox().translate(0, -0.0002f, 0);
+        LastChunkCache chunkCache = new LastChunkCache(this.getWorld());
         for (int x = minBlockXCheck; x <= maxBlockXCheck; x++) {
             for (int z = minBlockZCheck; z <= maxBlockZCheck; z++) {
-                Block blockBelow = this.getWorld().getBlock(x, this.getFloorY() - 1, z);
-                if (blockBelow.hasCollision() && blockBelow.getBoundingBox().collidesWith(intersectingBoundingBox)) {
+                int y = this.getFloorY() - 1;
+                BlockState blockBelow = chunkCache.getBlockState(x, y, z);
+                if (blockBelow.hasCollision() && blockBelow.getBoundingBox(x, y, z).collidesWith(intersectingBoundingBox)) {
                     return true;
                 }
             }
@@ -275,12 +279,14 @@ public class ImplEntity implements Entity {
 
         Set<Block> collidingBlocks = new HashSet<>();
 
+        // Most of the blocks checked are in the same chunk
+        LastChunkCache chunkCache = new LastChunkCache(this.getWorld());
         for (int x = minBlockXCheck; x <= maxBlockXCheck; x++) {
             for (int y = minBlockYCheck; y <= maxBlockYCheck; y++) {
                 for (int z = minBlockZCheck; z <= maxBlockZCheck; z++) {
-                    Block block = this.getWorld().getBlock(x, y, z);
-                    if (block.getBoundingBox().collidesWith(entityBoundingBox)) {
-                        collidingBlocks.add(block);
+                    // Blocks are only created for the positions that collide
+                    if (chunkCache.getBlockState(x, y, z).getBoundingBox(x, y, z).collidesWith(entityBoundingBox)) {
+                        collidingBlocks.add(chunkCache.getBlock(x, y, z));
                     }
                 }
             }
@@ -403,6 +409,10 @@ public class ImplEntity implements Entity {
 
     @Override
     public void teleport(World world, float x, float y, float z, float pitch, float yaw, float headYaw) {
+        if (this.deferWorldChange(world, () -> this.teleport(world, x, y, z, pitch, yaw, headYaw))) {
+            return;
+        }
+
         World oldWorld = this.getWorld();
         this.moveUpdate = true;
 
@@ -418,6 +428,20 @@ public class ImplEntity implements Entity {
         }
     }
 
+    /**
+     * Moving between worlds is not safe while worlds are being ticked in parallel.
+     * @param world world being moved to
+     * @param teleport the teleport to run once every world has finished ticking
+     * @return true if the teleport was queued instead of being ran now
+     */
+    protected boolean deferWorldChange(World world, Runnable teleport) {
+        if (!world.equals(this.getWorld()) && !this.getServer().getLevelManager().isSafePoint()) {
+            this.getServer().getLevelManager().runAtSafePoint(teleport);
+            return true;
+        }
+        return false;
+    }
+
     @Override
     public Vector3f getMotion() {
         return this.physicsEngine.getMotion();
@@ -958,19 +982,24 @@ public class ImplEntity implements Entity {
 
     public void moveTo(float x, float y, float z, float pitch, float yaw, float headYaw) {
         this.moveUpdate = true;
-        Block blockBelow = this.getWorld().getBlock(this.getFloorX(), this.getFloorY() - 1, this.getFloorZ());
+        int oldFloorX = this.getFloorX();
+        int oldFloorY = this.getFloorY();
+        int oldFloorZ = this.getFloorZ();
 
         ImplChunk currentChunk = this.getChunk();
         this.setPosition(this.getWorld(), x, y, z, pitch, yaw, headYaw);
 
         ImplChunk newChunk = this.getWorld().getChunk((int) Math.floor(this.x / 16), (int) Math.floor(this.z / 16));
         if (!currentChunk.equals(newChunk)) {   // spawn entity in new chunk and remove from old chunk
-            currentChunk.removeEntity(this);
-            newChunk.addEntity(this);
+            this.getWorld().getChunkManager().runBetweenChunks(currentChunk, newChunk, () -> {
+                currentChunk.removeEntity(this);
+                newChunk.addEntity(this);
+            });
         }
 
-        Block newBlockBelow = this.getWorld().getBlock(this.getFloorX(), this.getFloorY() - 1, this.getFloorZ());
-        if (!blockBelow.getLocation().equals(newBlockBelow.getLocation())) {
+        if (oldFloorX != this.getFloorX() || oldFloorY != this.getFloorY() || oldFloorZ != this.getFloorZ()) {
+            Block blockBelow = this.getWorld().getBlock(oldFloorX, oldFloorY - 1, oldFloorZ);
+            Block newBlockBelow = this.getWorld().getBlock(this.getFloorX(), this.getFloorY() - 1, this.getFloorZ());
             newBlockBelow.getBehavior().onWalkedOn(this, newBlockBelow);
             blockBelow.getBehavior().onWalkedOff(this, blockBelow);
         }
@@ -18,7 +18,7 @@ public class ItemUtils {
      * @return serialized data
      */
     public static ItemData serializeForNetwork(Item item, MinecraftVersion version) {
-        int blockRuntimeId = item instanceof ItemBlock itemBlock ? version.getBlockRuntimeId(itemBlock.getBlock().getBlockId(), itemBlock.getBlock().getNBTState()) : 0;
+        int blockRuntimeId = item instanceof ItemBlock itemBlock ? version.getBlockRuntimeId(itemBlock.getBlock()) : 0;
         return ItemData.builder()
                 .id(version.getItemRuntimeId(item.getItemId()))
                 .netId(item.getNetworkId())
@@ -4,7 +4,9 @@ import io.github.pizzaserver.api.level.Level;
 import io.github.pizzaserver.api.level.data.Difficulty;
 import io.github.pizzaserver.api.level.world.data.Dimension;
 import io.github.pizzaserver.format.BedrockLevel;
+import io.github.pizzaserver.format.data.LevelData;
 import io.github.pizzaserver.server.ImplServer;
+import io.github.pizzaserver.server.level.processing.ChunkSaveQueue;
 import io.github.pizzaserver.server.level.world.ImplWorld;
 
 import java.io.Closeable;
@@ -21,6 +23,8 @@ public class ImplLevel implements Level, Closeable {
 
     private Difficulty difficulty;
 
+    private final LevelAutoSaver autoSaver;
+
     public ImplLevel(ImplLevelManager levelManager, BedrockLevel provider) {
         this.levelManager = levelManager;
         this.provider = provider;
@@ -30,6 +34,7 @@ public class ImplLevel implements Level, Closeable {
         this.dimensions.put(Dimension.END, new ImplWorld(this, Dimension.END));
 
         this.difficulty = Difficulty.values()[this.getProvider().getLevelData().getDifficulty()];
+        this.autoSaver = new LevelAutoSaver(this);
     }
 
     /**
@@ -60,6 +65,10 @@ public class ImplLevel implements Level, Closeable {
         return this.provider;
     }
 
+    public LevelAutoSaver getAutoSaver() {
+        return this.autoSaver;
+    }
+
     @Override
     public ImplWorld getDimension(Dimension dimension) {
         return this.dimensions.getOrDefault(dimension, null);
@@ -77,8 +86,45 @@ public class ImplLevel implements Level, Closeable {
 
     @Override
     public void save() throws IOException {
-        // TODO: save chunks
-        // TODO: save level data
+        this.saveLevelData();
+        for (ImplWorld world : this.dimensions.values()) {
+            world.getChunkManager().saveChunks();
+        }
+
+        // Wait for the level data and chunks that were unloaded or autosaved to be written
+        try {
+            if (!this.levelManager.getChunkSaveQueue().flush(ChunkSaveQueue.FLUSH_TIMEOUT_MILLIS)) {
+                throw new IOException("Timed out waiting for chunks to be saved");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for chunks to be saved", exception);
+        }
+    }
+
+    @Override
+    public void scheduleSave() {
+        this.levelManager.getServer().getScheduler().prepareTask(this.autoSaver::start).schedule();
+    }
+
+    @Override
+    public boolean isSaving() {
+        return this.autoSaver.isSaving();
+    }
+
+    @Override
+    public float getSaveProgress() {
+        return this.autoSaver.getProgress();
+    }
+
+    /**
+     * Queue the level data of this level to be written to the level.dat file by the {@link ChunkSaveQueue}.
+     * The level data is copied so that it is not modified while it is written.
+     */
+    public void saveLevelData() {
+        LevelData levelData = this.getProvider().getLevelData().clone();
+        levelData.setDifficulty(this.difficulty.ordinal());
+        this.levelManager.getChunkSaveQueue().queueLevelDataSave(this, levelData);
     }
 
     @Override
@@ -86,6 +132,17 @@ public class ImplLevel implements Level, Closeable {
         for (ImplWorld world : this.dimensions.values()) {
             world.close();
         }
+
+        // Unloaded chunks may still be waiting to be written. Chunks that keep failing to be written are discarded.
+        ChunkSaveQueue saveQueue = this.levelManager.getChunkSaveQueue();
+        try {
+            if (!saveQueue.flush(ChunkSaveQueue.FLUSH_TIMEOUT_MILLIS)) {
+                saveQueue.discardSaves(this);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for chunks to be saved", exception);
+        }
         this.getProvider().close();
     }
 
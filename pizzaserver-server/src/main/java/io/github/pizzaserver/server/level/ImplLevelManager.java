@@ -8,6 +8,7 @@ import io.github.pizzaserver.commons.utils.ReadWriteKeyLock;
 import io.github.pizzaserver.format.BedrockLevel;
 import io.github.pizzaserver.format.provider.mcworld.MCWorldLevel;
 import io.github.pizzaserver.server.ImplServer;
+import io.github.pizzaserver.server.level.processing.ChunkSaveQueue;
 import io.github.pizzaserver.server.level.processing.LevelChunkProcessorManager;
 import io.github.pizzaserver.server.level.world.ImplWorld;
 
@@ -17,23 +18,46 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ImplLevelManager implements LevelManager, Closeable {
 
     private final ImplServer server;
     private final LevelChunkProcessorManager levelChunkProcessorManager;
+    private final ChunkSaveQueue chunkSaveQueue;
 
     // fileName : Level
     private final Map<String, ImplLevel> levels = new ConcurrentHashMap<>();
     private final ReadWriteKeyLock<String> locks = new ReadWriteKeyLock<>();
 
+    // Only present if worlds or chunks are ticked in parallel
+    private final ForkJoinPool tickPool;
+    private final AtomicInteger tickThreadCount = new AtomicInteger(0);
+    private volatile boolean tickingLevels;
+
+    // Tasks that affect more than one level and must wait until no level is ticking
+    private final Queue<Runnable> safePointTasks = new ConcurrentLinkedQueue<>();
+
 
     public ImplLevelManager(ImplServer server) {
         this.server = server;
         this.levelChunkProcessorManager = new LevelChunkProcessorManager(this);
+        this.chunkSaveQueue = new ChunkSaveQueue(this);
+
+        if (server.getConfig().isParallelWorldTickingEnabled() || server.getConfig().isParallelChunkTickingEnabled()) {
+            this.tickPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Tick Thread #" + this.tickThreadCount.incrementAndGet());
+                return thread;
+            }, null, false);
+        } else {
+            this.tickPool = null;
+        }
     }
 
     public ImplServer getServer() {
@@ -44,16 +68,102 @@ public class ImplLevelManager implements LevelManager, Closeable {
         return this.levelChunkProcessorManager;
     }
 
+    public ChunkSaveQueue getChunkSaveQueue() {
+        return this.chunkSaveQueue;
+    }
+
+    /**
+     * Retrieve the thread pool used to tick worlds and chunks in parallel.
+     * @return tick thread pool or null if parallel ticking is disabled
+     */
+    public ForkJoinPool getTickPool() {
+        return this.tickPool;
+    }
+
     /**
      * Ticks all the levels loaded.
+     * If parallel world ticking is enabled, every level is ticked at the same time and this waits until all of them are done.
+     * The dimensions of a level share its provider and are always ticked one after another on the same thread.
      */
     public void tick() {
+        if (this.server.getConfig().isParallelWorldTickingEnabled()) {
+            this.tickLevelsInParallel();
+        } else {
+            for (ImplLevel level : this.levels.values()) {
+                level.tick();
+            }
+        }
+
+        this.runSafePointTasks();
         for (ImplLevel level : this.levels.values()) {
-            level.tick();
+            level.getAutoSaver().tick();
         }
         this.levelChunkProcessorManager.tick();
     }
 
+    private void tickLevelsInParallel() {
+        List<ForkJoinTask<?>> levelTicks = new ArrayList<>();
+        Throwable failure = null;
+
+        this.tickingLevels = true;
+        try {
+            for (ImplLevel level : this.levels.values()) {
+                levelTicks.add(this.tickPool.submit(level::tick));
+            }
+        } catch (RuntimeException exception) {
+            failure = exception;
+        }
+
+        // Every level must finish ticking before the rest of the tick continues, even if another level failed to tick
+        for (ForkJoinTask<?> levelTick : levelTicks) {
+            try {
+                levelTick.join();
+            } catch (RuntimeException | Error exception) {
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        this.tickingLevels = false;
+
+        if (failure instanceof Error error) {
+            throw error;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    /**
+     * Check if it is safe to run a task that affects more than one level on the current thread.
+     * @return false if levels are currently being ticked in parallel
+     */
+    public boolean isSafePoint() {
+        return !this.tickingLevels;
+    }
+
+    /**
+     * Run a task that affects more than one level (e.g. moving an entity between levels or broadcasting to every player).
+     * If levels are being ticked in parallel, the task is ran once every level has finished ticking.
+     * Events fired while a level ticks are called on that level's tick thread, so listeners must not touch other levels without this.
+     * @param task task to run
+     */
+    public void runAtSafePoint(Runnable task) {
+        if (this.isSafePoint()) {
+            task.run();
+        } else {
+            this.safePointTasks.add(task);
+        }
+    }
+
+    private void runSafePointTasks() {
+        Runnable task;
+        while ((task = this.safePointTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
     @Override
     public boolean isLevelLoaded(String name) {
         return this.levels.containsKey(name);
@@ -201,7 +311,7 @@ public class ImplLevelManager implements LevelManager, Closeable {
     protected BedrockLevel getProvider(File levelFile, ProviderType providerType) throws IOException {
         switch (providerType) {
             case LEVELDB:
-                return new MCWorldLevel(levelFile);
+                return new MCWorldLevel(levelFile, this.server.getConfig().getReadOnlyLevels().contains(levelFile.getName()));
             default:
                 return null;
         }
@@ -213,5 +323,13 @@ public class ImplLevelManager implements LevelManager, Closeable {
             this.unloadLevel(level.getProvider().getFile().getName());
         }
         this.levelChunkProcessorManager.close();
+        try {
+            this.chunkSaveQueue.close();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.tickPool != null) {
+            this.tickPool.shutdownNow();
+        }
     }
 }
@@ -0,0 +1,119 @@
+package io.github.pizzaserver.server.level;
+
+import io.github.pizzaserver.api.level.world.data.Dimension;
+import io.github.pizzaserver.server.level.processing.ChunkSaveQueue;
+import io.github.pizzaserver.server.level.world.ImplWorld;
+import io.github.pizzaserver.server.level.world.chunks.ImplChunk;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Saves a level over multiple ticks so that autosaving does not stall the server.
+ * Every tick, a limited amount of modified chunks are handed to the {@link ChunkSaveQueue} to be written.
+ * The level data is handed to the queue as well when the save starts, so no save writes to disk on the tick thread.
+ */
+public class LevelAutoSaver {
+
+    private final ImplLevel level;
+
+    private int ticksUntilNextSave;
+
+    // Chunks left to check in the current save
+    private final Deque<ImplChunk> remainingChunks = new ArrayDeque<>();
+    private volatile int totalChunks;
+    private volatile int processedChunks;
+    private volatile boolean saving;
+
+
+    public LevelAutoSaver(ImplLevel level) {
+        this.level = level;
+        this.resetInterval();
+    }
+
+    /**
+     * Continue the current save or start a new one once the autosave interval has passed.
+     */
+    public void tick() {
+        if (!this.saving) {
+            if (this.level.getServer().getConfig().getAutosaveInterval() <= 0 || this.level.getProvider().isReadOnly()) {
+                return;
+            }
+
+            if (--this.ticksUntilNextSave > 0) {
+                return;
+            }
+            this.start();
+        }
+
+        this.saveChunks();
+    }
+
+    /**
+     * Start saving the level over the next ticks.
+     * Does nothing if the level is already being saved.
+     */
+    public void start() {
+        if (this.saving) {
+            return;
+        }
+
+        this.remainingChunks.clear();
+        for (Dimension dimension : Dimension.values()) {
+            this.remainingChunks.addAll(this.level.getDimension(dimension).getChunkManager().getLoadedChunks());
+        }
+        this.totalChunks = this.remainingChunks.size();
+        this.processedChunks = 0;
+        this.saving = true;
+
+        this.level.saveLevelData();
+    }
+
+    public boolean isSaving() {
+        return this.saving;
+    }
+
+    /**
+     * Retrieve how far along the current save is.
+     * @return a value between 0 and 1 or 1 if the level is not being saved
+     */
+    public float getProgress() {
+        if (!this.saving || this.totalChunks == 0) {
+            return 1;
+        }
+        return (float) this.processedChunks / this.totalChunks;
+    }
+
+    private void saveChunks() {
+        ChunkSaveQueue saveQueue = this.level.getLevelManager().getChunkSaveQueue();
+        int chunksLeft = this.level.getServer().getConfig().getAutosaveChunksPerTick();
+        long deadline = System.nanoTime() + this.level.getServer().getConfig().getAutosaveMaxMillisecondsPerTick() * 1_000_000L;
+
+        while (!this.remainingChunks.isEmpty() && chunksLeft > 0 && System.nanoTime() < deadline) {
+            ImplChunk chunk = this.remainingChunks.peek();
+            ImplWorld world = chunk.getWorld();
+
+            // Chunks that were unloaded since the save started were already queued when they were unloaded
+            if (chunk.isModified() && world.getChunkManager().getChunk(chunk.getX(), chunk.getZ(), false) == chunk) {
+                if (!saveQueue.offerSave(world, chunk.getBedrockChunk())) {
+                    // The save queue is full. Try again next tick.
+                    break;
+                }
+                chunksLeft--;
+            }
+
+            this.remainingChunks.poll();
+            this.processedChunks++;
+        }
+
+        if (this.remainingChunks.isEmpty()) {
+            this.saving = false;
+            this.resetInterval();
+        }
+    }
+
+    private void resetInterval() {
+        this.ticksUntilNextSave = this.level.getServer().getConfig().getAutosaveInterval() * 20;
+    }
+
+}
@@ -0,0 +1,335 @@
+package io.github.pizzaserver.server.level.processing;
+
+import io.github.pizzaserver.format.data.LevelData;
+import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
+import io.github.pizzaserver.server.level.ImplLevel;
+import io.github.pizzaserver.server.level.ImplLevelManager;
+import io.github.pizzaserver.server.level.world.ImplWorld;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Saves chunks and level data on a dedicated thread so that unloading or autosaving a level does not wait on the disk.
+ * Unloaded chunks are no longer used by their world, so the chunk itself is handed off to the queue.
+ * Saving the same chunk again before it was written replaces the queued save and loading a chunk
+ * that has not been written yet returns the queued chunk instead of the older data on disk.
+ * Only the newest level data queued for a level is written.
+ * Chunks and level data that fail to be written are queued again and retried after a delay that grows with every failed attempt.
+ * Once a level is closed, chunks and level data of it that still could not be written are discarded.
+ */
+public class ChunkSaveQueue {
+
+    private static final long MIN_RETRY_DELAY_MILLIS = 500;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30000;
+
+    // Max time saving or closing a level waits for queued chunks to be written
+    public static final long FLUSH_TIMEOUT_MILLIS = 60000;
+
+    private final ImplLevelManager levelManager;
+    private final int capacity;
+
+    // Guarded by this.lock
+    private final Object lock = new Object();
+    private final Map<ChunkSaveKey, BedrockChunk> pendingSaves = new LinkedHashMap<>();
+    // Saves being written that are queued again if they fail. Saves of chunks that were taken back are removed.
+    private final Map<ChunkSaveKey, BedrockChunk> writingSaves = new HashMap<>();
+    // level : level data to write to its level.dat file
+    private final Map<ImplLevel, LevelData> pendingLevelData = new LinkedHashMap<>();
+    private final Map<ImplLevel, LevelData> writingLevelData = new HashMap<>();
+    private boolean writing;
+
+    private final Thread saveThread;
+
+
+    public ChunkSaveQueue(ImplLevelManager levelManager) {
+        this.levelManager = levelManager;
+        this.capacity = levelManager.getServer().getConfig().getChunkSaveQueueSize();
+
+        this.saveThread = new Thread(this::run, "Chunk Save Thread");
+        this.saveThread.setDaemon(true);
+        this.saveThread.start();
+    }
+
+    /**
+     * Queue an unloaded chunk to be saved.
+     * If the queue is full, this waits until the save thread has caught up.
+     * @param world world of the chunk
+     * @param chunk chunk to save which must no longer be used by the world
+     * @throws InterruptedException if the thread was interrupted while waiting for space in the queue
+     */
+    public void queueSave(ImplWorld world, BedrockChunk chunk) throws InterruptedException {
+        ChunkSaveKey key = new ChunkSaveKey(world, chunk.getX(), chunk.getZ());
+        synchronized (this.lock) {
+            while (this.pendingSaves.size() >= this.capacity && !this.pendingSaves.containsKey(key)) {
+                this.lock.wait();
+            }
+
+            this.pendingSaves.put(key, chunk);
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Queue a chunk to be saved if there is space in the queue.
+     * The chunk may still be loaded, in which case it is locked while it is written and changes made afterwards are saved next time.
+     * @param world world of the chunk
+     * @param chunk chunk to save
+     * @return if the chunk was queued
+     */
+    public boolean offerSave(ImplWorld world, BedrockChunk chunk) {
+        ChunkSaveKey key = new ChunkSaveKey(world, chunk.getX(), chunk.getZ());
+        synchronized (this.lock) {
+            if (this.pendingSaves.size() >= this.capacity && !this.pendingSaves.containsKey(key)) {
+                return false;
+            }
+
+            this.pendingSaves.put(key, chunk);
+            this.lock.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Queue the level data of a level to be written to its level.dat file.
+     * Replaces any level data of the level that was queued but not written yet.
+     * @param level level to save the level data of
+     * @param levelData level data to write which must not be modified afterwards
+     */
+    public void queueLevelDataSave(ImplLevel level, LevelData levelData) {
+        synchronized (this.lock) {
+            this.pendingLevelData.put(level, levelData);
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Retrieve a chunk that was unloaded but is not fully written to disk yet.
+     * The chunk is removed from the queue and any further changes must be saved again.
+     * @param world world of the chunk
+     * @param x chunk x
+     * @param z chunk z
+     * @return the newest data of the chunk or null if no save is pending for it
+     */
+    public BedrockChunk takePendingChunk(ImplWorld world, int x, int z) {
+        ChunkSaveKey key = new ChunkSaveKey(world, x, z);
+        synchronized (this.lock) {
+            BedrockChunk chunk = this.pendingSaves.remove(key);
+            if (chunk != null) {
+                this.lock.notifyAll();
+                return chunk;
+            }
+
+            // The chunk is being written. Changes made after it is written are marked as dirty again by the chunk.
+            // If the write fails, the chunk is marked as changed again and saved by its world, so it is not retried by the queue.
+            return this.writingSaves.remove(key);
+        }
+    }
+
+    /**
+     * Wait until every queued chunk and level data is written to disk.
+     * Saves that fail to be written are retried, so this waits until they were written or the timeout passed.
+     * @param timeoutMillis max time to wait in milliseconds
+     * @return if every queued save was written
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (this.lock) {
+            while (this.hasPendingSaves() || this.writing) {
+                long remainingMillis = deadline - System.currentTimeMillis();
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                this.lock.wait(remainingMillis);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stop saving the chunks of a level that is being closed.
+     * Waits for a write in progress to finish so that the provider of the level can be closed afterwards.
+     * The chunks and level data that were never written are logged.
+     * @param level level being closed
+     * @return the chunks of the level that were never written
+     * @throws InterruptedException if the thread was interrupted while waiting for a write to finish
+     */
+    public List<BedrockChunk> discardSaves(ImplLevel level) throws InterruptedException {
+        List<BedrockChunk> discardedChunks = new ArrayList<>();
+        boolean discardedLevelData;
+        synchronized (this.lock) {
+            // A write that fails afterwards is not queued again
+            this.writingSaves.keySet().removeIf(key -> key.world.getLevel().equals(level));
+            this.writingLevelData.remove(level);
+            discardedLevelData = this.pendingLevelData.remove(level) != null;
+
+            Iterator<Map.Entry<ChunkSaveKey, BedrockChunk>> iterator = this.pendingSaves.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<ChunkSaveKey, BedrockChunk> entry = iterator.next();
+                if (entry.getKey().world.getLevel().equals(level)) {
+                    discardedChunks.add(entry.getValue());
+                    iterator.remove();
+                }
+            }
+            this.lock.notifyAll();
+
+            while (this.writing) {
+                this.lock.wait();
+            }
+        }
+
+        if (!discardedChunks.isEmpty()) {
+            StringBuilder coordinates = new StringBuilder();
+            for (BedrockChunk chunk : discardedChunks) {
+                coordinates.append(" (").append(chunk.getX()).append(", ").append(chunk.getZ()).append(", dimension ").append(chunk.getDimension()).append(")");
+            }
+            this.levelManager.getServer().getLogger().error("Failed to save " + discardedChunks.size() + " chunks of " + level.getName() + ":" + coordinates);
+        }
+        if (discardedLevelData) {
+            this.levelManager.getServer().getLogger().error("Failed to save level data of " + level.getName());
+        }
+        return discardedChunks;
+    }
+
+    /**
+     * Wait for the queued chunks to be written and stop the save thread.
+     * Chunks that still could not be written after {@link #FLUSH_TIMEOUT_MILLIS} are logged and discarded.
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void close() throws InterruptedException {
+        if (!this.flush(FLUSH_TIMEOUT_MILLIS)) {
+            Set<ImplLevel> levels = new HashSet<>();
+            synchronized (this.lock) {
+                for (ChunkSaveKey key : this.pendingSaves.keySet()) {
+                    levels.add(key.world.getLevel());
+                }
+                levels.addAll(this.pendingLevelData.keySet());
+            }
+            for (ImplLevel level : levels) {
+                this.discardSaves(level);
+            }
+        }
+        this.saveThread.interrupt();
+    }
+
+    private void run() {
+        long retryDelay = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Map<ImplWorld, Map<ChunkSaveKey, BedrockChunk>> chunksByWorld = new HashMap<>();
+            Map<ImplLevel, LevelData> levelDataSaves;
+            synchronized (this.lock) {
+                try {
+                    while (!this.hasPendingSaves()) {
+                        this.lock.wait();
+                    }
+                } catch (InterruptedException exception) {
+                    return;
+                }
+
+                this.writing = true;
+                for (Map.Entry<ChunkSaveKey, BedrockChunk> entry : this.pendingSaves.entrySet()) {
+                    this.writingSaves.put(entry.getKey(), entry.getValue());
+                    chunksByWorld.computeIfAbsent(entry.getKey().world, ignored -> new LinkedHashMap<>()).put(entry.getKey(), entry.getValue());
+                }
+                this.pendingSaves.clear();
+                this.writingLevelData.putAll(this.pendingLevelData);
+                levelDataSaves = new LinkedHashMap<>(this.pendingLevelData);
+                this.pendingLevelData.clear();
+
+                // Wake up any threads waiting for space in the queue
+                this.lock.notifyAll();
+            }
+
+            // Chunks of the same world are written together in as few batches as possible
+            Map<ChunkSaveKey, BedrockChunk> failedSaves = new LinkedHashMap<>();
+            for (Map.Entry<ImplWorld, Map<ChunkSaveKey, BedrockChunk>> entry : chunksByWorld.entrySet()) {
+                ImplWorld world = entry.getKey();
+                try {
+                    world.getLevel()
+                            .getProvider()
+                            .getDimension(world.getDimension().ordinal())
+                            .saveChunks(entry.getValue().values());
+                } catch (IOException | RuntimeException exception) {
+                    this.levelManager.getServer().getLogger().error("Failed to save chunks of " + world.getLevel().getName() + ". They will be saved again.", exception);
+                    failedSaves.putAll(entry.getValue());
+                }
+            }
+
+            Map<ImplLevel, LevelData> failedLevelDataSaves = new HashMap<>();
+            for (Map.Entry<ImplLevel, LevelData> entry : levelDataSaves.entrySet()) {
+                try {
+                    entry.getKey().getProvider().setLevelData(entry.getValue());
+                } catch (IOException | RuntimeException exception) {
+                    this.levelManager.getServer().getLogger().error("Failed to save level data of " + entry.getKey().getName() + ". It will be saved again.", exception);
+                    failedLevelDataSaves.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            synchronized (this.lock) {
+                // Unloaded chunks are only referenced by this queue, so they are queued again unless a newer save replaced them.
+                // Chunks that were taken back by their world or discarded are no longer saved by this queue.
+                for (Map.Entry<ChunkSaveKey, BedrockChunk> failedSave : failedSaves.entrySet()) {
+                    if (this.writingSaves.get(failedSave.getKey()) == failedSave.getValue()) {
+                        this.pendingSaves.putIfAbsent(failedSave.getKey(), failedSave.getValue());
+                    }
+                }
+                for (Map.Entry<ImplLevel, LevelData> failedSave : failedLevelDataSaves.entrySet()) {
+                    if (this.writingLevelData.get(failedSave.getKey()) == failedSave.getValue()) {
+                        this.pendingLevelData.putIfAbsent(failedSave.getKey(), failedSave.getValue());
+                    }
+                }
+                this.writingSaves.clear();
+                this.writingLevelData.clear();
+                this.writing = false;
+                this.lock.notifyAll();
+            }
+
+            if (failedSaves.isEmpty() && failedLevelDataSaves.isEmpty()) {
+                retryDelay = 0;
+            } else {
+                retryDelay = Math.min(Math.max(retryDelay * 2, MIN_RETRY_DELAY_MILLIS), MAX_RETRY_DELAY_MILLIS);
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException exception) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Must hold this.lock
+    private boolean hasPendingSaves() {
+        return !this.pendingSaves.isEmpty() || !this.pendingLevelData.isEmpty();
+    }
+
+
+    private static class ChunkSaveKey {
+
+        private final ImplWorld world;
+        private final int x;
+        private final int z;
+
+
+        public ChunkSaveKey(ImplWorld world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * this.world.hashCode()) + (17 * this.x) + (43 * this.z);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ChunkSaveKey otherKey) {
+                return otherKey.world.equals(this.world) && otherKey.x == this.x && otherKey.z == this.z;
+            }
+            return false;
+        }
+
+    }
+
+}
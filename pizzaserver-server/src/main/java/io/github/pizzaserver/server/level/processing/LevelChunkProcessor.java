@@ -1,10 +1,15 @@
 package io.github.pizzaserver.server.level.processing;
 
 import io.github.pizzaserver.server.level.processing.requests.ChunkRequest;
+import io.github.pizzaserver.server.level.processing.requests.ChunkRequestGroup;
 import io.github.pizzaserver.server.level.processing.requests.PlayerChunkRequest;
+import io.github.pizzaserver.server.level.processing.requests.SubChunkRequest;
 import io.github.pizzaserver.server.level.processing.requests.UnloadChunkRequest;
 import io.github.pizzaserver.server.level.world.ImplWorld;
+import io.github.pizzaserver.server.level.world.chunks.WorldChunkManager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -34,14 +39,28 @@ public class LevelChunkProcessor implements Runnable {
                 }
                 this.allowedRequests.getAndDecrement();
 
-                ChunkRequest request = this.levelChunkProcessorManager.takeRequest();
-                if (request instanceof PlayerChunkRequest playerChunkRequest) {
-                    // send chunk request
-                    request.getWorld().sendChunk(playerChunkRequest.getPlayer(), request.getX(), request.getZ(), false);
-                } else {
-                    // unload request
-                    ((ImplWorld) request.getWorld()).getChunkManager().unloadChunk(request.getX(), request.getZ(), false, ((UnloadChunkRequest) request).isForced());
+                ChunkRequestGroup requests = this.levelChunkProcessorManager.takeRequests();
+                WorldChunkManager chunkManager = ((ImplWorld) requests.getWorld()).getChunkManager();
+
+                // Requests are processed in the order they were queued. Consecutive player requests share one send.
+                List<PlayerChunkRequest> playerRequests = new ArrayList<>();
+                for (ChunkRequest request : requests.getRequests()) {
+                    if (request instanceof PlayerChunkRequest playerChunkRequest) {
+                        playerRequests.add(playerChunkRequest);
+                    } else if (request instanceof SubChunkRequest subChunkRequest) {
+                        this.sendChunk(chunkManager, requests, playerRequests);
+                        playerRequests.clear();
+
+                        subChunkRequest.getPlayer().getChunkManager().sendSubChunks(subChunkRequest);
+                    } else {
+                        this.sendChunk(chunkManager, requests, playerRequests);
+                        playerRequests.clear();
+
+                        // unload request
+                        chunkManager.unloadChunk(requests.getX(), requests.getZ(), false, ((UnloadChunkRequest) request).isForced());
+                    }
                 }
+                this.sendChunk(chunkManager, requests, playerRequests);
             } catch (InterruptedException ignored) {
                 return;
             }
@@ -50,6 +69,31 @@ public class LevelChunkProcessor implements Runnable {
         }
     }
 
+    private void sendChunk(WorldChunkManager chunkManager, ChunkRequestGroup requests, List<PlayerChunkRequest> playerRequests) {
+        List<PlayerChunkRequest> activeRequests = new ArrayList<>();
+        for (PlayerChunkRequest playerChunkRequest : playerRequests) {
+            if (!playerChunkRequest.isCancelled()) {
+                activeRequests.add(playerChunkRequest);
+            }
+        }
+        try {
+            if (!activeRequests.isEmpty()) {
+                chunkManager.sendChunk(activeRequests, requests.getX(), requests.getZ());
+            }
+        } finally {
+            if (!playerRequests.isEmpty()) {
+                // Scheduled after the main thread tasks that spawn the chunk to the players.
+                // The requests stay in flight until then so that they can still be cancelled if the player moves away.
+                List<PlayerChunkRequest> processedRequests = new ArrayList<>(playerRequests);
+                this.levelChunkProcessorManager.getLevelManager().getServer().getScheduler().prepareTask(() -> {
+                    for (PlayerChunkRequest playerChunkRequest : processedRequests) {
+                        playerChunkRequest.getPlayer().getChunkManager().onChunkRequestProcessed(playerChunkRequest);
+                    }
+                }).schedule();
+            }
+        }
+    }
+
     /**
      * Resets the amount of chunk requests this processor can take in this tick.
      */
@@ -1,10 +1,11 @@
 package io.github.pizzaserver.server.level.processing;
 
+import io.github.pizzaserver.api.level.world.World;
 import io.github.pizzaserver.server.level.ImplLevelManager;
 import io.github.pizzaserver.server.level.processing.requests.ChunkRequest;
+import io.github.pizzaserver.server.level.processing.requests.ChunkRequestGroup;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -15,7 +16,8 @@ public class LevelChunkProcessorManager {
 
     private final ImplLevelManager levelManager;
 
-    private final BlockingQueue<ChunkRequest> requests = new LinkedBlockingQueue<>();
+    // Requests for the same chunk are merged into one group. Groups are taken in the order they were created.
+    private final Map<ChunkRequestKey, ChunkRequestGroup> requests = new LinkedHashMap<>();
 
     private final ExecutorService processorsThreadPool;
     private final AtomicInteger processorThreadCount = new AtomicInteger(0);
@@ -44,20 +46,39 @@ public class LevelChunkProcessorManager {
 
     /**
      * Add a chunk request for the processors to handle.
+     * If a request for the same chunk is already queued, the requests are merged.
      * @param request chunk request
      */
     public void addRequest(ChunkRequest request) {
-        this.requests.add(request);
+        ChunkRequestKey key = new ChunkRequestKey(request.getWorld(), request.getX(), request.getZ());
+        synchronized (this.requests) {
+            ChunkRequestGroup group = this.requests.get(key);
+            if (group == null) {
+                group = new ChunkRequestGroup(request.getWorld(), request.getX(), request.getZ());
+                this.requests.put(key, group);
+                this.requests.notify();
+            }
+            group.addRequest(request);
+        }
     }
 
     /**
-     * Take a request from the queued chunk requests.
+     * Take the oldest group of requests from the queued chunk requests.
      * If none is available this will wait until one is available or the thread is interrupted.
-     * @return chunk request
+     * @return all requests queued for a chunk
      * @throws InterruptedException if the thread is interrupted.
      */
-    public ChunkRequest takeRequest() throws InterruptedException {
-        return this.requests.take();
+    public ChunkRequestGroup takeRequests() throws InterruptedException {
+        synchronized (this.requests) {
+            while (this.requests.isEmpty()) {
+                this.requests.wait();
+            }
+
+            Iterator<ChunkRequestGroup> iterator = this.requests.values().iterator();
+            ChunkRequestGroup group = iterator.next();
+            iterator.remove();
+            return group;
+        }
     }
 
     public ImplLevelManager getLevelManager() {
@@ -74,4 +95,33 @@ public class LevelChunkProcessorManager {
         this.processorsThreadPool.shutdownNow();
     }
 
+
+    private static class ChunkRequestKey {
+
+        private final World world;
+        private final int x;
+        private final int z;
+
+
+        public ChunkRequestKey(World world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * this.world.hashCode()) + (17 * this.x) + (43 * this.z);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ChunkRequestKey otherKey) {
+                return otherKey.world.equals(this.world) && otherKey.x == this.x && otherKey.z == this.z;
+            }
+            return false;
+        }
+
+    }
+
 }
@@ -0,0 +1,75 @@
+package io.github.pizzaserver.server.level.processing.requests;
+
+import io.github.pizzaserver.api.level.world.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * All queued requests for the same chunk.
+ * Requests are merged so that the chunk is only loaded once regardless of how many players requested it.
+ */
+public class ChunkRequestGroup {
+
+    private final World world;
+    private final int x;
+    private final int z;
+
+    // Requests in the order they were queued. Consecutive unload requests are merged into one.
+    private final List<ChunkRequest> requests = new ArrayList<>();
+
+
+    public ChunkRequestGroup(World world, int x, int z) {
+        this.world = world;
+        this.x = x;
+        this.z = z;
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    public int getX() {
+        return this.x;
+    }
+
+    public int getZ() {
+        return this.z;
+    }
+
+    /**
+     * Merge a request into this group.
+     * A queued unload request that was not forced is cancelled if a player requests the chunk afterwards.
+     * A forced unload request stays in place, so the chunk is unloaded before it is sent to players that requested it afterwards.
+     * Sub chunk requests are treated the same as player requests.
+     * @param request chunk request for the same chunk as this group
+     */
+    public void addRequest(ChunkRequest request) {
+        ChunkRequest lastRequest = this.requests.isEmpty() ? null : this.requests.get(this.requests.size() - 1);
+        if (request instanceof PlayerChunkRequest || request instanceof SubChunkRequest) {
+            if (lastRequest instanceof UnloadChunkRequest unloadRequest && !unloadRequest.isForced()) {
+                this.requests.remove(this.requests.size() - 1);
+            }
+            this.requests.add(request);
+        } else {
+            UnloadChunkRequest unloadRequest = (UnloadChunkRequest) request;
+            if (lastRequest instanceof UnloadChunkRequest lastUnloadRequest) {
+                if (!lastUnloadRequest.isForced() && unloadRequest.isForced()) {
+                    this.requests.set(this.requests.size() - 1, unloadRequest);
+                }
+            } else {
+                this.requests.add(unloadRequest);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the requests of this group in the order they should be processed.
+     * @return player, sub chunk and unload requests
+     */
+    public List<ChunkRequest> getRequests() {
+        return Collections.unmodifiableList(this.requests);
+    }
+
+}
@@ -5,6 +5,7 @@ import io.github.pizzaserver.server.player.ImplPlayer;
 public class PlayerChunkRequest extends ChunkRequest {
 
     private final ImplPlayer player;
+    private volatile boolean cancelled;
 
 
     public PlayerChunkRequest(ImplPlayer player, int x, int z) {
@@ -16,4 +17,19 @@ public class PlayerChunkRequest extends ChunkRequest {
         return this.player;
     }
 
+    /**
+     * Check if the player no longer wants this chunk.
+     * @return if the request was cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Cancel this request if it has not been processed yet.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
 }
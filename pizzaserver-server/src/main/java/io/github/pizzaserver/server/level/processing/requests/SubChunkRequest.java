@@ -0,0 +1,44 @@
+package io.github.pizzaserver.server.level.processing.requests;
+
+import com.nukkitx.math.vector.Vector3i;
+import com.nukkitx.protocol.bedrock.packet.SubChunkRequestPacket;
+import io.github.pizzaserver.server.player.ImplPlayer;
+
+/**
+ * Sub chunks a client requested after it was sent a chunk in sub chunk request mode.
+ * The sub chunks are serialized by a chunk processor as they may need to be read from the world file.
+ */
+public class SubChunkRequest extends ChunkRequest {
+
+    private final ImplPlayer player;
+    private final SubChunkRequestPacket packet;
+
+
+    public SubChunkRequest(ImplPlayer player, SubChunkRequestPacket packet) {
+        super(player.getWorld(), packet.getSubChunkPosition().getX(), packet.getSubChunkPosition().getZ());
+        this.player = player;
+        this.packet = packet;
+    }
+
+    public ImplPlayer getPlayer() {
+        return this.player;
+    }
+
+    public SubChunkRequestPacket getPacket() {
+        return this.packet;
+    }
+
+    /**
+     * Check if the client requested a single sub chunk.
+     * Clients before v503 request a single sub chunk per packet and do not send any offsets.
+     * @return if only the sub chunk at the position of the packet was requested
+     */
+    public boolean isSingleSubChunk() {
+        return this.packet.getPositionOffsets().isEmpty();
+    }
+
+    public Vector3i getSubChunkPosition() {
+        return this.packet.getSubChunkPosition();
+    }
+
+}
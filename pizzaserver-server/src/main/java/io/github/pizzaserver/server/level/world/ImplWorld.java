@@ -7,6 +7,7 @@ import com.nukkitx.protocol.bedrock.data.SoundEvent;
 import com.nukkitx.protocol.bedrock.packet.LevelSoundEventPacket;
 import com.nukkitx.protocol.bedrock.packet.SetTimePacket;
 import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.block.data.BlockUpdateType;
 import io.github.pizzaserver.api.blockentity.BlockEntity;
 import io.github.pizzaserver.api.entity.Entity;
@@ -19,6 +20,8 @@ import io.github.pizzaserver.api.level.world.chunks.loader.ChunkLoader;
 import io.github.pizzaserver.api.level.world.data.Dimension;
 import io.github.pizzaserver.api.player.Player;
 import io.github.pizzaserver.api.player.data.Gamemode;
+import io.github.pizzaserver.api.timings.TimingCategory;
+import io.github.pizzaserver.api.timings.TimingHandler;
 import io.github.pizzaserver.api.utils.Location;
 import io.github.pizzaserver.server.ImplServer;
 import io.github.pizzaserver.server.entity.ImplEntity;
@@ -36,6 +39,8 @@ public class ImplWorld implements World {
     protected final Dimension dimension;
     protected final WorldChunkManager chunkManager = new WorldChunkManager(this);
 
+    protected final String timingsName;
+
     protected Vector3i spawnCoordinates;
     protected int time;
 
@@ -46,6 +51,7 @@ public class ImplWorld implements World {
     public ImplWorld(ImplLevel level, Dimension dimension) {
         this.level = level;
         this.dimension = dimension;
+        this.timingsName = level.getName() + " " + dimension.name().toLowerCase();
 
         Vector3i worldSpawnCoordinates = this.level.getProvider().getLevelData().getWorldSpawn();
         if (worldSpawnCoordinates.getY() > 255) {    // Hack to get around Minecraft worlds having REALLY high y spawn coordinates in the level.dat
@@ -146,6 +152,14 @@ public class ImplWorld implements World {
         return this.getChunk(chunkX, chunkZ).getBlock(x & 15, y, z & 15, layer);
     }
 
+    @Override
+    public BlockState getBlockState(int x, int y, int z, int layer) {
+        int chunkX = getChunkCoordinate(x);
+        int chunkZ = getChunkCoordinate(z);
+
+        return this.getChunk(chunkX, chunkZ).getBlockState(x & 15, y, z & 15, layer);
+    }
+
     @Override
     public Optional<BlockEntity> getBlockEntity(int x, int y, int z) {
         int chunkX = getChunkCoordinate(x);
@@ -281,8 +295,13 @@ public class ImplWorld implements World {
 
     @Override
     public void tick() {
+        TimingHandler timing = this.getServer().getTimings().getHandler(TimingCategory.WORLD, this.timingsName);
+        long startTime = timing.start();
+
         this.chunkManager.tick();
         this.time++;
+
+        timing.stop(startTime);
     }
 
     @Override
@@ -320,7 +339,7 @@ public class ImplWorld implements World {
                 packet.setRelativeVolumeDisabled(relativeVolumeDisabled);
                 packet.setBabySound(isBaby);
                 packet.setIdentifier(entityType);
-                packet.setExtraData(block != null ? player.getVersion().getBlockRuntimeId(block.getBlockId(), block.getNBTState()) : -1);
+                packet.setExtraData(block != null ? player.getVersion().getBlockRuntimeId(block) : -1);
 
                 player.sendPacket(packet);
             }
@@ -11,26 +11,37 @@ import com.nukkitx.protocol.bedrock.packet.UpdateBlockPacket;
 import io.github.pizzaserver.api.block.Block;
 import io.github.pizzaserver.api.block.BlockID;
 import io.github.pizzaserver.api.block.BlockRegistry;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.block.data.BlockUpdateType;
-import io.github.pizzaserver.api.block.impl.BlockAir;
 import io.github.pizzaserver.api.blockentity.BlockEntity;
 import io.github.pizzaserver.api.blockentity.types.BlockEntityType;
 import io.github.pizzaserver.api.entity.Entity;
 import io.github.pizzaserver.api.level.world.chunks.Chunk;
+import io.github.pizzaserver.api.network.protocol.version.MinecraftVersion;
 import io.github.pizzaserver.api.player.Player;
+import io.github.pizzaserver.api.timings.TimingCategory;
+import io.github.pizzaserver.api.timings.TimingHandler;
+import io.github.pizzaserver.api.timings.Timings;
 import io.github.pizzaserver.commons.utils.Check;
 import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
 import io.github.pizzaserver.format.dimension.chunks.subchunk.BedrockSubChunk;
 import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockLayer;
 import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockStateRegistry;
 import io.github.pizzaserver.format.utils.BedrockNetworkUtils;
 import io.github.pizzaserver.format.utils.VarInts;
 import io.github.pizzaserver.server.ImplServer;
+import io.github.pizzaserver.server.block.ImplBlockRegistry;
 import io.github.pizzaserver.server.entity.ImplEntity;
+import io.github.pizzaserver.server.level.processing.requests.PlayerChunkRequest;
 import io.github.pizzaserver.server.level.world.ImplWorld;
 import io.github.pizzaserver.server.level.world.chunks.data.BlockUpdateEntry;
+import io.github.pizzaserver.server.level.world.chunks.data.ChunkPayload;
 import io.github.pizzaserver.server.level.world.chunks.utils.ChunkUtils;
 import io.github.pizzaserver.server.network.protocol.ServerProtocol;
+import io.github.pizzaserver.server.network.protocol.version.V486MinecraftVersion;
+import io.github.pizzaserver.server.player.ImplPlayer;
+import io.github.pizzaserver.server.player.manager.PlayerBlobCacheManager;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufOutputStream;
@@ -39,20 +50,20 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents a 16x16 chunk of blocks on the server.
  */
 public class ImplChunk implements Chunk {
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final int MIN_SUB_CHUNK_INDEX = -4;
+    private static final int SUB_CHUNK_COUNT = 24;
 
-    private final BedrockChunk chunk;
-    private volatile boolean chunkWasModified;
+    // Sub chunks that were already retrieved from the internal chunk, so that blocks can be read from them without locking
+    private final AtomicReferenceArray<BedrockSubChunk> loadedSubChunks = new AtomicReferenceArray<>(SUB_CHUNK_COUNT);
 
+    private final BedrockChunk chunk;
     private final ImplWorld world;
     private final int x;
     private final int z;
@@ -60,15 +71,24 @@ public class ImplChunk implements Chunk {
     private final List<BlockUpdateEntry> blockUpdates = new ArrayList<>();
 
     private int expiryTimer;
+
+    // Group of chunks this chunk was ticked with during the last parallel chunk tick
+    private volatile int tickRegion = -1;
     private final AtomicInteger activeChunkLoaders = new AtomicInteger(0);
 
     // Entities in this chunk
     private final Set<Entity> entities = new HashSet<>();
-    private final Map<Vector3i, BlockEntity> blockEntities = new HashMap<>();
+    private final Map<Vector3i, BlockEntity> blockEntities = new ConcurrentHashMap<>();
 
     // The players who can see this chunk
     private final Set<Player> spawnedTo = ConcurrentHashMap.newKeySet();
 
+    // Serialized chunk data shared by all viewers of the same version. Cleared whenever the chunk is modified.
+    private final Map<MinecraftVersion, ChunkPayload> cachedPayloads = new ConcurrentHashMap<>();
+    private final Map<MinecraftVersion, ChunkPayload> cachedRequestModePayloads = new ConcurrentHashMap<>();
+    // Serialized sub chunks requested by clients using sub chunk requests. Only the modified sub chunk is cleared.
+    private final Map<MinecraftVersion, byte[][]> cachedSubChunkPayloads = new ConcurrentHashMap<>();
+
 
     @SuppressWarnings("rawtypes")
     protected ImplChunk(ImplWorld world, int x, int z, BedrockChunk chunk) {
@@ -82,7 +102,10 @@ public class ImplChunk implements Chunk {
             String blockEntityId = blockEntityNBT.getString("id");
             BlockEntityType blockEntityType = ImplServer.getInstance().getBlockEntityRegistry().getBlockEntityType(blockEntityId);
 
-            this.addBlockEntity(blockEntityType.deserializeDisk(this.getWorld(), blockEntityNBT));
+            // The block entity is already stored in the chunk and does not need to be added to it again
+            BlockEntity blockEntity = blockEntityType.deserializeDisk(this.getWorld(), blockEntityNBT);
+            Vector3i blockCoordinates = Vector3i.from(blockEntity.getLocation().getX() & 15, blockEntity.getLocation().getY(), blockEntity.getLocation().getZ() & 15);
+            this.blockEntities.put(blockCoordinates, blockEntity);
         }
     }
 
@@ -122,35 +145,41 @@ public class ImplChunk implements Chunk {
     /**
      * Add this entity this chunk.
      * The entity is also spawned to any viewers of this chunk within render distance.
+     * If this chunk is ticked in parallel by another thread, the entity is added once every chunk finished ticking.
      * @param entity the entity to spawn
      */
     public void addEntity(ImplEntity entity) {
-        if (!this.entities.contains(entity)) {
-            for (Player player : this.getViewers()) {
-                if (entity.canBeSpawnedTo(player)) {
-                    entity.spawnTo(player);
+        this.getWorld().getChunkManager().runInChunk(this, () -> {
+            if (!this.entities.contains(entity)) {
+                for (Player player : this.getViewers()) {
+                    if (entity.canBeSpawnedTo(player)) {
+                        entity.spawnTo(player);
+                    }
                 }
-            }
 
-            this.entities.add(entity);
-        }
+                this.entities.add(entity);
+            }
+        });
     }
 
     /**
      * Remove this entity from this chunk.
      * The entity is also despawned from any viewers of this chunk who are no longer within render distance.
+     * If this chunk is ticked in parallel by another thread, the entity is removed once every chunk finished ticking.
      * @param entity the entity to spawn
      */
     public void removeEntity(Entity entity) {
-        if (this.entities.remove(entity)) {
-            for (Player player : this.getViewers()) {
-                if (!player.equals(entity)) {
-                    if (((ImplEntity) entity).shouldBeDespawnedFrom(player)) {
-                        entity.despawnFrom(player);
+        this.getWorld().getChunkManager().runInChunk(this, () -> {
+            if (this.entities.remove(entity)) {
+                for (Player player : this.getViewers()) {
+                    if (!player.equals(entity)) {
+                        if (((ImplEntity) entity).shouldBeDespawnedFrom(player)) {
+                            entity.despawnFrom(player);
+                        }
                     }
                 }
             }
-        }
+        });
     }
 
     @Override
@@ -164,7 +193,7 @@ public class ImplChunk implements Chunk {
 
         synchronized (this.chunk) {
             this.chunk.addBlockEntity(blockEntity.getDiskData());
-            this.chunkWasModified = true;
+            this.invalidatePayloads(blockCoordinates.getY() >> 4);
         }
     }
 
@@ -174,7 +203,7 @@ public class ImplChunk implements Chunk {
 
         synchronized (this.chunk) {
             this.chunk.removeBlockEntity(blockCoordinates.getX(), blockCoordinates.getY(), blockCoordinates.getZ());
-            this.chunkWasModified = true;
+            this.invalidatePayloads(blockCoordinates.getY() >> 4);
         }
     }
 
@@ -194,6 +223,12 @@ public class ImplChunk implements Chunk {
 
     @Override
     public Block getBlock(int x, int y, int z, int layer) {
+        BlockState blockState = this.getBlockState(x, y, z, layer);
+        return blockState.toBlock(this.getWorld(), this.getX() * 16 + (x & 15), y, this.getZ() * 16 + (z & 15), layer);
+    }
+
+    @Override
+    public BlockState getBlockState(int x, int y, int z, int layer) {
         if (y >= 320 || y < -64 || Math.abs(x) >= 16 || Math.abs(z) >= 16) {
             throw new IllegalArgumentException("Could not get block outside chunk");
         }
@@ -201,40 +236,51 @@ public class ImplChunk implements Chunk {
         int chunkBlockX = x & 15;
         int chunkBlockY = Math.abs(y) & 15;
         int chunkBlockZ = z & 15;
-        Vector3i blockCoordinates = Vector3i.from(this.getX() * 16 + chunkBlockX, y, this.getZ() * 16 + chunkBlockZ);
-
-        Lock readLock = this.lock.readLock();
-        readLock.lock();
 
-        try {
-            BlockPaletteEntry paletteEntry;
+        // Blocks are normally read without locking. The chunk is only locked if the block was changed while being read.
+        BlockPaletteEntry paletteEntry = this.tryGetBlockEntryAt(subChunkIndex, chunkBlockX, chunkBlockY, chunkBlockZ, layer);
+        if (paletteEntry == null) {
             synchronized (this.chunk) {
                 BedrockSubChunk subChunk = this.getSubChunk(subChunkIndex);
                 if (subChunk.getLayers().size() <= layer) {
                     // layer does not exist: return air block
-                    Block block = BlockRegistry.getInstance().getBlock(BlockID.AIR);
-                    block.setLocation(this.getWorld(), blockCoordinates, layer);
-                    return block;
+                    return BlockRegistry.getInstance().getBlockState(BlockID.AIR, 0);
                 }
 
                 paletteEntry = subChunk.getLayer(layer).getBlockEntryAt(chunkBlockX, chunkBlockY, chunkBlockZ);
             }
-            Block block;
-            if (BlockRegistry.getInstance().hasBlock(paletteEntry.getId())) {
-                // Block id is registered
-                block = BlockRegistry.getInstance().getBlock(paletteEntry.getId());
-                block.setBlockState(paletteEntry.getState());
-            } else {
-                // The block id is not registered
-                this.getWorld().getServer().getLogger().warn("Could not find block type for id " + paletteEntry.getId() + ". Substituting with air");
-                block = new BlockAir();
-            }
-            block.setLocation(this.getWorld(), blockCoordinates, layer);
+        }
 
-            return block;
-        } finally {
-            readLock.unlock();
+        BlockState blockState = ((ImplBlockRegistry) BlockRegistry.getInstance()).getBlockState(paletteEntry);
+        if (blockState == null) {
+            // The block id is not registered
+            this.getWorld().getServer().getLogger().warn("Could not find block type for id " + paletteEntry.getId() + ". Substituting with air");
+            return BlockRegistry.getInstance().getBlockState(BlockID.AIR, 0);
         }
+        return blockState;
+    }
+
+    /**
+     * Retrieve the palette entry of a block without locking.
+     * @param subChunkIndex index of the sub chunk
+     * @param x x coordinate within the sub chunk
+     * @param y y coordinate within the sub chunk
+     * @param z z coordinate within the sub chunk
+     * @param layer layer
+     * @return the palette entry or null if the block has to be read while holding a synchronization lock on the internal chunk
+     */
+    private BlockPaletteEntry tryGetBlockEntryAt(int subChunkIndex, int x, int y, int z, int layer) {
+        if (subChunkIndex < MIN_SUB_CHUNK_INDEX || subChunkIndex >= MIN_SUB_CHUNK_INDEX + SUB_CHUNK_COUNT) {
+            return null;
+        }
+        BedrockSubChunk subChunk = this.loadedSubChunks.get(subChunkIndex - MIN_SUB_CHUNK_INDEX);
+        if (subChunk == null) {
+            return null;
+        }
+
+        // Layers are published as a new list when one is added, so the list cannot change while it is read
+        List<BlockLayer> layers = subChunk.getLayers();
+        return layer < layers.size() ? layers.get(layer).tryGetBlockEntryAt(x, y, z) : null;
     }
 
     @Override
@@ -257,47 +303,49 @@ public class ImplChunk implements Chunk {
 
         block.setLocation(this.getWorld(), blockCoordinates, layer);
 
-        Lock writeLock = this.lock.writeLock();
-        writeLock.lock();
-
-        // Remove old block entity at this position if present
-        this.getBlockEntity(x, y, z).ifPresent(this::removeBlockEntity);
-
-        // Add block entity if one exists for this block
-        BlockEntityType blockEntityType = ImplServer.getInstance().getBlockEntityRegistry().getBlockEntityType(block)
-                .orElse(null);
-        if (blockEntityType != null) {
-            BlockEntity blockEntity = blockEntityType.create(block);
-            this.addBlockEntity(blockEntity);
-        }
+        // Changes to blocks are made one at a time for the whole chunk, as the height map and saving the chunk span every sub chunk.
+        // Only reading blocks does not lock.
+        synchronized (this.chunk) {
+            // Remove old block entity at this position if present
+            this.getBlockEntity(x, y, z).ifPresent(this::removeBlockEntity);
+
+            // Add block entity if one exists for this block
+            BlockEntityType blockEntityType = ImplServer.getInstance().getBlockEntityRegistry().getBlockEntityType(block)
+                    .orElse(null);
+            if (blockEntityType != null) {
+                BlockEntity blockEntity = blockEntityType.create(block);
+                this.addBlockEntity(blockEntity);
+            }
 
-        try {
             // Update internal sub chunk
-            synchronized (this.chunk) {
-                BedrockSubChunk subChunk = this.getSubChunk(subChunkIndex);
-
-                BlockLayer mainBlockLayer = subChunk.getLayer(layer);
-                BlockPaletteEntry entry = new BlockPaletteEntry(block.getBlockId(), ServerProtocol.LATEST_BLOCK_STATES_VERSION, block.getNBTState());
-                mainBlockLayer.setBlockEntryAt(chunkBlockX, subChunkBlockY, chunkBlockZ, entry);
-
-                int highestBlockY = Math.max(0, this.chunk.getHeightMap().getHighestBlockAt(chunkBlockX, chunkBlockZ) - 1);
-                if (y >= highestBlockY) {
-                    int newHighestBlockY = y;
-                    while (this.getBlock(chunkBlockX, newHighestBlockY, chunkBlockZ).isAir()) {
+            BedrockSubChunk subChunk = this.getSubChunk(subChunkIndex);
+
+            BlockLayer mainBlockLayer = subChunk.getLayer(layer);
+            BlockPaletteEntry entry = BlockStateRegistry.getEntry(block.getBlockId(), ServerProtocol.LATEST_BLOCK_STATES_VERSION, block.getNBTState());
+            mainBlockLayer.setBlockEntryAt(chunkBlockX, subChunkBlockY, chunkBlockZ, entry);
+
+            int highestBlockY = Math.max(0, this.chunk.getHeightMap().getHighestBlockAt(chunkBlockX, chunkBlockZ) - 1);
+            if (y >= highestBlockY) {
+                int newHighestBlockY = y;
+                while (newHighestBlockY >= 0) {
+                    if (ChunkUtils.isAir(this.getSubChunk(newHighestBlockY >> 4))) {
+                        // Skip to the top of the sub chunk below
+                        newHighestBlockY = (newHighestBlockY & ~15) - 1;
+                    } else if (this.getBlockState(chunkBlockX, newHighestBlockY, chunkBlockZ).isAir()) {
                         newHighestBlockY--;
+                    } else {
+                        break;
                     }
-                    this.chunk.getHeightMap().setHighestBlockAt(chunkBlockX, chunkBlockZ, newHighestBlockY + 1);
                 }
-
-                this.chunkWasModified = true;
+                this.chunk.getHeightMap().setHighestBlockAt(chunkBlockX, chunkBlockZ, newHighestBlockY + 1);
             }
 
-            // Send update block packet
-            for (Player viewer : this.getViewers()) {
-                this.sendBlock(viewer, chunkBlockX, y, chunkBlockZ, layer);
-            }
-        } finally {
-            writeLock.unlock();
+            this.invalidatePayloads(subChunkIndex);
+        }
+
+        // Send update block packet. The packet contains the block at the time it is sent, so viewers end up with the newest block.
+        for (Player viewer : this.getViewers()) {
+            this.sendBlock(viewer, chunkBlockX, y, chunkBlockZ, layer);
         }
     }
 
@@ -321,8 +369,13 @@ public class ImplChunk implements Chunk {
     public boolean requestBlockUpdate(BlockUpdateType type, int x, int y, int z, int ticks) {
         Vector3i blockCoordinates = Vector3i.from(x & 15, y, z & 15);
         BlockUpdateEntry entry = new BlockUpdateEntry(type, blockCoordinates, ticks);
-        this.blockUpdates.remove(entry);
-        return this.blockUpdates.add(entry);
+
+        // Block updates requested by a chunk ticked in parallel by another thread are added once every chunk finished ticking
+        this.getWorld().getChunkManager().runInChunk(this, () -> {
+            this.blockUpdates.remove(entry);
+            this.blockUpdates.add(entry);
+        });
+        return true;
     }
 
     @Override
@@ -387,15 +440,16 @@ public class ImplChunk implements Chunk {
         int chunkBlockX = x & 15;
         int chunkBlockZ = z & 15;
 
-        Block block = this.getBlock(chunkBlockX, y, chunkBlockZ, layer);
+        Vector3i blockPosition = Vector3i.from(chunkBlockX + this.getX() * 16, y, chunkBlockZ + this.getZ() * 16);
+        BlockState blockState = this.getBlockState(chunkBlockX, y, chunkBlockZ, layer);
         UpdateBlockPacket updateBlockPacket = new UpdateBlockPacket();
-        updateBlockPacket.setRuntimeId(player.getVersion().getBlockRuntimeId(block.getBlockId(), block.getNBTState()));
-        updateBlockPacket.setBlockPosition(Vector3i.from(chunkBlockX + this.getX() * 16, y, chunkBlockZ + this.getZ() * 16));
+        updateBlockPacket.setRuntimeId(player.getVersion().getBlockRuntimeId(blockState));
+        updateBlockPacket.setBlockPosition(blockPosition);
         updateBlockPacket.setDataLayer(layer);
         updateBlockPacket.getFlags().add(UpdateBlockPacket.Flag.NETWORK);
         player.sendPacket(updateBlockPacket);
 
-        this.getWorld().getBlockEntity(block.getLocation().toVector3i()).ifPresent(blockEntity ->
+        this.getWorld().getBlockEntity(blockPosition).ifPresent(blockEntity ->
                 this.sendBlockEntityData(player, blockEntity));
     }
 
@@ -420,12 +474,19 @@ public class ImplChunk implements Chunk {
         }
 
         if (canDoLogicTick) {
+            Timings timings = this.getWorld().getServer().getTimings();
             for (Entity entity : this.getEntities()) {
+                TimingHandler timing = timings.getHandler(TimingCategory.ENTITY, entity.getEntityDefinition().getId());
+                long startTime = timing.start();
                 entity.tick();
+                timing.stop(startTime);
             }
 
             for (BlockEntity blockEntity : this.blockEntities.values()) {
+                TimingHandler timing = timings.getHandler(TimingCategory.BLOCK_ENTITY, blockEntity.getType().getId());
+                long startTime = timing.start();
                 blockEntity.tick();
+                timing.stop(startTime);
                 if (blockEntity.requestedUpdate()) {
                     for (Player player : this.getViewers()) {
                         this.sendBlockEntityData(player, blockEntity);
@@ -456,88 +517,288 @@ public class ImplChunk implements Chunk {
     }
 
     public void spawnTo(Player player) {
-        // Send the blocks to the player
-        Lock readLock = this.lock.writeLock();
-        readLock.lock();
+        this.spawnTo(player, null);
+    }
 
-        ByteBuf buffer = ByteBufAllocator.DEFAULT.ioBuffer();
+    /**
+     * Send this chunk to a player that requested it.
+     * @param player the player
+     * @param request the request of the player or null if the chunk is not sent because of a request
+     */
+    public void spawnTo(Player player, PlayerChunkRequest request) {
+        boolean requestSubChunks = this.shouldRequestSubChunks(player);
+
+        ChunkPayload payload;
         try {
-            int subChunkCount;
+            payload = requestSubChunks ? this.getRequestModePayload(player.getVersion()) : this.getPayload(player.getVersion());
+        } catch (IOException exception) {
+            this.getWorld().getServer().getLogger().error("Failed to serialize blocks", exception);
+            return;
+        }
 
-            synchronized (this.chunk) {
-                subChunkCount = ChunkUtils.getSubChunkCount(this.chunk);
+        // Ran on the main thread in order because player.getLocation() is not thread safe
+        this.getWorld().getServer().getScheduler().prepareTask(() -> {
+            if (request != null && request.isCancelled()) {
+                // The player can no longer see this chunk
+                return;
+            }
 
-                for (int i = -4; i < subChunkCount - 4; i++) {
-                    BedrockNetworkUtils.serializeSubChunk(buffer, this.chunk.getSubChunk(i), player.getVersion());
+            if (player.isConnected() && player.getLocation().getWorld().equals(this.getWorld())) {
+                LevelChunkPacket chunkPacket = new LevelChunkPacket();
+                chunkPacket.setChunkX(this.getX());
+                chunkPacket.setChunkZ(this.getZ());
+
+                PlayerBlobCacheManager blobCacheManager = ((ImplPlayer) player).getBlobCacheManager();
+                if (requestSubChunks) {
+                    // The client will request the sub chunks it needs
+                    chunkPacket.setRequestSubChunks(true);
+                    chunkPacket.setSubChunkLimit(payload.getSubChunkCount());
+                    chunkPacket.setData(payload.getData());
+                } else if (blobCacheManager.isEnabled() && blobCacheManager.tryAddPendingBlobs(payload.getBlobIds(), payload.getBlobs())) {
+                    // Only send the blob ids. The client will request any blobs it does not have cached
+                    chunkPacket.setSubChunksLength(payload.getSubChunkCount());
+                    chunkPacket.setCachingEnabled(true);
+                    for (long blobId : payload.getBlobIds()) {
+                        chunkPacket.getBlobIds().add(blobId);
+                    }
+                    chunkPacket.setData(payload.getExtraData());
+                } else {
+                    // Also used when too many blobs are waiting on the client to hold onto any more
+                    chunkPacket.setSubChunksLength(payload.getSubChunkCount());
+                    chunkPacket.setData(payload.getData());
                 }
+                player.sendPacket(chunkPacket);
 
-                // Write biomes
-                BedrockNetworkUtils.serialize3DBiomeMap(buffer, this.chunk.getBiomeMap());
-
-                buffer.writeByte(0);    // border blocks
-                VarInts.writeUnsignedInt(buffer, 0);    // extra data
-
-                // Write block entities if any exist
-                if (!this.chunk.getBlockEntities().isEmpty()) {
-                    try (NBTOutputStream outputStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(buffer))) {
-                        for (NbtMap diskBlockEntityNBT : this.chunk.getBlockEntities().values()) {
-                            try {
-                                NbtMap networkBlockEntityNBT = player.getVersion().getNetworkBlockEntityNBT(diskBlockEntityNBT);
-                                outputStream.writeTag(networkBlockEntityNBT);
-                            } catch (NullPointerException exception) {
-                                throw new IOException("Failed to send chunk due to unhandled block entity found: " + diskBlockEntityNBT);
-                            }
-                        }
+                this.spawnedTo.add(player);
+                this.resetExpiryTime();
+            }
+
+            // Send the entities of this chunk to the player
+            if (player.isLocallyInitialized()) {
+                for (Entity entity : this.getEntities()) {
+                    if (((ImplEntity) entity).canBeSpawnedTo(player)) {
+                        entity.spawnTo(player);
                     }
                 }
             }
+        }).schedule();
+    }
 
-            byte[] chunkData = new byte[buffer.readableBytes()];
-            buffer.readBytes(chunkData);
-
-            // Ran on the main thread in order because player.getLocation() is not thread safe
-            final int packetSubChunkCount = subChunkCount;
-            this.getWorld().getServer().getScheduler().prepareTask(() -> {
-                if (player.isConnected() && player.getLocation().getWorld().equals(this.getWorld())) {
-                    LevelChunkPacket chunkPacket = new LevelChunkPacket();
-                    chunkPacket.setChunkX(this.getX());
-                    chunkPacket.setChunkZ(this.getZ());
-                    chunkPacket.setSubChunksLength(packetSubChunkCount);
-                    chunkPacket.setData(chunkData);
-                    player.sendPacket(chunkPacket);
-
-                    this.spawnedTo.add(player);
-                    this.resetExpiryTime();
-                }
+    /**
+     * Check if this chunk should be sent to a player by letting them request the sub chunks they need.
+     * @param player the player
+     * @return if the player should request sub chunks
+     */
+    private boolean shouldRequestSubChunks(Player player) {
+        return this.getWorld().getServer().getConfig().areSubChunkRequestsEnabled()
+                && player.getVersion().getProtocol() >= V486MinecraftVersion.PROTOCOL;
+    }
 
-                // Send the entities of this chunk to the player
-                if (player.isLocallyInitialized()) {
-                    for (Entity entity : this.getEntities()) {
-                        if (((ImplEntity) entity).canBeSpawnedTo(player)) {
-                            entity.spawnTo(player);
-                        }
-                    }
-                }
-            }).schedule();
-        } catch (IOException exception) {
-            this.getWorld().getServer().getLogger().error("Failed to serialize blocks", exception);
+    /**
+     * Retrieve the serialized chunk data for a version without any of the sub chunks.
+     * Used for clients that request each sub chunk separately.
+     * @param version version to serialize the chunk for
+     * @return serialized chunk data
+     * @throws IOException if the chunk failed to serialize
+     */
+    public ChunkPayload getRequestModePayload(MinecraftVersion version) throws IOException {
+        return this.getPayload(this.cachedRequestModePayloads, version, true);
+    }
+
+    /**
+     * Retrieve the serialized chunk data for a version.
+     * The chunk is only serialized once per version until it is modified.
+     * @param version version to serialize the chunk for
+     * @return serialized chunk data
+     * @throws IOException if the chunk failed to serialize
+     */
+    public ChunkPayload getPayload(MinecraftVersion version) throws IOException {
+        return this.getPayload(this.cachedPayloads, version, false);
+    }
+
+    private ChunkPayload getPayload(Map<MinecraftVersion, ChunkPayload> cache, MinecraftVersion version, boolean requestSubChunks) throws IOException {
+        ChunkPayload payload = cache.get(version);
+        if (payload != null) {
+            return payload;
+        }
+
+        synchronized (this.chunk) {
+            // Another thread may have serialized the chunk while we were waiting
+            payload = cache.get(version);
+            if (payload == null) {
+                payload = this.serializePayload(version, requestSubChunks);
+                cache.put(version, payload);
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * Retrieve the serialized data of a sub chunk requested by a client.
+     * @param version version to serialize the sub chunk for
+     * @param subChunkIndex index of the sub chunk
+     * @return the serialized sub chunk and its block entities or null if the sub chunk only consists of air
+     * @throws IOException if the sub chunk failed to serialize
+     */
+    public byte[] getSubChunkPayload(MinecraftVersion version, int subChunkIndex) throws IOException {
+        Check.inclusiveBounds(subChunkIndex, -4, 19, "subChunkIndex");
+
+        synchronized (this.chunk) {
+            byte[][] subChunkPayloads = this.cachedSubChunkPayloads.computeIfAbsent(version, ignored -> new byte[24][]);
+            byte[] subChunkPayload = subChunkPayloads[subChunkIndex + 4];
+            if (subChunkPayload == null) {
+                subChunkPayload = this.serializeSubChunkPayload(version, subChunkIndex);
+                subChunkPayloads[subChunkIndex + 4] = subChunkPayload;
+            }
+
+            return subChunkPayload.length > 0 ? subChunkPayload : null;
+        }
+    }
+
+    /**
+     * Clear any serialized data that includes a sub chunk.
+     * This should be called while holding a synchronization lock on the internal chunk.
+     * @param subChunkIndex index of the sub chunk that was modified
+     */
+    private void invalidatePayloads(int subChunkIndex) {
+        this.cachedPayloads.clear();
+        this.cachedRequestModePayloads.clear();
+        if (subChunkIndex >= -4 && subChunkIndex < 20) {
+            for (byte[][] subChunkPayloads : this.cachedSubChunkPayloads.values()) {
+                subChunkPayloads[subChunkIndex + 4] = null;
+            }
+        }
+    }
+
+    /**
+     * Serialize the blocks, biomes and block entities of this chunk.
+     * This should be called while holding a synchronization lock on the internal chunk.
+     * @param version version to serialize the chunk for
+     * @param requestSubChunks if the sub chunks and block entities are excluded as the client will request them separately
+     * @return serialized chunk data
+     * @throws IOException if the chunk failed to serialize
+     */
+    private ChunkPayload serializePayload(MinecraftVersion version, boolean requestSubChunks) throws IOException {
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.ioBuffer();
+        try {
+            int subChunkCount = ChunkUtils.getSubChunkCount(this.chunk);
+
+            // Every sub chunk and the biome map are serialized separately so that they can be cached by the client
+            int serializedSubChunkCount = requestSubChunks ? 0 : subChunkCount;
+            byte[][] blobs = new byte[serializedSubChunkCount + 1][];
+            for (int i = 0; i < serializedSubChunkCount; i++) {
+                BedrockNetworkUtils.serializeSubChunk(buffer, this.chunk.getSubChunk(i - 4), version);
+                blobs[i] = readBytes(buffer);
+            }
+
+            // Write biomes
+            BedrockNetworkUtils.serialize3DBiomeMap(buffer, this.chunk.getBiomeMap());
+            blobs[serializedSubChunkCount] = readBytes(buffer);
+
+            buffer.writeByte(0);    // border blocks
+            VarInts.writeUnsignedInt(buffer, 0);    // extra data
+
+            // Write block entities if any exist
+            if (!requestSubChunks) {
+                this.serializeBlockEntities(buffer, version, this.chunk.getBlockEntities().values());
+            }
+
+            return new ChunkPayload(subChunkCount, blobs, readBytes(buffer));
         } finally {
             buffer.release();
-            readLock.unlock();
         }
     }
 
+    /**
+     * Serialize a sub chunk and the block entities within it.
+     * This should be called while holding a synchronization lock on the internal chunk.
+     * @param version version to serialize the sub chunk for
+     * @param subChunkIndex index of the sub chunk
+     * @return the serialized sub chunk or an empty array if the sub chunk only consists of air
+     * @throws IOException if the sub chunk failed to serialize
+     */
+    private byte[] serializeSubChunkPayload(MinecraftVersion version, int subChunkIndex) throws IOException {
+        BedrockSubChunk subChunk = this.chunk.getSubChunk(subChunkIndex);
+
+        List<NbtMap> subChunkBlockEntities = new ArrayList<>();
+        for (Map.Entry<Vector3i, NbtMap> blockEntityEntry : this.chunk.getBlockEntities().entrySet()) {
+            if (blockEntityEntry.getKey().getY() >> 4 == subChunkIndex) {
+                subChunkBlockEntities.add(blockEntityEntry.getValue());
+            }
+        }
+
+        if (subChunkBlockEntities.isEmpty() && ChunkUtils.isAir(subChunk)) {
+            return new byte[0];
+        }
+
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.ioBuffer();
+        try {
+            BedrockNetworkUtils.serializeSubChunk(buffer, subChunk, version);
+            this.serializeBlockEntities(buffer, version, subChunkBlockEntities);
+            return readBytes(buffer);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private void serializeBlockEntities(ByteBuf buffer, MinecraftVersion version, Collection<NbtMap> blockEntities) throws IOException {
+        if (!blockEntities.isEmpty()) {
+            try (NBTOutputStream outputStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(buffer))) {
+                for (NbtMap diskBlockEntityNBT : blockEntities) {
+                    try {
+                        NbtMap networkBlockEntityNBT = version.getNetworkBlockEntityNBT(diskBlockEntityNBT);
+                        outputStream.writeTag(networkBlockEntityNBT);
+                    } catch (NullPointerException exception) {
+                        throw new IOException("Failed to send chunk due to unhandled block entity found: " + diskBlockEntityNBT);
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] readBytes(ByteBuf buffer) {
+        byte[] data = new byte[buffer.readableBytes()];
+        buffer.readBytes(data);
+        buffer.clear();
+        return data;
+    }
+
+    /**
+     * Retrieve a sub chunk of the internal chunk.
+     * This should be called while holding a synchronization lock on the internal chunk.
+     * @param subChunkY index of the sub chunk
+     * @return the sub chunk
+     */
     private BedrockSubChunk getSubChunk(int subChunkY) {
         try {
-            return this.chunk.getSubChunk(subChunkY);
+            BedrockSubChunk subChunk = this.chunk.getSubChunk(subChunkY);
+            int loadedIndex = subChunkY - MIN_SUB_CHUNK_INDEX;
+            if (loadedIndex >= 0 && loadedIndex < SUB_CHUNK_COUNT && this.loadedSubChunks.get(loadedIndex) == null) {
+                this.loadedSubChunks.set(loadedIndex, subChunk);
+            }
+            return subChunk;
         } catch (IOException exception) {
             throw new RuntimeException("Failed to fetch sub chunk.");
         }
     }
 
+    /**
+     * Returns if this chunk was modified since it was last saved.
+     * @return if the chunk needs to be saved
+     */
+    public boolean isModified() {
+        synchronized (this.chunk) {
+            return this.chunk.isDirty();
+        }
+    }
+
+    public BedrockChunk getBedrockChunk() {
+        return this.chunk;
+    }
+
     public void save() throws IOException {
         synchronized (this.chunk) {
-            if (this.chunkWasModified) {
+            if (this.chunk.isDirty()) {
                 this.world.getLevel().getProvider().getDimension(this.chunk.getDimension())
                         .saveChunk(this.chunk);
             }
@@ -575,6 +836,14 @@ public class ImplChunk implements Chunk {
         this.expiryTimer = this.world.getServer().getConfig().getChunkExpiryTime() * 20;
     }
 
+    int getTickRegion() {
+        return this.tickRegion;
+    }
+
+    void setTickRegion(int tickRegion) {
+        this.tickRegion = tickRegion;
+    }
+
     @Override
     public boolean canBeClosed() {
         return this.spawnedTo.size() == 0 && this.activeChunkLoaders.get() == 0;
@@ -0,0 +1,48 @@
+package io.github.pizzaserver.server.level.world.chunks;
+
+import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockState;
+import io.github.pizzaserver.server.level.world.ImplWorld;
+
+/**
+ * Remembers the last chunk a caller looked up so that block queries in the same chunk in a row skip the chunk map.
+ * A cache belongs to a single caller and must only be used while the chunks it returns may be used (e.g. during one entity tick)
+ * as it keeps returning a chunk even after the chunk was unloaded.
+ */
+public class LastChunkCache {
+
+    private final ImplWorld world;
+
+    private int lastChunkX;
+    private int lastChunkZ;
+    private ImplChunk lastChunk;
+
+
+    public LastChunkCache(ImplWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Retrieve a chunk, loading it if it is not loaded.
+     * @param x chunk x
+     * @param z chunk z
+     * @return the chunk
+     */
+    public ImplChunk getChunk(int x, int z) {
+        if (this.lastChunk == null || this.lastChunkX != x || this.lastChunkZ != z) {
+            this.lastChunk = this.world.getChunk(x, z);
+            this.lastChunkX = x;
+            this.lastChunkZ = z;
+        }
+        return this.lastChunk;
+    }
+
+    public BlockState getBlockState(int x, int y, int z) {
+        return this.getChunk(x >> 4, z >> 4).getBlockState(x & 15, y, z & 15, 0);
+    }
+
+    public Block getBlock(int x, int y, int z) {
+        return this.getChunk(x >> 4, z >> 4).getBlock(x & 15, y, z & 15, 0);
+    }
+
+}
@@ -7,6 +7,7 @@ import io.github.pizzaserver.api.level.world.chunks.ChunkManager;
 import io.github.pizzaserver.api.level.world.chunks.loader.ChunkLoader;
 import io.github.pizzaserver.api.player.Player;
 import io.github.pizzaserver.commons.utils.Check;
+import io.github.pizzaserver.commons.utils.ConcurrentLongMap;
 import io.github.pizzaserver.commons.utils.ReadWriteKeyLock;
 import io.github.pizzaserver.commons.utils.Tuple;
 import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
@@ -16,19 +17,26 @@ import io.github.pizzaserver.server.level.world.ImplWorld;
 import io.github.pizzaserver.server.player.ImplPlayer;
 
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class WorldChunkManager implements ChunkManager {
 
     private final ImplWorld world;
-    private final Map<Tuple<Integer, Integer>, ImplChunk> chunks = new ConcurrentHashMap<>();
-    private final ReadWriteKeyLock<Tuple<Integer, Integer>> lock = new ReadWriteKeyLock<>();
+    // chunk key (see ConcurrentLongMap.key) : chunk
+    private final ConcurrentLongMap<ImplChunk> chunks = new ConcurrentLongMap<>();
+    // chunk key : chunk being read from the provider, so that a chunk is only read once at a time
+    private final ConcurrentLongMap<CompletableFuture<ImplChunk>> loadingChunks = new ConcurrentLongMap<>();
+    private final ReadWriteKeyLock<Long> lock = new ReadWriteKeyLock<>();
 
     private final Set<ChunkLoader> chunkLoaders = new HashSet<>();
 
+    // Effects between chunks of different tick regions that must wait until every region finished ticking
+    private final Queue<Runnable> deferredRegionTasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean tickingRegions;
+    // Index of the group of chunks the current thread is ticking
+    private final ThreadLocal<Integer> currentTickRegion = new ThreadLocal<>();
+
 
     public WorldChunkManager(ImplWorld world) {
         this.world = world;
@@ -36,22 +44,139 @@ public class WorldChunkManager implements ChunkManager {
 
     /**
      * Tick all chunks and the chunk queue.
+     * If parallel chunk ticking is enabled, groups of chunks that are far apart from each other are ticked at the same time.
      */
     public void tick() {
+        ForkJoinPool tickPool = this.world.getLevel().getLevelManager().getTickPool();
+        if (tickPool == null || !this.world.getServer().getConfig().isParallelChunkTickingEnabled()) {
+            for (ImplChunk chunk : this.chunks.values()) {
+                chunk.tick();
+            }
+            return;
+        }
+
+        List<List<ImplChunk>> regions = this.getTickRegions(this.world.getServer().getConfig().getChunkTickRegionSize());
+        List<Callable<Object>> regionTicks = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) {
+            int regionIndex = i;
+            List<ImplChunk> region = regions.get(i);
+            regionTicks.add(Executors.callable(() -> {
+                this.currentTickRegion.set(regionIndex);
+                try {
+                    for (ImplChunk chunk : region) {
+                        chunk.tick();
+                    }
+                } finally {
+                    this.currentTickRegion.remove();
+                }
+            }));
+        }
+
+        this.tickingRegions = true;
+        try {
+            for (Future<Object> regionTick : tickPool.invokeAll(regionTicks)) {
+                regionTick.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException exception) {
+            throw new RuntimeException("Failed to tick chunk region", exception.getCause());
+        } finally {
+            this.tickingRegions = false;
+        }
+
+        Runnable task;
+        while ((task = this.deferredRegionTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Split the loaded chunks into groups that can be ticked at the same time.
+     * Chunks are bucketed into square regions and regions next to each other are merged into one group,
+     * so chunks of different groups are always more than a region apart.
+     * @param regionSize width of a region in chunks
+     * @return groups of chunks
+     */
+    private List<List<ImplChunk>> getTickRegions(int regionSize) {
+        Map<Tuple<Integer, Integer>, List<ImplChunk>> regions = new HashMap<>();
         for (ImplChunk chunk : this.chunks.values()) {
-            chunk.tick();
+            Tuple<Integer, Integer> regionKey = new Tuple<>(Math.floorDiv(chunk.getX(), regionSize), Math.floorDiv(chunk.getZ(), regionSize));
+            regions.computeIfAbsent(regionKey, ignored -> new ArrayList<>()).add(chunk);
+        }
+
+        List<List<ImplChunk>> groups = new ArrayList<>();
+        Set<Tuple<Integer, Integer>> visitedRegions = new HashSet<>();
+        for (Tuple<Integer, Integer> regionKey : regions.keySet()) {
+            if (!visitedRegions.add(regionKey)) {
+                continue;
+            }
+
+            // Flood fill every region connected to this one
+            List<ImplChunk> group = new ArrayList<>();
+            Deque<Tuple<Integer, Integer>> regionsToVisit = new ArrayDeque<>();
+            regionsToVisit.push(regionKey);
+            while (!regionsToVisit.isEmpty()) {
+                Tuple<Integer, Integer> currentRegionKey = regionsToVisit.pop();
+                for (ImplChunk chunk : regions.get(currentRegionKey)) {
+                    chunk.setTickRegion(groups.size());
+                    group.add(chunk);
+                }
+
+                for (int x = -1; x <= 1; x++) {
+                    for (int z = -1; z <= 1; z++) {
+                        Tuple<Integer, Integer> neighbourKey = new Tuple<>(currentRegionKey.getFirst() + x, currentRegionKey.getSecond() + z);
+                        if (regions.containsKey(neighbourKey) && visitedRegions.add(neighbourKey)) {
+                            regionsToVisit.push(neighbourKey);
+                        }
+                    }
+                }
+            }
+            groups.add(group);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Run a task that modifies the entities or block updates of a chunk.
+     * If chunks are being ticked in parallel and the chunk is not part of the group ticked by the current thread,
+     * the task is ran once every group has finished ticking.
+     * @param chunk chunk affected
+     * @param task task to run
+     */
+    public void runInChunk(ImplChunk chunk, Runnable task) {
+        if (!this.tickingRegions || this.isTickedByCurrentThread(chunk)) {
+            task.run();
+        } else {
+            this.deferredRegionTasks.add(task);
+        }
+    }
+
+    /**
+     * Run a task that affects two chunks.
+     * If chunks are being ticked in parallel and either chunk is not part of the group ticked by the current thread,
+     * the task is ran once every group has finished ticking.
+     * @param chunkA first chunk affected
+     * @param chunkB second chunk affected
+     * @param task task to run
+     */
+    public void runBetweenChunks(ImplChunk chunkA, ImplChunk chunkB, Runnable task) {
+        if (!this.tickingRegions || (this.isTickedByCurrentThread(chunkA) && this.isTickedByCurrentThread(chunkB))) {
+            task.run();
+        } else {
+            this.deferredRegionTasks.add(task);
         }
     }
 
+    private boolean isTickedByCurrentThread(ImplChunk chunk) {
+        Integer region = this.currentTickRegion.get();
+        return region != null && chunk.getTickRegion() == region;
+    }
+
     @Override
     public boolean isChunkLoaded(int x, int z) {
-        Tuple<Integer, Integer> key = new Tuple<>(x, z);
-        this.lock.readLock(key);
-        try {
-            return this.chunks.containsKey(key);
-        } finally {
-            this.lock.readUnlock(key);
-        }
+        return this.chunks.containsKey(ConcurrentLongMap.key(x, z));
     }
 
     @Override
@@ -61,41 +186,79 @@ public class WorldChunkManager implements ChunkManager {
 
     @Override
     public ImplChunk getChunk(int x, int z, boolean loadFromProvider) {
-        Tuple<Integer, Integer> key = new Tuple<>(x, z);
-        this.lock.readLock(key);
+        // Loaded chunks can be retrieved without locking as unloading a chunk only removes it from the map
+        long key = ConcurrentLongMap.key(x, z);
+        ImplChunk chunk = this.chunks.get(key);
+        if (chunk == null && loadFromProvider) {
+            chunk = this.loadChunk(x, z, key);
+        }
+        return chunk;
+    }
 
+    private ImplChunk loadChunk(int x, int z, long key) {
+        this.lock.readLock(key);
         try {
-            this.chunks.computeIfAbsent(key, v -> {
-                if (!loadFromProvider) {
-                    return null;
-                }
+            ImplChunk chunk = this.chunks.get(key);
+            if (chunk != null) {
+                return chunk;
+            }
 
-                // Load chunk from provider
-                ImplChunk chunk = null;
-                try {
-                    BedrockChunk internalChunk = this.world.getLevel()
-                            .getProvider()
-                            .getDimension(this.world.getDimension().ordinal())
-                            .getChunk(x, z);
-
-                    chunk = new ImplChunk.Builder()
-                            .setWorld(this.world)
-                            .setX(internalChunk.getX())
-                            .setZ(internalChunk.getZ())
-                            .setChunk(internalChunk)
-                            .build();
-                } catch (IOException exception) {
-                    this.world.getServer().getLogger().error(String.format("Failed to retrieve chunk (%s, %s) from provider", x, z), exception);
+            // Other threads requesting the chunk wait for the thread reading it instead of reading it again.
+            // The chunk is read outside of the map's locks so that reading it does not hold up other chunks.
+            CompletableFuture<ImplChunk> loadingChunk = new CompletableFuture<>();
+            CompletableFuture<ImplChunk> existingLoadingChunk = this.loadingChunks.putIfAbsent(key, loadingChunk);
+            if (existingLoadingChunk != null) {
+                return existingLoadingChunk.join();
+            }
+
+            try {
+                // The chunk may have finished loading after it was last checked
+                chunk = this.chunks.get(key);
+                if (chunk == null) {
+                    chunk = this.readChunk(x, z);
+                    if (chunk != null) {
+                        this.chunks.put(key, chunk);
+                    }
                 }
+                loadingChunk.complete(chunk);
                 return chunk;
-            });
-
-            return this.chunks.getOrDefault(key, null);
+            } catch (RuntimeException | Error exception) {
+                loadingChunk.completeExceptionally(exception);
+                throw exception;
+            } finally {
+                this.loadingChunks.remove(key);
+            }
         } finally {
             this.lock.readUnlock(key);
         }
     }
 
+    private ImplChunk readChunk(int x, int z) {
+        try {
+            // A chunk that was unloaded but not written yet is newer than the chunk on disk
+            BedrockChunk internalChunk = this.world.getLevel()
+                    .getLevelManager()
+                    .getChunkSaveQueue()
+                    .takePendingChunk(this.world, x, z);
+            if (internalChunk == null) {
+                internalChunk = this.world.getLevel()
+                        .getProvider()
+                        .getDimension(this.world.getDimension().ordinal())
+                        .getChunk(x, z, this.world.getServer().getConfig().isEagerSubChunkLoadingEnabled());
+            }
+
+            return new ImplChunk.Builder()
+                    .setWorld(this.world)
+                    .setX(internalChunk.getX())
+                    .setZ(internalChunk.getZ())
+                    .setChunk(internalChunk)
+                    .build();
+        } catch (IOException exception) {
+            this.world.getServer().getLogger().error(String.format("Failed to retrieve chunk (%s, %s) from provider", x, z), exception);
+            return null;
+        }
+    }
+
     public void unloadChunk(int x, int z) {
         this.unloadChunk(x, z, false, false);
     }
@@ -107,19 +270,30 @@ public class WorldChunkManager implements ChunkManager {
                     .getProcessorManager()
                     .addRequest(new UnloadChunkRequest(this.world, x, z, force));
         } else {
-            Tuple<Integer, Integer> key = new Tuple<>(x, z);
+            long key = ConcurrentLongMap.key(x, z);
             this.lock.writeLock(key);
 
             try {
-                ImplChunk chunk = this.chunks.getOrDefault(key, null);
+                ImplChunk chunk = this.chunks.get(key);
                 if (Check.isNull(chunk) || (!chunk.canBeClosed() && !force)) {
                     return;
                 }
 
-                try {
-                    chunk.save();
-                } catch (IOException exception) {
-                    Server.getInstance().getLogger().error("Failed to save chunK", exception);
+                if (chunk.isModified()) {
+                    try {
+                        // Written to disk later by the save thread
+                        this.world.getLevel()
+                                .getLevelManager()
+                                .getChunkSaveQueue()
+                                .queueSave(this.world, chunk.getBedrockChunk());
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        try {
+                            chunk.save();
+                        } catch (IOException saveException) {
+                            Server.getInstance().getLogger().error("Failed to save chunk", saveException);
+                        }
+                    }
                 }
 
                 this.chunks.remove(key);
@@ -142,14 +316,47 @@ public class WorldChunkManager implements ChunkManager {
                     .getProcessorManager()
                     .addRequest(new PlayerChunkRequest((ImplPlayer) player, x, z));
         } else {
-            Tuple<Integer, Integer> key = new Tuple<>(x, z);
-            this.lock.readLock(key);
-            try {
-                ImplChunk chunk = this.getChunk(x, z);
+            this.sendChunk(Collections.singletonList(player), x, z);
+        }
+    }
+
+    /**
+     * Send a chunk to multiple players on the current thread.
+     * The chunk is only loaded and serialized once for all of them.
+     * @param players players to send the chunk to
+     * @param x chunk x
+     * @param z chunk z
+     */
+    public void sendChunk(Collection<? extends Player> players, int x, int z) {
+        long key = ConcurrentLongMap.key(x, z);
+        this.lock.readLock(key);
+        try {
+            ImplChunk chunk = this.getChunk(x, z);
+            for (Player player : players) {
                 chunk.spawnTo(player);
-            } finally {
-                this.lock.readUnlock(key);
             }
+        } finally {
+            this.lock.readUnlock(key);
+        }
+    }
+
+    /**
+     * Send a chunk to the players of chunk requests on the current thread.
+     * Players whose request is cancelled before the chunk is sent do not become viewers of the chunk.
+     * @param requests requests for the chunk
+     * @param x chunk x
+     * @param z chunk z
+     */
+    public void sendChunk(List<PlayerChunkRequest> requests, int x, int z) {
+        long key = ConcurrentLongMap.key(x, z);
+        this.lock.readLock(key);
+        try {
+            ImplChunk chunk = this.getChunk(x, z);
+            for (PlayerChunkRequest request : requests) {
+                chunk.spawnTo(request.getPlayer(), request);
+            }
+        } finally {
+            this.lock.readUnlock(key);
         }
     }
 
@@ -180,10 +387,39 @@ public class WorldChunkManager implements ChunkManager {
         }
     }
 
+    /**
+     * Retrieve every chunk that is currently loaded.
+     * @return loaded chunks
+     */
+    public List<ImplChunk> getLoadedChunks() {
+        return this.chunks.values();
+    }
+
+    /**
+     * Save every modified chunk that is loaded on the current thread.
+     * The chunks are saved together so that they are written in as few batches as possible.
+     * @throws IOException if the chunks failed to save
+     */
+    public void saveChunks() throws IOException {
+        List<BedrockChunk> modifiedChunks = new ArrayList<>();
+        for (ImplChunk chunk : this.chunks.values()) {
+            if (chunk.isModified()) {
+                modifiedChunks.add(chunk.getBedrockChunk());
+            }
+        }
+
+        this.world.getLevel()
+                .getProvider()
+                .getDimension(this.world.getDimension().ordinal())
+                .saveChunks(modifiedChunks);
+    }
+
     @Override
     public void close() throws IOException {
-        for (ImplChunk chunk : this.chunks.values()) {
-            chunk.close(false, true);
+        try {
+            this.saveChunks();
+        } finally {
+            this.chunks.clear();
         }
     }
 
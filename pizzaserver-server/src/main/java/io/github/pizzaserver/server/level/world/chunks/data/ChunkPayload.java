@@ -0,0 +1,92 @@
+package io.github.pizzaserver.server.level.world.chunks.data;
+
+import io.github.pizzaserver.commons.utils.XXHash64;
+
+/**
+ * Serialized LevelChunkPacket data of a chunk for a specific protocol version.
+ * Payloads are immutable and shared between every viewer of the chunk using that protocol version.
+ */
+public class ChunkPayload {
+
+    private final int subChunkCount;
+
+    // Sub chunk blobs followed by the biome blob
+    private final byte[][] blobs;
+    private final long[] blobIds;
+
+    // Border blocks, extra data and block entities which are never cached by the client
+    private final byte[] extraData;
+
+    private volatile byte[] data;
+
+
+    public ChunkPayload(int subChunkCount, byte[][] blobs, byte[] extraData) {
+        this.subChunkCount = subChunkCount;
+        this.blobs = blobs;
+        this.extraData = extraData;
+
+        this.blobIds = new long[blobs.length];
+        for (int i = 0; i < blobs.length; i++) {
+            this.blobIds[i] = XXHash64.hash(blobs[i]);
+        }
+    }
+
+    public int getSubChunkCount() {
+        return this.subChunkCount;
+    }
+
+    /**
+     * Retrieve the blobs a client with the blob cache enabled can store locally.
+     * This consists of every sub chunk followed by the biome map.
+     * The arrays returned are shared and should not be modified.
+     * @return blobs
+     */
+    public byte[][] getBlobs() {
+        return this.blobs;
+    }
+
+    /**
+     * Retrieve the hashes used to identify each blob.
+     * The array returned is shared and should not be modified.
+     * @return blob ids
+     */
+    public long[] getBlobIds() {
+        return this.blobIds;
+    }
+
+    /**
+     * Retrieve the data sent alongside the blob ids to clients with the blob cache enabled.
+     * The array returned is shared and should not be modified.
+     * @return data that is not cached
+     */
+    public byte[] getExtraData() {
+        return this.extraData;
+    }
+
+    /**
+     * Retrieve the full serialized chunk data sent to clients without the blob cache.
+     * The array returned is shared and should not be modified.
+     * @return serialized chunk data
+     */
+    public byte[] getData() {
+        byte[] data = this.data;
+        if (data == null) {
+            int length = this.extraData.length;
+            for (byte[] blob : this.blobs) {
+                length += blob.length;
+            }
+
+            data = new byte[length];
+            int index = 0;
+            for (byte[] blob : this.blobs) {
+                System.arraycopy(blob, 0, data, index, blob.length);
+                index += blob.length;
+            }
+            System.arraycopy(this.extraData, 0, data, index, this.extraData.length);
+
+            this.data = data;
+        }
+        return data;
+    }
+
+}
@@ -2,6 +2,8 @@ package io.github.pizzaserver.server.level.world.chunks.utils;
 
 import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
 import io.github.pizzaserver.format.dimension.chunks.subchunk.BedrockSubChunk;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockLayer;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
 
 import java.io.IOException;
 
@@ -21,4 +23,20 @@ public class ChunkUtils {
         return subChunkCount + 5;   // 1 + (4 negative sub chunks)
     }
 
+    /**
+     * Check if a sub chunk consists of nothing but air.
+     * @param subChunk sub chunk
+     * @return if every block in every layer is air
+     */
+    public static boolean isAir(BedrockSubChunk subChunk) {
+        for (BlockLayer layer : subChunk.getLayers()) {
+            for (BlockPaletteEntry entry : layer.getPalette().getEntries()) {
+                if (!entry.getId().equals(BlockPaletteEntry.AIR_ID)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
 }
@@ -20,6 +20,7 @@ public class PlayerSession {
     private final ImplPacketHandlerPipeline packetHandlerPipeline = new ImplPacketHandlerPipeline();
     private MinecraftVersion version;
     private ImplPlayer player;
+    private volatile boolean clientCacheSupported;
 
     private final Queue<BedrockPacket> incomingPacketsQueue = new ConcurrentLinkedQueue<>();
 
@@ -51,6 +52,14 @@ public class PlayerSession {
         this.version = version;
     }
 
+    public boolean isClientCacheSupported() {
+        return this.clientCacheSupported;
+    }
+
+    public void setClientCacheSupported(boolean supported) {
+        this.clientCacheSupported = supported;
+    }
+
     public void queueIncomingPacket(BedrockPacket packet) {
         this.incomingPacketsQueue.add(packet);
     }
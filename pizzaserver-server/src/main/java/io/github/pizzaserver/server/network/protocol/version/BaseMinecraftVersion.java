@@ -12,18 +12,20 @@ import io.github.pizzaserver.api.Server;
 import io.github.pizzaserver.api.block.Block;
 import io.github.pizzaserver.api.block.BlockID;
 import io.github.pizzaserver.api.block.BlockRegistry;
+import io.github.pizzaserver.api.block.BlockState;
 import io.github.pizzaserver.api.blockentity.types.BlockEntityType;
 import io.github.pizzaserver.api.item.Item;
 import io.github.pizzaserver.api.network.protocol.version.MinecraftVersion;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockStateRegistry;
 import io.github.pizzaserver.server.ImplServer;
+import io.github.pizzaserver.server.block.ImplBlockRegistry;
+import io.github.pizzaserver.server.network.protocol.ServerProtocol;
 import io.github.pizzaserver.server.network.protocol.exception.ProtocolException;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public abstract class BaseMinecraftVersion implements MinecraftVersion {
 
@@ -32,8 +34,15 @@ public abstract class BaseMinecraftVersion implements MinecraftVersion {
     protected NbtMap biomesDefinitions;
     protected NbtMap availableEntities;
     protected final BiMap<BlockStateData, Integer> blockStates = HashBiMap.create();
+    // state id of a BlockStateRegistry entry : runtime id or -1 if the state does not exist in this version
+    protected int[] blockRuntimeIds;
+    // runtime id : BlockStateRegistry entry
+    protected BlockPaletteEntry[] blockEntriesByRuntimeId;
     protected final List<BlockPropertyData> customBlockProperties = new ArrayList<>();
     protected final BiMap<String, Integer> itemRuntimeIds = HashBiMap.create();
+    // runtime id - lowestItemRuntimeId : item name
+    protected String[] itemNamesByRuntimeId;
+    protected int lowestItemRuntimeId;
     protected final List<StartGamePacket.ItemEntry> itemEntries = new ArrayList<>();
     protected final List<Item> creativeItems = new ArrayList<>();
     protected final List<ComponentItemData> itemComponents = new ArrayList<>();
@@ -41,7 +50,9 @@ public abstract class BaseMinecraftVersion implements MinecraftVersion {
 
     public BaseMinecraftVersion() throws IOException {
         this.loadBlockStates();
+        this.loadBlockRuntimeIds();
         this.loadRuntimeItems();
+        this.loadItemNames();
         this.loadBiomeDefinitions();
         this.loadEntitiesNBT();
         this.loadItemComponents();
@@ -60,6 +71,48 @@ public abstract class BaseMinecraftVersion implements MinecraftVersion {
 
     protected abstract void loadItemComponents();
 
+    /**
+     * Register every block state of this version in the {@link BlockStateRegistry}
+     * so that palette entries can be translated to runtime ids without hashing their state.
+     * The runtime id of every state is also stored by its state id and the other way around.
+     */
+    protected void loadBlockRuntimeIds() {
+        Map<BlockPaletteEntry, Integer> runtimeIds = new HashMap<>();
+        int highestRuntimeId = -1;
+        for (Map.Entry<BlockStateData, Integer> blockState : this.blockStates.entrySet()) {
+            BlockPaletteEntry entry = BlockStateRegistry.getEntry(blockState.getKey().getBlockId(), ServerProtocol.LATEST_BLOCK_STATES_VERSION, blockState.getKey().getNBT());
+            runtimeIds.put(entry, blockState.getValue());
+            highestRuntimeId = Math.max(highestRuntimeId, blockState.getValue());
+        }
+
+        this.blockRuntimeIds = new int[BlockStateRegistry.size()];
+        Arrays.fill(this.blockRuntimeIds, -1);
+        this.blockEntriesByRuntimeId = new BlockPaletteEntry[highestRuntimeId + 1];
+        for (Map.Entry<BlockPaletteEntry, Integer> runtimeId : runtimeIds.entrySet()) {
+            this.blockRuntimeIds[runtimeId.getKey().getStateId()] = runtimeId.getValue();
+            this.blockEntriesByRuntimeId[runtimeId.getValue()] = runtimeId.getKey();
+        }
+    }
+
+    /**
+     * Store the name of every item by its runtime id.
+     * Custom block items have negative runtime ids, so the names are offset by the lowest runtime id.
+     */
+    protected void loadItemNames() {
+        int lowestRuntimeId = 0;
+        int highestRuntimeId = 0;
+        for (int runtimeId : this.itemRuntimeIds.values()) {
+            lowestRuntimeId = Math.min(lowestRuntimeId, runtimeId);
+            highestRuntimeId = Math.max(highestRuntimeId, runtimeId);
+        }
+
+        this.lowestItemRuntimeId = lowestRuntimeId;
+        this.itemNamesByRuntimeId = new String[highestRuntimeId - lowestRuntimeId + 1];
+        for (Map.Entry<String, Integer> runtimeId : this.itemRuntimeIds.entrySet()) {
+            this.itemNamesByRuntimeId[runtimeId.getValue() - lowestRuntimeId] = runtimeId.getKey();
+        }
+    }
+
     protected InputStream getProtocolResourceStream(String fileName) {
         return Server.getInstance().getClass().getResourceAsStream("/protocol/v" + this.getProtocol() + "/" + fileName);
     }
@@ -76,26 +129,60 @@ public abstract class BaseMinecraftVersion implements MinecraftVersion {
     }
 
     @Override
-    public Block getBlockFromRuntimeId(int blockRuntimeId) {
-        if (!this.blockStates.inverse().containsKey(blockRuntimeId)) {
-            throw new ProtocolException(this, "No such block state exists for runtime id: " + blockRuntimeId);
+    public int getBlockRuntimeId(BlockPaletteEntry entry) {
+        int runtimeId = this.getBlockRuntimeIdByStateId(entry.getStateId());
+        if (runtimeId != -1) {
+            return runtimeId;
         }
 
-        BlockStateData blockStateData = this.blockStates.inverse().get(blockRuntimeId);
+        // The entry was not interned or does not exist in this version
+        return this.getBlockRuntimeId(entry.getId(), entry.getState());
+    }
 
-        if (BlockRegistry.getInstance().hasBlock(blockStateData.getBlockId())) {
-            Block block = BlockRegistry.getInstance().getBlock(blockStateData.getBlockId());
-            block.setBlockState(blockStateData.getNBT());
-            return block;
-        } else {
-            return null;
+    @Override
+    public int getBlockRuntimeId(Block block) {
+        int stateId = ((ImplBlockRegistry) BlockRegistry.getInstance()).getPaletteStateId(block.getBlockId(), block.getBlockState());
+        int runtimeId = this.getBlockRuntimeIdByStateId(stateId);
+        if (runtimeId != -1) {
+            return runtimeId;
         }
+
+        return this.getBlockRuntimeId(block.getBlockId(), block.getNBTState());
+    }
+
+    @Override
+    public int getBlockRuntimeId(BlockState blockState) {
+        int stateId = ((ImplBlockRegistry) BlockRegistry.getInstance()).getPaletteStateId(blockState.getBlockId(), blockState.getStateIndex());
+        int runtimeId = this.getBlockRuntimeIdByStateId(stateId);
+        if (runtimeId != -1) {
+            return runtimeId;
+        }
+
+        return this.getBlockRuntimeId(blockState.getBlockId(), blockState.getNBTState());
+    }
+
+    private int getBlockRuntimeIdByStateId(int stateId) {
+        if (stateId >= 0 && stateId < this.blockRuntimeIds.length) {
+            return this.blockRuntimeIds[stateId];
+        }
+        return -1;
+    }
+
+    @Override
+    public Block getBlockFromRuntimeId(int blockRuntimeId) {
+        if (blockRuntimeId < 0 || blockRuntimeId >= this.blockEntriesByRuntimeId.length || this.blockEntriesByRuntimeId[blockRuntimeId] == null) {
+            throw new ProtocolException(this, "No such block state exists for runtime id: " + blockRuntimeId);
+        }
+
+        BlockState blockState = ((ImplBlockRegistry) BlockRegistry.getInstance()).getBlockState(this.blockEntriesByRuntimeId[blockRuntimeId]);
+        return blockState != null ? blockState.toBlock() : null;
     }
 
     @Override
     public int getItemRuntimeId(String itemName) {
-        if (this.itemRuntimeIds.containsKey(itemName)) {
-            return this.itemRuntimeIds.get(itemName);
+        Integer runtimeId = this.itemRuntimeIds.get(itemName);
+        if (runtimeId != null) {
+            return runtimeId;
         } else {
             throw new ProtocolException(this, "Attempted to retrieve runtime id for non-existent item: " + itemName);
         }
@@ -107,8 +194,9 @@ public abstract class BaseMinecraftVersion implements MinecraftVersion {
             return BlockID.AIR;
         }
 
-        if (this.itemRuntimeIds.inverse().containsKey(runtimeId)) {
-            return this.itemRuntimeIds.inverse().get(runtimeId);
+        int index = runtimeId - this.lowestItemRuntimeId;
+        if (index >= 0 && index < this.itemNamesByRuntimeId.length && this.itemNamesByRuntimeId[index] != null) {
+            return this.itemNamesByRuntimeId[index];
         } else {
             throw new ProtocolException(this, "Attempted to retrieve item name for non-existent runtime id: " + runtimeId);
         }
@@ -58,6 +58,7 @@ import io.github.pizzaserver.server.player.handlers.AuthInputHandler;
 import io.github.pizzaserver.server.player.handlers.InventoryTransactionHandler;
 import io.github.pizzaserver.server.player.handlers.PlayerPacketHandler;
 import io.github.pizzaserver.server.player.manager.PlayerBlockBreakingManager;
+import io.github.pizzaserver.server.player.manager.PlayerBlobCacheManager;
 import io.github.pizzaserver.server.player.manager.PlayerChunkManager;
 import io.github.pizzaserver.server.player.manager.PlayerPopupManager;
 import io.github.pizzaserver.server.player.playerdata.PlayerData;
@@ -91,6 +92,7 @@ public class ImplPlayer extends ImplEntityHuman implements Player {
     protected final PlayerPopupManager popupManager = new PlayerPopupManager(this);
 
     protected final PlayerChunkManager chunkManager = new PlayerChunkManager(this);
+    protected final PlayerBlobCacheManager blobCacheManager = new PlayerBlobCacheManager(this);
     protected Dimension dimensionTransferScreen = null;
 
     protected OpenableInventory openInventory = null;
@@ -658,6 +660,9 @@ public class ImplPlayer extends ImplEntityHuman implements Player {
 
     @Override
     public void teleport(World world, float x, float y, float z, float pitch, float yaw, float headYaw) {
+        if (this.deferWorldChange(world, () -> this.teleport(world, x, y, z, pitch, yaw, headYaw))) {
+            return;
+        }
         super.teleport(world, x, y, z, pitch, yaw, headYaw);
 
         MovePlayerPacket teleportPacket = new MovePlayerPacket();
@@ -671,6 +676,10 @@ public class ImplPlayer extends ImplEntityHuman implements Player {
 
     @Override
     public void teleport(World world, float x, float y, float z, float pitch, float yaw, float headYaw, Dimension transferDimension) {
+        if (this.deferWorldChange(world, () -> this.teleport(world, x, y, z, pitch, yaw, headYaw, transferDimension))) {
+            return;
+        }
+
         World oldWorld = this.getWorld();
         this.teleport(world, x, y, z, pitch, yaw, headYaw);
 
@@ -751,6 +760,18 @@ public class ImplPlayer extends ImplEntityHuman implements Player {
         return this.chunkManager;
     }
 
+    public PlayerBlobCacheManager getBlobCacheManager() {
+        return this.blobCacheManager;
+    }
+
+    /**
+     * Check if the client reported that it supports the client blob cache.
+     * @return if the client blob cache is supported
+     */
+    public boolean isClientCacheSupported() {
+        return this.session.isClientCacheSupported();
+    }
+
     @Override
     public int getChunkRadius() {
         return this.getChunkManager().getChunkRadius();
@@ -941,6 +962,7 @@ public class ImplPlayer extends ImplEntityHuman implements Player {
         }
 
         this.getBlockBreakingManager().tick();
+        this.getChunkManager().tick();
 
         if (!NumberUtils.isNearlyEqual(this.getHealth(), this.getMaxHealth()) && this.getFoodLevel() >= 18 && this.ticks % 80 == 0) {
             this.setHealth(this.getHealth() + 1);
@@ -985,6 +1007,7 @@ public class ImplPlayer extends ImplEntityHuman implements Player {
     public void onDespawned() {
         super.onDespawned();
         this.getChunkManager().onDespawn();
+        this.getBlobCacheManager().clear();
     }
 
     @Override
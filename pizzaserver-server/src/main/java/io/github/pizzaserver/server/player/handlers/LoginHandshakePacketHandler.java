@@ -101,6 +101,12 @@ public class LoginHandshakePacketHandler implements BedrockPacketHandler {
         return true;
     }
 
+    @Override
+    public boolean handle(ClientCacheStatusPacket packet) {
+        this.session.setClientCacheSupported(packet.isSupported());
+        return true;
+    }
+
     @Override
     public boolean handle(PacketViolationWarningPacket packet) {
         this.server.getLogger().debug("Packet violation for " + packet.getPacketType() + ": " + packet.getContext());
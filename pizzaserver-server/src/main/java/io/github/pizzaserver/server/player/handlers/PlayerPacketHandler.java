@@ -173,6 +173,18 @@ public class PlayerPacketHandler implements BedrockPacketHandler {
         return true;
     }
 
+    @Override
+    public boolean handle(ClientCacheBlobStatusPacket packet) {
+        this.player.getBlobCacheManager().onBlobStatus(packet);
+        return true;
+    }
+
+    @Override
+    public boolean handle(SubChunkRequestPacket packet) {
+        this.player.getChunkManager().onSubChunkRequest(packet);
+        return true;
+    }
+
     @Override
     public boolean handle(InteractPacket packet) {
         if (this.player.isAlive()) {
@@ -152,6 +152,12 @@ public class ResourcePackPacketHandler implements BedrockPacketHandler {
         return true;
     }
 
+    @Override
+    public boolean handle(ClientCacheStatusPacket packet) {
+        this.session.setClientCacheSupported(packet.isSupported());
+        return true;
+    }
+
     @Override
     public boolean handle(PacketViolationWarningPacket packet) {
         this.server.getLogger().debug("Packet violation for " + packet.getPacketType() + ": " + packet.getContext());
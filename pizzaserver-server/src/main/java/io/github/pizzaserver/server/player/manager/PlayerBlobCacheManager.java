@@ -0,0 +1,156 @@
+package io.github.pizzaserver.server.player.manager;
+
+import com.nukkitx.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import com.nukkitx.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import io.github.pizzaserver.server.player.ImplPlayer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of the chunk blobs sent to a client that supports the client blob cache.
+ * Blobs are held onto until the client reports whether it had them cached or not.
+ * The amount of blobs held is capped and blobs the client never responds to expire,
+ * so a client that stops responding cannot make the server hold onto every chunk sent to it.
+ */
+public class PlayerBlobCacheManager {
+
+    // Clients respond right after receiving a chunk, so blobs still pending after this long will not be responded to
+    private static final long PENDING_BLOB_EXPIRY_MILLIS = 30000;
+
+    private final ImplPlayer player;
+    // Current time in milliseconds
+    private final LongSupplier clock;
+
+    // blob id : blob, least recently sent first
+    // The same blob can be pending for multiple chunks (e.g. empty sub chunks), so each blob is reference counted.
+    private final Map<Long, PendingBlob> pendingBlobs = new LinkedHashMap<>();
+
+
+    public PlayerBlobCacheManager(ImplPlayer player) {
+        this(player, System::currentTimeMillis);
+    }
+
+    PlayerBlobCacheManager(ImplPlayer player, LongSupplier clock) {
+        this.player = player;
+        this.clock = clock;
+    }
+
+    /**
+     * Check if chunks should be sent to this player using the client blob cache.
+     * @return if the client blob cache should be used
+     */
+    public boolean isEnabled() {
+        return this.player.getServer().getConfig().isClientChunkCacheEnabled() && this.player.isClientCacheSupported();
+    }
+
+    /**
+     * Hold onto blobs that the client may request after being sent their ids.
+     * Nothing is held if the blobs would go over the max amount of pending blobs,
+     * in which case the chunk must be sent without using the client blob cache.
+     * @param blobIds ids of each blob
+     * @param blobs blobs
+     * @return if the blobs are held and only their ids need to be sent
+     */
+    public boolean tryAddPendingBlobs(long[] blobIds, byte[][] blobs) {
+        long now = this.clock.getAsLong();
+        this.removeExpiredBlobs(now);
+        int newBlobs = 0;
+        for (long blobId : blobIds) {
+            if (!this.pendingBlobs.containsKey(blobId)) {
+                newBlobs++;
+            }
+        }
+        if (this.pendingBlobs.size() + newBlobs > this.player.getServer().getConfig().getClientChunkCacheMaxPendingBlobs()) {
+            return false;
+        }
+
+        for (int i = 0; i < blobIds.length; i++) {
+            PendingBlob pendingBlob = this.pendingBlobs.remove(blobIds[i]);
+            if (pendingBlob == null) {
+                pendingBlob = new PendingBlob(blobs[i]);
+            }
+            pendingBlob.references++;
+            pendingBlob.lastSentTime = now;
+
+            // Re-added so that the blobs stay ordered by when they were last sent
+            this.pendingBlobs.put(blobIds[i], pendingBlob);
+        }
+        return true;
+    }
+
+    /**
+     * Called when the client reports which blobs it has cached and which ones it is missing.
+     * Missing blobs are sent to the client.
+     * @param packet blob status packet
+     */
+    public void onBlobStatus(ClientCacheBlobStatusPacket packet) {
+        for (long blobId : packet.getAcks()) {
+            this.release(blobId);
+        }
+
+        ClientCacheMissResponsePacket missResponsePacket = new ClientCacheMissResponsePacket();
+        for (long blobId : packet.getNaks()) {
+            PendingBlob pendingBlob = this.release(blobId);
+            if (pendingBlob != null) {
+                missResponsePacket.getBlobs().put(blobId, pendingBlob.blob);
+            }
+        }
+
+        if (!missResponsePacket.getBlobs().isEmpty()) {
+            this.player.sendPacket(missResponsePacket);
+        }
+    }
+
+    /**
+     * Forget all blobs the client has not responded to.
+     */
+    public void clear() {
+        this.pendingBlobs.clear();
+    }
+
+    /**
+     * Forget the blobs that were last sent too long ago for the client to still respond to them.
+     * @param now current time in milliseconds
+     */
+    private void removeExpiredBlobs(long now) {
+        Iterator<PendingBlob> iterator = this.pendingBlobs.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().lastSentTime < PENDING_BLOB_EXPIRY_MILLIS) {
+                // Every blob after this one was sent more recently
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Release one hold on a pending blob.
+     * @param blobId id of the blob
+     * @return the pending blob if it existed
+     */
+    private PendingBlob release(long blobId) {
+        PendingBlob pendingBlob = this.pendingBlobs.get(blobId);
+        if (pendingBlob != null && --pendingBlob.references <= 0) {
+            this.pendingBlobs.remove(blobId);
+        }
+        return pendingBlob;
+    }
+
+
+    private static class PendingBlob {
+
+        private final byte[] blob;
+        private int references;
+        private long lastSentTime;
+
+
+        public PendingBlob(byte[] blob) {
+            this.blob = blob;
+        }
+
+    }
+
+}
@@ -39,7 +39,7 @@ public class PlayerBlockBreakingManager {
                 LevelEventPacket breakParticlePacket = new LevelEventPacket();
                 breakParticlePacket.setType(LevelEventType.PARTICLE_CRACK_BLOCK);
                 breakParticlePacket.setPosition(this.blockMiningLocation.toVector3f());
-                breakParticlePacket.setData(viewer.getVersion().getBlockRuntimeId(block.getBlockId(), block.getNBTState()) | (this.blockFaceMiningAgainst.ordinal() << 24));
+                breakParticlePacket.setData(viewer.getVersion().getBlockRuntimeId(block) | (this.blockFaceMiningAgainst.ordinal() << 24));
                 viewer.sendPacket(breakParticlePacket);
             }
 
@@ -81,7 +81,7 @@ public class PlayerBlockBreakingManager {
 
         if (!block.getBlockId().equals(BlockID.FIRE)) {
             for (Player viewer : block.getLocation().getChunk().getViewers()) {
-                int blockRuntimeId = viewer.getVersion().getBlockRuntimeId(block.getBlockId(), block.getNBTState());
+                int blockRuntimeId = viewer.getVersion().getBlockRuntimeId(block);
 
                 LevelEventPacket breakParticlePacket = new LevelEventPacket();
                 breakParticlePacket.setType(LevelEventType.PARTICLE_DESTROY_BLOCK);
@@ -1,18 +1,26 @@
 package io.github.pizzaserver.server.player.manager;
 
 import com.nukkitx.math.vector.Vector2i;
+import com.nukkitx.math.vector.Vector3i;
+import com.nukkitx.protocol.bedrock.data.HeightMapDataType;
+import com.nukkitx.protocol.bedrock.data.SubChunkData;
+import com.nukkitx.protocol.bedrock.data.SubChunkRequestResult;
 import com.nukkitx.protocol.bedrock.packet.NetworkChunkPublisherUpdatePacket;
+import com.nukkitx.protocol.bedrock.packet.SubChunkPacket;
+import com.nukkitx.protocol.bedrock.packet.SubChunkRequestPacket;
 import io.github.pizzaserver.api.entity.Entity;
 import io.github.pizzaserver.api.level.world.chunks.Chunk;
 import io.github.pizzaserver.api.utils.Location;
 import io.github.pizzaserver.server.entity.ImplEntity;
+import io.github.pizzaserver.server.level.processing.requests.PlayerChunkRequest;
+import io.github.pizzaserver.server.level.processing.requests.SubChunkRequest;
 import io.github.pizzaserver.server.level.world.ImplWorld;
 import io.github.pizzaserver.server.level.world.chunks.ImplChunk;
 import io.github.pizzaserver.server.player.ImplPlayer;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlayerChunkManager {
 
@@ -20,7 +28,12 @@ public class PlayerChunkManager {
     private int chunkRadius = 3;
 
     private ImplWorld managedWorld = null;
-    private Set<Vector2i> currentVisibleChunkCoordinates = Collections.emptySet();
+    private Set<Vector2i> currentVisibleChunkCoordinates = new HashSet<>();
+
+    // Visible chunks that have not been requested yet
+    private final Set<Vector2i> queuedChunkCoordinates = new HashSet<>();
+    // Visible chunks that were requested but have not been spawned to the player yet
+    private final Map<Vector2i, PlayerChunkRequest> inFlightChunkRequests = new ConcurrentHashMap<>();
 
 
     public PlayerChunkManager(ImplPlayer player) {
@@ -40,6 +53,12 @@ public class PlayerChunkManager {
         }
     }
 
+    public void tick() {
+        if (this.managedWorld != null) {
+            this.sendQueuedChunks(this.player.getServer().getConfig().getPlayerChunkSendRate());
+        }
+    }
+
     public void onChunkChange(Location oldLocation) {
         this.updateChunks(oldLocation, this.getChunkRadius());
     }
@@ -58,7 +77,7 @@ public class PlayerChunkManager {
             boolean isWithinEntityRenderDistance = chunkToPlayerDistance < this.player.getWorld().getServer().getConfig().getEntityChunkRenderDistance();
             boolean isChunkLoaded = this.player.getWorld().isChunkLoaded(chunkCoordinates.getX(), chunkCoordinates.getY());
 
-            if (isWithinEntityRenderDistance && isChunkLoaded) {
+            if (isWithinEntityRenderDistance && isChunkLoaded && !this.isChunkPending(chunkCoordinates)) {
                 for (Entity entity : this.player.getWorld().getChunk(chunkCoordinates.getX(), chunkCoordinates.getY()).getEntities()) {
                     if (((ImplEntity) entity).canBeSpawnedTo(this.player)) {
                         entity.spawnTo(this.player);
@@ -84,26 +103,215 @@ public class PlayerChunkManager {
         this.sendNetworkChunkPublisher();
         for (int x = this.player.getLocation().getChunkX() - 1; x <= this.player.getLocation().getChunkX() + 1; x++) {
             for (int z = this.player.getLocation().getChunkZ() - 1; z <= this.player.getLocation().getChunkZ() + 1; z++) {
-                this.player.getWorld().sendChunk(this.player, x, z);
-                this.currentVisibleChunkCoordinates.add(Vector2i.from(x, z));
+                Vector2i chunkCoordinates = Vector2i.from(x, z);
+                this.currentVisibleChunkCoordinates.add(chunkCoordinates);
+                this.queuedChunkCoordinates.add(chunkCoordinates);
             }
         }
+        this.sendQueuedChunks(this.queuedChunkCoordinates.size());
     }
 
     public void onDimensionTransferComplete() {
         this.updateChunks(this.player.getLocation(), this.player.getChunkRadius());
     }
 
+    /**
+     * Called when a client that was sent chunks in sub chunk request mode requests the sub chunks it needs.
+     * The sub chunks are serialized and sent by a chunk processor.
+     * @param packet sub chunk request packet
+     */
+    public void onSubChunkRequest(SubChunkRequestPacket packet) {
+        if (this.player.getWorld() == null) {
+            return;
+        }
+        this.player.getWorld().getLevel().getLevelManager().getProcessorManager().addRequest(new SubChunkRequest(this.player, packet));
+    }
+
+    /**
+     * Serialize and send the sub chunks of a sub chunk request.
+     * Called by a chunk processor.
+     * @param request the sub chunk request
+     */
+    public void sendSubChunks(SubChunkRequest request) {
+        SubChunkRequestPacket requestPacket = request.getPacket();
+        ImplWorld world = (ImplWorld) request.getWorld();
+
+        SubChunkPacket subChunkPacket = new SubChunkPacket();
+        subChunkPacket.setDimension(requestPacket.getDimension());
+        subChunkPacket.setCacheEnabled(false);
+
+        if (request.isSingleSubChunk()) {
+            // Clients before v503 request one sub chunk per packet and expect it in the packet itself
+            SubChunkData subChunkData = this.getSubChunkData(world, requestPacket.getDimension(), request.getSubChunkPosition());
+            subChunkPacket.setSubChunkPosition(request.getSubChunkPosition());
+            subChunkPacket.setData(subChunkData.getData());
+            subChunkPacket.setResult(subChunkData.getResult());
+            subChunkPacket.setHeightMapType(subChunkData.getHeightMapType());
+        } else {
+            subChunkPacket.setCenterPosition(request.getSubChunkPosition());
+            for (Vector3i offset : requestPacket.getPositionOffsets()) {
+                SubChunkData subChunkData = this.getSubChunkData(world, requestPacket.getDimension(), request.getSubChunkPosition().add(offset));
+                subChunkData.setPosition(offset);
+                subChunkPacket.getSubChunks().add(subChunkData);
+            }
+        }
+
+        this.player.sendPacket(subChunkPacket);
+    }
+
+    /**
+     * Create the response to a single requested sub chunk.
+     * @param world world the player was in when they requested the sub chunk
+     * @param dimension dimension the client requested the sub chunk from
+     * @param position sub chunk position
+     * @return the data and result of the request
+     */
+    private SubChunkData getSubChunkData(ImplWorld world, int dimension, Vector3i position) {
+        SubChunkData subChunkData = new SubChunkData();
+        subChunkData.setHeightMapType(HeightMapDataType.NO_DATA);
+        subChunkData.setData(new byte[0]);
+        subChunkData.setResult(this.getSubChunkResult(world, dimension, position, subChunkData));
+        return subChunkData;
+    }
+
+    /**
+     * Retrieve the sub chunk requested at a position.
+     * @param world world the player was in when they requested the sub chunk
+     * @param dimension dimension the client requested the sub chunk from
+     * @param position sub chunk position
+     * @param subChunkData data to write the sub chunk to if it was found
+     * @return the result of the request
+     */
+    private SubChunkRequestResult getSubChunkResult(ImplWorld world, int dimension, Vector3i position, SubChunkData subChunkData) {
+        if (world == null || world.getDimension().ordinal() != dimension) {
+            return SubChunkRequestResult.INVALID_DIMENSION;
+        }
+
+        if (position.getY() < -4 || position.getY() > 19) {
+            return SubChunkRequestResult.INDEX_OUT_OF_BOUNDS;
+        }
+
+        // Chunks are not loaded just to answer a request
+        ImplChunk chunk = world.getChunk(position.getX(), position.getZ(), false);
+        if (chunk == null) {
+            return SubChunkRequestResult.CHUNK_NOT_FOUND;
+        }
+
+        byte[] data;
+        try {
+            data = chunk.getSubChunkPayload(this.player.getVersion(), position.getY());
+        } catch (IOException exception) {
+            this.player.getServer().getLogger().error("Failed to serialize sub chunk", exception);
+            return SubChunkRequestResult.CHUNK_NOT_FOUND;
+        }
+
+        if (data == null) {
+            return SubChunkRequestResult.SUCCESS_ALL_AIR;
+        }
+        subChunkData.setData(data);
+        return SubChunkRequestResult.SUCCESS;
+    }
+
+    /**
+     * Called on the main thread after a chunk request made by this manager was handled.
+     * This runs after the chunk was spawned to the player, so a request is in flight until the player is a viewer of the chunk.
+     * @param request the chunk request
+     */
+    public void onChunkRequestProcessed(PlayerChunkRequest request) {
+        this.inFlightChunkRequests.remove(Vector2i.from(request.getX(), request.getZ()), request);
+    }
+
     /**
      * Remove the player as a viewer from all chunks this player can currently see.
      */
     private void clearVisibleChunks() {
         for (Vector2i chunkCoordinate : this.currentVisibleChunkCoordinates) {
-            this.managedWorld.getChunk(chunkCoordinate.getX(), chunkCoordinate.getY()).despawnFrom(this.player);
+            this.removeVisibleChunk(this.managedWorld, chunkCoordinate);
         }
         this.currentVisibleChunkCoordinates.clear();
     }
 
+    /**
+     * Stop sending a chunk to the player if it was not sent yet or remove the player as a viewer of the chunk.
+     * @param world world of the chunk
+     * @param chunkCoordinates coordinates of the chunk
+     */
+    private void removeVisibleChunk(ImplWorld world, Vector2i chunkCoordinates) {
+        if (this.queuedChunkCoordinates.remove(chunkCoordinates)) {
+            // The chunk was never requested
+            return;
+        }
+
+        PlayerChunkRequest request = this.inFlightChunkRequests.remove(chunkCoordinates);
+        if (request != null) {
+            request.cancel();
+        }
+
+        // A chunk that is not loaded has no viewers, so it is not loaded just to remove the player
+        ImplChunk chunk = world.getChunk(chunkCoordinates.getX(), chunkCoordinates.getY(), false);
+        if (chunk != null) {
+            chunk.despawnFrom(this.player);
+        }
+    }
+
+    /**
+     * Check if a visible chunk has not been sent to the player yet.
+     * @param chunkCoordinates coordinates of the chunk
+     * @return if the chunk is queued or in flight
+     */
+    private boolean isChunkPending(Vector2i chunkCoordinates) {
+        return this.queuedChunkCoordinates.contains(chunkCoordinates) || this.inFlightChunkRequests.containsKey(chunkCoordinates);
+    }
+
+    /**
+     * Request the queued chunks closest to the player.
+     * Chunks in front of the player are favoured over chunks behind them.
+     * @param limit max amount of chunks to request
+     */
+    private void sendQueuedChunks(int limit) {
+        int amount = Math.min(limit, this.player.getServer().getConfig().getMaxPlayerChunksInFlight() - this.inFlightChunkRequests.size());
+        amount = Math.min(amount, this.queuedChunkCoordinates.size());
+        if (amount <= 0) {
+            return;
+        }
+
+        int playerChunkX = this.player.getLocation().getChunkX();
+        int playerChunkZ = this.player.getLocation().getChunkZ();
+        double directionX = -Math.sin(Math.toRadians(this.player.getYaw()));
+        double directionZ = Math.cos(Math.toRadians(this.player.getYaw()));
+
+        List<Vector2i> queue = new ArrayList<>(this.queuedChunkCoordinates);
+        queue.sort(Comparator.comparingDouble(chunkCoordinates -> getChunkPriority(chunkCoordinates, playerChunkX, playerChunkZ, directionX, directionZ)));
+
+        for (int i = 0; i < amount; i++) {
+            Vector2i chunkCoordinates = queue.get(i);
+            this.queuedChunkCoordinates.remove(chunkCoordinates);
+
+            PlayerChunkRequest request = new PlayerChunkRequest(this.player, chunkCoordinates.getX(), chunkCoordinates.getY());
+            this.inFlightChunkRequests.put(chunkCoordinates, request);
+            this.player.getWorld().getLevel().getLevelManager().getProcessorManager().addRequest(request);
+        }
+    }
+
+    /**
+     * Lower values are sent first.
+     * @param chunkCoordinates coordinates of the chunk
+     * @param playerChunkX chunk x the player is in
+     * @param playerChunkZ chunk z the player is in
+     * @param directionX x component of the direction the player is facing
+     * @param directionZ z component of the direction the player is facing
+     * @return the distance of the chunk to the player, reduced by up to 1 chunk if the player is facing it
+     */
+    private static double getChunkPriority(Vector2i chunkCoordinates, int playerChunkX, int playerChunkZ, double directionX, double directionZ) {
+        int x = chunkCoordinates.getX() - playerChunkX;
+        int z = chunkCoordinates.getY() - playerChunkZ;
+        double distance = Math.sqrt((x * x) + (z * z));
+        if (distance == 0) {
+            return 0;
+        }
+        return distance - ((x * directionX) + (z * directionZ)) / distance;
+    }
+
     /**
      * Called when chunks need to be sent/removed or when entities need to be checked for their entity render distance.
      * @param oldLocation old location before their current one
@@ -179,8 +387,8 @@ public class PlayerChunkManager {
                     // Ensure that this chunk is not already visible
                     boolean isChunkVisibleToPlayer = previouslyVisibleChunks.remove(chunkCoordinates);
                     if (!isChunkVisibleToPlayer) {
-                        this.player.getLocation().getWorld().sendChunk(this.player, chunkX, chunkZ);
-                    } else {
+                        this.queuedChunkCoordinates.add(chunkCoordinates);
+                    } else if (!this.isChunkPending(chunkCoordinates)) {
                         this.trySpawningEntities(this.player.getWorld().getChunk(chunkX, chunkZ), oldLocation, oldRadius);
                     }
                 }
@@ -191,8 +399,10 @@ public class PlayerChunkManager {
 
         // Remove entities in chunks this player can no longer see
         for (Vector2i key : previouslyVisibleChunks) {
-            ((ImplChunk) this.player.getLocation().getWorld().getChunk(key.getX(), key.getY())).despawnFrom(this.player);
+            this.removeVisibleChunk((ImplWorld) this.player.getLocation().getWorld(), key);
         }
+
+        this.sendQueuedChunks(this.player.getServer().getConfig().getPlayerChunkSendRate());
     }
 
     /**
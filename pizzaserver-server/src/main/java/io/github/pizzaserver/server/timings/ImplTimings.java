@@ -0,0 +1,117 @@
+package io.github.pizzaserver.server.timings;
+
+import io.github.pizzaserver.api.timings.TimingCategory;
+import io.github.pizzaserver.api.timings.TimingHandler;
+import io.github.pizzaserver.api.timings.Timings;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class ImplTimings implements Timings {
+
+    private volatile boolean enabled;
+
+    private final Map<TimingCategory, Map<String, TimingHandler>> handlers = new EnumMap<>(TimingCategory.class);
+
+
+    public ImplTimings(boolean enabled) {
+        this.enabled = enabled;
+        for (TimingCategory category : TimingCategory.values()) {
+            this.handlers.put(category, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public TimingHandler getHandler(TimingCategory category, String name) {
+        Map<String, TimingHandler> categoryHandlers = this.handlers.get(category);
+
+        // Avoid locking the map when the handler already exists as this is called very often
+        TimingHandler handler = categoryHandlers.get(name);
+        if (handler == null) {
+            handler = categoryHandlers.computeIfAbsent(name, ignored -> new TimingHandler(this, category, name));
+        }
+        return handler;
+    }
+
+    @Override
+    public Set<TimingHandler> getHandlers() {
+        Set<TimingHandler> handlers = new HashSet<>();
+        for (Map<String, TimingHandler> categoryHandlers : this.handlers.values()) {
+            handlers.addAll(categoryHandlers.values());
+        }
+        return handlers;
+    }
+
+    @Override
+    public List<TimingHandler> getTopOffenders(int amount) {
+        return this.getHandlers().stream()
+                .filter(handler -> handler.getCategory() != TimingCategory.PHASE)
+                .sorted(Comparator.comparingLong(TimingHandler::getTotalNanos).reversed())
+                .limit(amount)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String createReport(int topOffenders) {
+        StringBuilder report = new StringBuilder();
+
+        TimingHandler tick = this.getHandler(TimingCategory.PHASE, TICK);
+        report.append(String.format("Ticks: %d | MSPT avg %.2f p50 %.2f p95 %.2f p99 %.2f max %.2f%n",
+                tick.getCount(),
+                toMillis(tick.getAverageNanos()),
+                toMillis(tick.getPercentileNanos(50)),
+                toMillis(tick.getPercentileNanos(95)),
+                toMillis(tick.getPercentileNanos(99)),
+                toMillis(tick.getMaxNanos())));
+
+        report.append("Phases:").append(System.lineSeparator());
+        for (TimingHandler phase : this.handlers.get(TimingCategory.PHASE).values()) {
+            if (!phase.getName().equals(TICK)) {
+                this.appendHandler(report, phase, tick.getTotalNanos());
+            }
+        }
+
+        report.append("Top offenders:").append(System.lineSeparator());
+        for (TimingHandler handler : this.getTopOffenders(topOffenders)) {
+            this.appendHandler(report, handler, tick.getTotalNanos());
+        }
+
+        return report.toString();
+    }
+
+    private void appendHandler(StringBuilder report, TimingHandler handler, long tickTotalNanos) {
+        double percentOfTick = tickTotalNanos > 0 ? handler.getTotalNanos() * 100d / tickTotalNanos : 0;
+        report.append(String.format("  %s %s: %.2f%% of tick | count %d avg %.3fms p99 %.3fms max %.3fms%n",
+                handler.getCategory(),
+                handler.getName(),
+                percentOfTick,
+                handler.getCount(),
+                toMillis(handler.getAverageNanos()),
+                toMillis(handler.getPercentileNanos(99)),
+                toMillis(handler.getMaxNanos())));
+    }
+
+    @Override
+    public void reset() {
+        for (TimingHandler handler : this.getHandlers()) {
+            handler.reset();
+        }
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
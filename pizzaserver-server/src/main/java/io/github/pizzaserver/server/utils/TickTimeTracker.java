@@ -0,0 +1,97 @@
+package io.github.pizzaserver.server.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of how long the most recent ticks took and when they started.
+ */
+public class TickTimeTracker {
+
+    private final long[] tickStartTimes;
+    private final long[] tickDurations;
+    private int index;
+    private int size;
+    private long totalDuration;
+
+
+    /**
+     * Create a tracker for a fixed amount of recent ticks.
+     * @param windowSize amount of recent ticks to keep track of
+     */
+    public TickTimeTracker(int windowSize) {
+        this.tickStartTimes = new long[windowSize];
+        this.tickDurations = new long[windowSize];
+    }
+
+    /**
+     * Record a tick that finished.
+     * @param startTime {@link System#nanoTime()} when the tick started
+     * @param duration nanoseconds the tick took
+     */
+    public synchronized void record(long startTime, long duration) {
+        if (this.size == this.tickDurations.length) {
+            this.totalDuration -= this.tickDurations[this.index];
+        } else {
+            this.size++;
+        }
+
+        this.tickStartTimes[this.index] = startTime;
+        this.tickDurations[this.index] = duration;
+        this.totalDuration += duration;
+        this.index = (this.index + 1) % this.tickDurations.length;
+    }
+
+    /**
+     * Retrieve the average milliseconds per tick of the recent ticks.
+     * @return average mspt
+     */
+    public synchronized double getAverageMspt() {
+        if (this.size == 0) {
+            return 0;
+        }
+        return toMillis((double) this.totalDuration / this.size);
+    }
+
+    /**
+     * Retrieve the milliseconds per tick that the given percentage of recent ticks took less than or equal to.
+     * @param percentile percentile between 0 and 100
+     * @return mspt
+     */
+    public synchronized double getMsptPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("'percentile' is out of bounds (val = %s)", percentile));
+        }
+        if (this.size == 0) {
+            return 0;
+        }
+
+        long[] durations = Arrays.copyOf(this.tickDurations, this.size);
+        Arrays.sort(durations);
+        int durationIndex = Math.max((int) Math.ceil(percentile / 100 * this.size) - 1, 0);
+        return toMillis(durations[durationIndex]);
+    }
+
+    /**
+     * Retrieve the ticks per second based on when the recent ticks started.
+     * @return tps
+     */
+    public synchronized double getAverageTps() {
+        if (this.size < 2) {
+            return 0;
+        }
+
+        int oldestIndex = this.size == this.tickStartTimes.length ? this.index : 0;
+        int newestIndex = (this.index - 1 + this.tickStartTimes.length) % this.tickStartTimes.length;
+        long elapsed = this.tickStartTimes[newestIndex] - this.tickStartTimes[oldestIndex];
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return (this.size - 1) / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
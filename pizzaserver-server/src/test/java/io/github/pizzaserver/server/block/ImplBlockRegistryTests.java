@@ -0,0 +1,156 @@
+package io.github.pizzaserver.server.block;
+
+import com.nukkitx.nbt.NbtMap;
+import io.github.pizzaserver.api.Server;
+import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockID;
+import io.github.pizzaserver.api.block.BlockState;
+import io.github.pizzaserver.api.block.data.SlabType;
+import io.github.pizzaserver.api.block.impl.*;
+import io.github.pizzaserver.api.item.ItemRegistry;
+import io.github.pizzaserver.api.level.world.World;
+import io.github.pizzaserver.api.utils.BoundingBox;
+import io.github.pizzaserver.api.utils.ServerState;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockStateRegistry;
+import io.github.pizzaserver.server.network.protocol.ServerProtocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ImplBlockRegistryTests {
+
+    private Server previousServer;
+
+
+    @BeforeEach
+    public void setUp() {
+        this.previousServer = Server.getInstance();
+
+        Server server = mock(Server.class);
+        when(server.getState()).thenReturn(ServerState.REGISTERING);
+        when(server.getItemRegistry()).thenReturn(mock(ItemRegistry.class));
+        Server.setInstance(server);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Server.setInstance(this.previousServer);
+    }
+
+    @Test
+    public void blockStatesShouldMatchTheirBlocks() {
+        // Blocks with several states, no collision, a different friction, gravity and bounding boxes that depend on their state
+        List<Block> blocks = Arrays.asList(new BlockAir(), new BlockSand(), new BlockWater(), new BlockIce(),
+                new BlockBlackstoneSlab(), new BlockBlackstoneSlab(SlabType.DOUBLE));
+        ImplBlockRegistry registry = new ImplBlockRegistry();
+        for (Block block : blocks) {
+            registry.register(block);
+        }
+
+        World world = mock(World.class);
+        for (Block block : blocks) {
+            for (int stateIndex = 0; stateIndex < block.getNBTStates().size(); stateIndex++) {
+                Block expectedBlock = block.clone();
+                expectedBlock.setBlockState(stateIndex);
+                expectedBlock.setLocation(world, 3, -64, -20, 1);
+                BlockState state = registry.getBlockState(block.getBlockId(), stateIndex);
+
+                assertSame(state, registry.getBlockState(block.getBlockId(), block.getNBTStates().get(stateIndex)));
+                assertEquals(stateIndex, state.getStateIndex());
+                assertEquals(expectedBlock.getBlockId(), state.getBlockId());
+                assertEquals(expectedBlock.getNBTState(), state.getNBTState());
+                assertEquals(expectedBlock.isAir(), state.isAir());
+                assertEquals(expectedBlock.hasCollision(), state.hasCollision());
+                assertEquals(expectedBlock.isTransparent(), state.isTransparent());
+                assertEquals(expectedBlock.isReplaceable(), state.isReplaceable());
+                assertEquals(expectedBlock.isAffectedByGravity(), state.isAffectedByGravity());
+                assertEquals(expectedBlock.getFriction(), state.getFriction());
+                assertEquals(expectedBlock.getLightAbsorption(), state.getLightAbsorption());
+                assertEquals(expectedBlock.getLightEmission(), state.getLightEmission());
+                assertBoundingBoxEquals(expectedBlock.getBoundingBox(), state.getBoundingBox(3, -64, -20));
+
+                Block stateBlock = state.toBlock(world, 3, -64, -20, 1);
+                assertEquals(expectedBlock, stateBlock);
+                assertEquals(expectedBlock.getLocation(), stateBlock.getLocation());
+                assertEquals(1, stateBlock.getLayer());
+                assertBoundingBoxEquals(expectedBlock.getBoundingBox(), stateBlock.getBoundingBox());
+            }
+        }
+    }
+
+    @Test
+    public void paletteEntriesShouldResolveToTheSharedBlockStates() {
+        ImplBlockRegistry registry = new ImplBlockRegistry();
+        registry.register(new BlockBlackstoneSlab());
+
+        for (int stateIndex = 0; stateIndex < 2; stateIndex++) {
+            BlockState state = registry.getBlockState(BlockID.BLACKSTONE_SLAB, stateIndex);
+            BlockPaletteEntry entry = getPaletteEntry(BlockID.BLACKSTONE_SLAB, state.getNBTState());
+            assertEquals(entry.getStateId(), registry.getPaletteStateId(BlockID.BLACKSTONE_SLAB, stateIndex));
+
+            // The first lookup fills the cache which the second is served from
+            assertSame(state, registry.getBlockState(entry));
+            assertSame(state, registry.getBlockState(entry));
+        }
+
+        // A palette entry that is not interned is looked up by its id and state
+        BlockState upperSlab = registry.getBlockState(BlockID.BLACKSTONE_SLAB, 1);
+        assertSame(upperSlab, registry.getBlockState(new BlockPaletteEntry(BlockID.BLACKSTONE_SLAB, 0, upperSlab.getNBTState())));
+
+        assertEquals(-1, registry.getPaletteStateId(BlockID.BLACKSTONE_SLAB, 2));
+        assertEquals(-1, registry.getPaletteStateId(BlockID.SAND, 0));
+    }
+
+    @Test
+    public void paletteEntriesOfUnregisteredBlocksShouldNotResolve() {
+        ImplBlockRegistry registry = new ImplBlockRegistry();
+        registry.register(new BlockAir());
+
+        BlockPaletteEntry sand = getPaletteEntry(BlockID.SAND, new BlockSand().getNBTState());
+        assertNull(registry.getBlockState(sand));
+        assertNull(registry.getBlockState(sand));
+    }
+
+    @Test
+    public void registeringABlockShouldResetThePaletteCache() {
+        ImplBlockRegistry registry = new ImplBlockRegistry();
+        registry.register(new BlockSand());
+        BlockState sand = registry.getBlockState(BlockID.SAND, 0);
+        BlockPaletteEntry entry = getPaletteEntry(BlockID.SAND, sand.getNBTState());
+        assertSame(sand, registry.getBlockState(entry));
+
+        // A plugin replaces the vanilla block type
+        registry.register(new BlockSand() {
+            @Override
+            public float getFriction() {
+                return 0.5f;
+            }
+        });
+        BlockState replacedSand = registry.getBlockState(BlockID.SAND, 0);
+        assertNotSame(sand, replacedSand);
+        assertSame(replacedSand, registry.getBlockState(entry));
+        assertEquals(0.5f, registry.getBlockState(entry).getFriction());
+    }
+
+    private static BlockPaletteEntry getPaletteEntry(String blockId, NbtMap state) {
+        return BlockStateRegistry.getEntry(blockId, ServerProtocol.LATEST_BLOCK_STATES_VERSION, state);
+    }
+
+    private static void assertBoundingBoxEquals(BoundingBox expected, BoundingBox actual) {
+        assertEquals(expected.getMinX(), actual.getMinX());
+        assertEquals(expected.getMinY(), actual.getMinY());
+        assertEquals(expected.getMinZ(), actual.getMinZ());
+        assertEquals(expected.getMaxX(), actual.getMaxX());
+        assertEquals(expected.getMaxY(), actual.getMaxY());
+        assertEquals(expected.getMaxZ(), actual.getMaxZ());
+    }
+
+}
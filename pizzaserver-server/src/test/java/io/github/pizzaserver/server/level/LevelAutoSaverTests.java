@@ -0,0 +1,129 @@
+package io.github.pizzaserver.server.level;
+
+import io.github.pizzaserver.api.level.world.data.Dimension;
+import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
+import io.github.pizzaserver.server.level.processing.ChunkSaveQueue;
+import io.github.pizzaserver.server.level.world.ImplWorld;
+import io.github.pizzaserver.server.level.world.chunks.ImplChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class LevelAutoSaverTests {
+
+    @Test
+    public void shouldOnlySaveTheChunksPerTickBudget() {
+        ImplLevel level = mockLevel(2);
+        ImplWorld world = level.getDimension(Dimension.OVERWORLD);
+        List<ImplChunk> chunks = mockChunks(world, 5);
+        when(world.getChunkManager().getLoadedChunks()).thenReturn(chunks);
+        ChunkSaveQueue saveQueue = level.getLevelManager().getChunkSaveQueue();
+        when(saveQueue.offerSave(any(), any())).thenReturn(true);
+
+        LevelAutoSaver autoSaver = new LevelAutoSaver(level);
+        autoSaver.start();
+        assertTrue(autoSaver.isSaving());
+        assertEquals(0, autoSaver.getProgress());
+
+        autoSaver.tick();
+        verify(saveQueue, times(2)).offerSave(any(), any());
+        assertEquals(0.4f, autoSaver.getProgress());
+
+        autoSaver.tick();
+        autoSaver.tick();
+        verify(saveQueue, times(5)).offerSave(any(), any());
+        assertFalse(autoSaver.isSaving());
+        assertEquals(1, autoSaver.getProgress());
+    }
+
+    @Test
+    public void unmodifiedChunksShouldNotCountTowardsTheBudget() {
+        ImplLevel level = mockLevel(1);
+        ImplWorld world = level.getDimension(Dimension.OVERWORLD);
+        List<ImplChunk> chunks = mockChunks(world, 3);
+        when(chunks.get(0).isModified()).thenReturn(false);
+        when(chunks.get(1).isModified()).thenReturn(false);
+        when(world.getChunkManager().getLoadedChunks()).thenReturn(chunks);
+        ChunkSaveQueue saveQueue = level.getLevelManager().getChunkSaveQueue();
+        when(saveQueue.offerSave(any(), any())).thenReturn(true);
+
+        LevelAutoSaver autoSaver = new LevelAutoSaver(level);
+        autoSaver.start();
+        autoSaver.tick();
+
+        BedrockChunk modifiedChunk = chunks.get(2).getBedrockChunk();
+        verify(saveQueue).offerSave(world, modifiedChunk);
+        assertFalse(autoSaver.isSaving());
+    }
+
+    @Test
+    public void shouldRetryChunksNextTickIfTheSaveQueueIsFull() {
+        ImplLevel level = mockLevel(10);
+        ImplWorld world = level.getDimension(Dimension.OVERWORLD);
+        List<ImplChunk> chunks = mockChunks(world, 2);
+        when(world.getChunkManager().getLoadedChunks()).thenReturn(chunks);
+        ChunkSaveQueue saveQueue = level.getLevelManager().getChunkSaveQueue();
+        when(saveQueue.offerSave(any(), any())).thenReturn(true, false, true);
+
+        LevelAutoSaver autoSaver = new LevelAutoSaver(level);
+        autoSaver.start();
+        autoSaver.tick();
+        assertEquals(0.5f, autoSaver.getProgress());
+
+        autoSaver.tick();
+        BedrockChunk retriedChunk = chunks.get(1).getBedrockChunk();
+        verify(saveQueue, times(2)).offerSave(world, retriedChunk);
+        assertFalse(autoSaver.isSaving());
+    }
+
+    @Test
+    public void shouldStopOnceTheTimeBudgetIsUsed() {
+        ImplLevel level = mockLevel(10);
+        when(level.getServer().getConfig().getAutosaveMaxMillisecondsPerTick()).thenReturn(0);
+        ImplWorld world = level.getDimension(Dimension.OVERWORLD);
+        List<ImplChunk> chunks = mockChunks(world, 2);
+        when(world.getChunkManager().getLoadedChunks()).thenReturn(chunks);
+        ChunkSaveQueue saveQueue = level.getLevelManager().getChunkSaveQueue();
+
+        LevelAutoSaver autoSaver = new LevelAutoSaver(level);
+        autoSaver.start();
+        autoSaver.tick();
+
+        verify(saveQueue, never()).offerSave(any(), any());
+        assertTrue(autoSaver.isSaving());
+        assertEquals(0, autoSaver.getProgress());
+    }
+
+    private static ImplLevel mockLevel(int chunksPerTick) {
+        ImplLevel level = mock(ImplLevel.class, RETURNS_DEEP_STUBS);
+        when(level.getServer().getConfig().getAutosaveInterval()).thenReturn(300);
+        when(level.getServer().getConfig().getAutosaveChunksPerTick()).thenReturn(chunksPerTick);
+        when(level.getServer().getConfig().getAutosaveMaxMillisecondsPerTick()).thenReturn(1000);
+        for (Dimension dimension : Dimension.values()) {
+            ImplWorld world = mock(ImplWorld.class, RETURNS_DEEP_STUBS);
+            when(world.getChunkManager().getLoadedChunks()).thenReturn(Collections.emptyList());
+            when(level.getDimension(dimension)).thenReturn(world);
+        }
+        return level;
+    }
+
+    private static List<ImplChunk> mockChunks(ImplWorld world, int amount) {
+        List<ImplChunk> chunks = new ArrayList<>();
+        for (int x = 0; x < amount; x++) {
+            ImplChunk chunk = mock(ImplChunk.class, RETURNS_DEEP_STUBS);
+            when(chunk.getX()).thenReturn(x);
+            when(chunk.getWorld()).thenReturn(world);
+            when(chunk.isModified()).thenReturn(true);
+            when(world.getChunkManager().getChunk(x, 0, false)).thenReturn(chunk);
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+}
@@ -0,0 +1,189 @@
+package io.github.pizzaserver.server.level.processing;
+
+import io.github.pizzaserver.api.level.world.data.Dimension;
+import io.github.pizzaserver.format.BedrockLevel;
+import io.github.pizzaserver.format.data.LevelData;
+import io.github.pizzaserver.format.dimension.BedrockDimension;
+import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
+import io.github.pizzaserver.server.level.ImplLevel;
+import io.github.pizzaserver.server.level.ImplLevelManager;
+import io.github.pizzaserver.server.level.world.ImplWorld;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ChunkSaveQueueTests {
+
+    @Test
+    public void shouldRetryChunksThatFailedToSave() throws InterruptedException {
+        ImplWorld world = mockWorld();
+        BedrockDimension dimension = world.getLevel().getProvider().getDimension(0);
+        List<List<BedrockChunk>> saves = recordSaves(dimension, 1, null);
+
+        ChunkSaveQueue saveQueue = new ChunkSaveQueue(mockLevelManager());
+        BedrockChunk chunk = mockChunk(0, 0);
+        saveQueue.queueSave(world, chunk);
+        assertTrue(saveQueue.flush(10000));
+
+        assertEquals(List.of(List.of(chunk), List.of(chunk)), saves);
+        assertNull(saveQueue.takePendingChunk(world, 0, 0));
+        saveQueue.close();
+    }
+
+    @Test
+    public void shouldOnlyRetryChunksThatWereNotSavedAgain() throws InterruptedException {
+        ImplWorld world = mockWorld();
+        BedrockDimension dimension = world.getLevel().getProvider().getDimension(0);
+        BedrockChunk newerChunk = mockChunk(0, 0);
+        ChunkSaveQueue saveQueue = new ChunkSaveQueue(mockLevelManager());
+        // The chunk is loaded and unloaded again while the first save is being written
+        List<List<BedrockChunk>> saves = recordSaves(dimension, 1, () -> assertTrue(saveQueue.offerSave(world, newerChunk)));
+
+        BedrockChunk chunk = mockChunk(0, 0);
+        saveQueue.queueSave(world, chunk);
+        assertTrue(saveQueue.flush(10000));
+
+        assertEquals(List.of(List.of(chunk), List.of(newerChunk)), saves);
+        saveQueue.close();
+    }
+
+    @Test
+    public void shouldKeepServingChunksThatFailedToSave() throws InterruptedException {
+        ImplWorld world = mockWorld();
+        BedrockDimension dimension = world.getLevel().getProvider().getDimension(0);
+        List<List<BedrockChunk>> saves = recordSaves(dimension, Integer.MAX_VALUE, null);
+
+        ChunkSaveQueue saveQueue = new ChunkSaveQueue(mockLevelManager());
+        BedrockChunk chunk = mockChunk(0, 0);
+        saveQueue.queueSave(world, chunk);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (saves.size() < 2) {
+                Thread.sleep(10);
+            }
+        });
+        assertSame(chunk, saveQueue.takePendingChunk(world, 0, 0));
+        // The queue is not closed as it would wait for the chunk to be saved
+    }
+
+    @Test
+    public void failedSavesOfChunksTakenBackShouldNotBeRetried() throws InterruptedException {
+        ImplWorld world = mockWorld();
+        BedrockDimension dimension = world.getLevel().getProvider().getDimension(0);
+        ChunkSaveQueue saveQueue = new ChunkSaveQueue(mockLevelManager());
+        BedrockChunk chunk = mockChunk(0, 0);
+        // The chunk is loaded again while it is being written. Its world saves it again as the chunk is marked as changed.
+        List<List<BedrockChunk>> saves = recordSaves(dimension, 1, () -> assertSame(chunk, saveQueue.takePendingChunk(world, 0, 0)));
+
+        saveQueue.queueSave(world, chunk);
+        assertTrue(saveQueue.flush(10000));
+
+        assertEquals(List.of(List.of(chunk)), saves);
+        saveQueue.close();
+    }
+
+    @Test
+    public void flushShouldTimeOutIfChunksKeepFailingToSave() throws InterruptedException {
+        ImplWorld world = mockWorld();
+        BedrockDimension dimension = world.getLevel().getProvider().getDimension(0);
+        List<List<BedrockChunk>> saves = recordSaves(dimension, Integer.MAX_VALUE, null);
+
+        ChunkSaveQueue saveQueue = new ChunkSaveQueue(mockLevelManager());
+        BedrockChunk chunk = mockChunk(0, 0);
+        saveQueue.queueSave(world, chunk);
+        assertFalse(saveQueue.flush(100));
+        assertFalse(saves.isEmpty());
+
+        // The level is closed, so the chunk is given up on
+        assertEquals(List.of(chunk), saveQueue.discardSaves(world.getLevel()));
+        assertTrue(saveQueue.flush(0));
+        int attempts = saves.size();
+        Thread.sleep(1000);
+        assertEquals(attempts, saves.size());
+        assertNull(saveQueue.takePendingChunk(world, 0, 0));
+        saveQueue.close();
+    }
+
+    @Test
+    public void levelDataShouldBeWrittenByTheSaveThread() throws IOException, InterruptedException {
+        ImplLevel level = mock(ImplLevel.class);
+        BedrockLevel provider = mock(BedrockLevel.class);
+        when(level.getProvider()).thenReturn(provider);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            if (threads.size() == 1) {
+                throw new IOException("Failed to write level.dat");
+            }
+            return null;
+        }).when(provider).setLevelData(any());
+
+        ChunkSaveQueue saveQueue = new ChunkSaveQueue(mockLevelManager());
+        LevelData levelData = new LevelData();
+        saveQueue.queueLevelDataSave(level, levelData);
+        assertTrue(saveQueue.flush(10000));
+
+        // The failed write is retried
+        assertEquals(List.of("Chunk Save Thread", "Chunk Save Thread"), threads);
+        verify(provider, times(2)).setLevelData(levelData);
+        saveQueue.close();
+    }
+
+    private static ImplLevelManager mockLevelManager() {
+        ImplLevelManager levelManager = mock(ImplLevelManager.class, RETURNS_DEEP_STUBS);
+        when(levelManager.getServer().getConfig().getChunkSaveQueueSize()).thenReturn(16);
+        return levelManager;
+    }
+
+    private static ImplWorld mockWorld() {
+        ImplWorld world = mock(ImplWorld.class, RETURNS_DEEP_STUBS);
+        when(world.getDimension()).thenReturn(Dimension.OVERWORLD);
+        BedrockDimension dimension = mock(BedrockDimension.class);
+        when(world.getLevel().getProvider().getDimension(0)).thenReturn(dimension);
+        return world;
+    }
+
+    private static BedrockChunk mockChunk(int x, int z) {
+        BedrockChunk chunk = mock(BedrockChunk.class);
+        when(chunk.getX()).thenReturn(x);
+        when(chunk.getZ()).thenReturn(z);
+        return chunk;
+    }
+
+    /**
+     * Record every batch of chunks saved to a dimension.
+     * @param dimension dimension to save to
+     * @param failures amount of saves that fail before saves succeed
+     * @param onFailure called before a save fails or null
+     * @return the chunks of every save
+     */
+    @SuppressWarnings("unchecked")
+    private static List<List<BedrockChunk>> recordSaves(BedrockDimension dimension, int failures, Runnable onFailure) {
+        List<List<BedrockChunk>> saves = Collections.synchronizedList(new ArrayList<>());
+        try {
+            doAnswer(invocation -> {
+                saves.add(new ArrayList<>((Collection<BedrockChunk>) invocation.getArgument(0)));
+                if (saves.size() <= failures) {
+                    if (onFailure != null) {
+                        onFailure.run();
+                    }
+                    throw new IOException("Failed to write batch");
+                }
+                return null;
+            }).when(dimension).saveChunks(any());
+        } catch (IOException exception) {
+            throw new AssertionError(exception);
+        }
+        return saves;
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.github.pizzaserver.server.level.processing.requests;
+
+import io.github.pizzaserver.api.level.world.World;
+import io.github.pizzaserver.server.player.ImplPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ChunkRequestGroupTests {
+
+    @Test
+    public void forcedUnloadShouldBeProcessedBeforeLaterPlayerRequests() {
+        World world = mock(World.class);
+        ChunkRequestGroup group = new ChunkRequestGroup(world, 0, 0);
+
+        UnloadChunkRequest unloadRequest = new UnloadChunkRequest(world, 0, 0, true);
+        PlayerChunkRequest playerRequest = new PlayerChunkRequest(mock(ImplPlayer.class), 0, 0);
+        group.addRequest(unloadRequest);
+        group.addRequest(playerRequest);
+
+        assertEquals(List.of(unloadRequest, playerRequest), group.getRequests());
+    }
+
+    @Test
+    public void unloadShouldBeProcessedAfterEarlierPlayerRequests() {
+        World world = mock(World.class);
+        ChunkRequestGroup group = new ChunkRequestGroup(world, 0, 0);
+
+        PlayerChunkRequest playerRequest = new PlayerChunkRequest(mock(ImplPlayer.class), 0, 0);
+        UnloadChunkRequest unloadRequest = new UnloadChunkRequest(world, 0, 0, true);
+        PlayerChunkRequest laterPlayerRequest = new PlayerChunkRequest(mock(ImplPlayer.class), 0, 0);
+        group.addRequest(playerRequest);
+        group.addRequest(unloadRequest);
+        group.addRequest(laterPlayerRequest);
+
+        assertEquals(List.of(playerRequest, unloadRequest, laterPlayerRequest), group.getRequests());
+    }
+
+    @Test
+    public void unforcedUnloadShouldBeCancelledByLaterPlayerRequests() {
+        World world = mock(World.class);
+        ChunkRequestGroup group = new ChunkRequestGroup(world, 0, 0);
+
+        PlayerChunkRequest playerRequest = new PlayerChunkRequest(mock(ImplPlayer.class), 0, 0);
+        PlayerChunkRequest laterPlayerRequest = new PlayerChunkRequest(mock(ImplPlayer.class), 0, 0);
+        group.addRequest(playerRequest);
+        group.addRequest(new UnloadChunkRequest(world, 0, 0, false));
+        group.addRequest(laterPlayerRequest);
+
+        assertEquals(List.of(playerRequest, laterPlayerRequest), group.getRequests());
+    }
+
+    @Test
+    public void consecutiveUnloadsShouldBeMergedIntoTheForcedOne() {
+        World world = mock(World.class);
+        UnloadChunkRequest forcedUnloadRequest = new UnloadChunkRequest(world, 0, 0, true);
+
+        ChunkRequestGroup group = new ChunkRequestGroup(world, 0, 0);
+        group.addRequest(new UnloadChunkRequest(world, 0, 0, false));
+        group.addRequest(forcedUnloadRequest);
+        assertEquals(List.of(forcedUnloadRequest), group.getRequests());
+
+        group = new ChunkRequestGroup(world, 0, 0);
+        group.addRequest(forcedUnloadRequest);
+        group.addRequest(new UnloadChunkRequest(world, 0, 0, false));
+        assertEquals(List.of(forcedUnloadRequest), group.getRequests());
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.pizzaserver.server.level.world.chunks;
+
+import io.github.pizzaserver.api.block.BlockState;
+import io.github.pizzaserver.server.level.world.ImplWorld;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+public class LastChunkCacheTests {
+
+    @Test
+    public void shouldOnlyLookUpChunksWhenTheChunkChanges() {
+        ImplWorld world = mock(ImplWorld.class);
+        ImplChunk chunk = mock(ImplChunk.class);
+        ImplChunk otherChunk = mock(ImplChunk.class);
+        when(world.getChunk(0, 0)).thenReturn(chunk);
+        when(world.getChunk(1, 0)).thenReturn(otherChunk);
+
+        LastChunkCache chunkCache = new LastChunkCache(world);
+        assertSame(chunk, chunkCache.getChunk(0, 0));
+        assertSame(chunk, chunkCache.getChunk(0, 0));
+        assertSame(otherChunk, chunkCache.getChunk(1, 0));
+        assertSame(chunk, chunkCache.getChunk(0, 0));
+
+        verify(world, times(2)).getChunk(0, 0);
+        verify(world, times(1)).getChunk(1, 0);
+    }
+
+    @Test
+    public void shouldReadBlocksOfTheChunkContainingThem() {
+        ImplWorld world = mock(ImplWorld.class);
+        ImplChunk chunk = mock(ImplChunk.class);
+        BlockState blockState = mock(BlockState.class);
+        when(world.getChunk(-1, -2)).thenReturn(chunk);
+        when(chunk.getBlockState(15, 64, 14, 0)).thenReturn(blockState);
+
+        LastChunkCache chunkCache = new LastChunkCache(world);
+        assertSame(blockState, chunkCache.getBlockState(-1, 64, -18));
+        assertSame(blockState, chunkCache.getBlockState(-1, 64, -18));
+        verify(world, times(1)).getChunk(-1, -2);
+    }
+
+}
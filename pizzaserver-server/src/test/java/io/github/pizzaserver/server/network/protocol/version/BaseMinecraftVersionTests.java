@@ -0,0 +1,187 @@
+package io.github.pizzaserver.server.network.protocol.version;
+
+import com.nukkitx.nbt.NbtMap;
+import com.nukkitx.protocol.bedrock.BedrockPacketCodec;
+import io.github.pizzaserver.api.Server;
+import io.github.pizzaserver.api.block.Block;
+import io.github.pizzaserver.api.block.BlockID;
+import io.github.pizzaserver.api.block.BlockState;
+import io.github.pizzaserver.api.block.impl.BlockAir;
+import io.github.pizzaserver.api.block.impl.BlockBlackstoneSlab;
+import io.github.pizzaserver.api.block.impl.BlockSand;
+import io.github.pizzaserver.api.block.impl.BlockStone;
+import io.github.pizzaserver.api.item.ItemRegistry;
+import io.github.pizzaserver.api.utils.Logger;
+import io.github.pizzaserver.api.utils.ServerState;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockStateRegistry;
+import io.github.pizzaserver.server.block.ImplBlockRegistry;
+import io.github.pizzaserver.server.network.protocol.ServerProtocol;
+import io.github.pizzaserver.server.network.protocol.exception.ProtocolException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BaseMinecraftVersionTests {
+
+    private static final NbtMap LOWER_SLAB = new BlockBlackstoneSlab().getNBTStates().get(0);
+    private static final NbtMap UPPER_SLAB = new BlockBlackstoneSlab().getNBTStates().get(1);
+    private static final NbtMap STONE = new BlockStone().getNBTState();
+
+    private Server previousServer;
+    private ImplBlockRegistry blockRegistry;
+
+
+    @BeforeEach
+    public void setUp() {
+        this.previousServer = Server.getInstance();
+
+        Server server = mock(Server.class);
+        when(server.getState()).thenReturn(ServerState.REGISTERING);
+        when(server.getItemRegistry()).thenReturn(mock(ItemRegistry.class));
+        when(server.getLogger()).thenReturn(mock(Logger.class));
+        this.blockRegistry = new ImplBlockRegistry();
+        when(server.getBlockRegistry()).thenReturn(this.blockRegistry);
+        Server.setInstance(server);
+
+        this.blockRegistry.register(new BlockAir());
+        this.blockRegistry.register(new BlockBlackstoneSlab());
+        this.blockRegistry.register(new BlockSand());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Server.setInstance(this.previousServer);
+    }
+
+    @Test
+    public void blockStatesShouldTranslateToTheirRuntimeIds() throws IOException {
+        TestMinecraftVersion version = new TestMinecraftVersion();
+
+        BlockState air = this.blockRegistry.getBlockState(BlockID.AIR, 0);
+        BlockState lowerSlab = this.blockRegistry.getBlockState(BlockID.BLACKSTONE_SLAB, 0);
+        BlockState upperSlab = this.blockRegistry.getBlockState(BlockID.BLACKSTONE_SLAB, 1);
+        assertEquals(0, version.getBlockRuntimeId(air));
+        assertEquals(5, version.getBlockRuntimeId(lowerSlab));
+        assertEquals(7, version.getBlockRuntimeId(upperSlab));
+
+        // Blocks and palette entries of the same state share the runtime id
+        assertEquals(7, version.getBlockRuntimeId(upperSlab.toBlock()));
+        assertEquals(7, version.getBlockRuntimeId(BlockStateRegistry.getEntry(BlockID.BLACKSTONE_SLAB, ServerProtocol.LATEST_BLOCK_STATES_VERSION, UPPER_SLAB)));
+        assertEquals(7, version.getBlockRuntimeId(new BlockPaletteEntry(BlockID.BLACKSTONE_SLAB, 0, UPPER_SLAB)));
+    }
+
+    @Test
+    public void blocksOutsideOfTheTablesShouldFallBackToTheirNBTState() throws IOException {
+        TestMinecraftVersion version = new TestMinecraftVersion();
+
+        // Stone is part of the version, but was not registered
+        assertEquals(3, version.getBlockRuntimeId(new BlockStone()));
+
+        // Sand was registered, but is not part of the version
+        assertThrows(NullPointerException.class, () -> version.getBlockRuntimeId(this.blockRegistry.getBlockState(BlockID.SAND, 0)));
+        assertThrows(NullPointerException.class, () -> version.getBlockRuntimeId(new BlockSand()));
+    }
+
+    @Test
+    public void runtimeIdsShouldTranslateToTheirBlocks() throws IOException {
+        TestMinecraftVersion version = new TestMinecraftVersion();
+
+        Block upperSlab = version.getBlockFromRuntimeId(7);
+        assertEquals(BlockID.BLACKSTONE_SLAB, upperSlab.getBlockId());
+        assertEquals(1, upperSlab.getBlockState());
+        assertEquals(0, version.getBlockFromRuntimeId(5).getBlockState());
+        assertTrue(version.getBlockFromRuntimeId(0).isAir());
+
+        // Blocks are created for every call
+        assertNotSame(version.getBlockFromRuntimeId(7), version.getBlockFromRuntimeId(7));
+
+        // Stone is part of the version, but was not registered
+        assertNull(version.getBlockFromRuntimeId(3));
+
+        assertThrows(ProtocolException.class, () -> version.getBlockFromRuntimeId(1));
+        assertThrows(ProtocolException.class, () -> version.getBlockFromRuntimeId(-1));
+        assertThrows(ProtocolException.class, () -> version.getBlockFromRuntimeId(8));
+    }
+
+    @Test
+    public void itemRuntimeIdsShouldTranslateToTheirNames() throws IOException {
+        TestMinecraftVersion version = new TestMinecraftVersion();
+
+        assertEquals(BlockID.AIR, version.getItemName(0));
+        assertEquals("minecraft:apple", version.getItemName(257));
+        assertEquals("minecraft:stick", version.getItemName(280));
+        assertEquals(280, version.getItemRuntimeId("minecraft:stick"));
+
+        // Custom block items have negative runtime ids
+        assertEquals("pizzaserver:custom_block", version.getItemName(-600));
+        assertEquals("pizzaserver:other_custom_block", version.getItemName(-1));
+        assertEquals(-600, version.getItemRuntimeId("pizzaserver:custom_block"));
+
+        assertThrows(ProtocolException.class, () -> version.getItemName(1));
+        assertThrows(ProtocolException.class, () -> version.getItemName(-2));
+        assertThrows(ProtocolException.class, () -> version.getItemName(-601));
+        assertThrows(ProtocolException.class, () -> version.getItemName(281));
+        assertThrows(ProtocolException.class, () -> version.getItemName(Integer.MIN_VALUE));
+        assertThrows(ProtocolException.class, () -> version.getItemName(Integer.MAX_VALUE));
+        assertThrows(ProtocolException.class, () -> version.getItemRuntimeId("minecraft:diamond"));
+    }
+
+
+    private static class TestMinecraftVersion extends BaseMinecraftVersion {
+
+        public TestMinecraftVersion() throws IOException {}
+
+        @Override
+        protected void loadBlockStates() {
+            // Runtime ids 1, 2, 4 and 6 are not used
+            this.blockStates.put(new BlockStateData(BlockID.AIR, NbtMap.EMPTY), 0);
+            this.blockStates.put(new BlockStateData(BlockID.STONE, STONE), 3);
+            this.blockStates.put(new BlockStateData(BlockID.BLACKSTONE_SLAB, LOWER_SLAB), 5);
+            this.blockStates.put(new BlockStateData(BlockID.BLACKSTONE_SLAB, UPPER_SLAB), 7);
+        }
+
+        @Override
+        protected void loadRuntimeItems() {
+            this.itemRuntimeIds.put("minecraft:apple", 257);
+            this.itemRuntimeIds.put("minecraft:stick", 280);
+            this.itemRuntimeIds.put("pizzaserver:custom_block", -600);
+            this.itemRuntimeIds.put("pizzaserver:other_custom_block", -1);
+        }
+
+        @Override
+        protected void loadBiomeDefinitions() {}
+
+        @Override
+        protected void loadDefaultCreativeItems() {}
+
+        @Override
+        protected void loadEntitiesNBT() {}
+
+        @Override
+        protected void loadItemComponents() {}
+
+        @Override
+        public int getProtocol() {
+            return 0;
+        }
+
+        @Override
+        public String getVersion() {
+            return "test";
+        }
+
+        @Override
+        public BedrockPacketCodec getPacketCodec() {
+            return null;
+        }
+
+    }
+
+}
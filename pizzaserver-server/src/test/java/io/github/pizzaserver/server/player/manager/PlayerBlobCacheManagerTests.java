@@ -0,0 +1,116 @@
+package io.github.pizzaserver.server.player.manager;
+
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import com.nukkitx.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import io.github.pizzaserver.server.player.ImplPlayer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PlayerBlobCacheManagerTests {
+
+    @Test
+    public void missingBlobsShouldBeSent() {
+        ImplPlayer player = mockPlayer(8);
+        PlayerBlobCacheManager blobCacheManager = new PlayerBlobCacheManager(player);
+        byte[] blob = new byte[]{ 1, 2, 3 };
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 1, 2 }, new byte[][]{ blob, new byte[0] }));
+
+        ClientCacheBlobStatusPacket statusPacket = new ClientCacheBlobStatusPacket();
+        statusPacket.getAcks().add(2L);
+        statusPacket.getNaks().add(1L);
+        blobCacheManager.onBlobStatus(statusPacket);
+
+        ArgumentCaptor<BedrockPacket> sentPacket = ArgumentCaptor.forClass(BedrockPacket.class);
+        verify(player).sendPacket(sentPacket.capture());
+        ClientCacheMissResponsePacket missResponsePacket = (ClientCacheMissResponsePacket) sentPacket.getValue();
+        assertEquals(1, missResponsePacket.getBlobs().size());
+        assertArrayEquals(blob, missResponsePacket.getBlobs().get(1L));
+    }
+
+    @Test
+    public void blobsShouldNotBeHeldPastTheMaxPendingBlobs() {
+        ImplPlayer player = mockPlayer(4);
+        PlayerBlobCacheManager blobCacheManager = new PlayerBlobCacheManager(player);
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 1, 2, 3 }, new byte[3][]));
+
+        // The chunk has to be sent without the blob cache, so none of its blobs are held
+        assertFalse(blobCacheManager.tryAddPendingBlobs(new long[]{ 4, 5 }, new byte[2][]));
+        ClientCacheBlobStatusPacket statusPacket = new ClientCacheBlobStatusPacket();
+        statusPacket.getNaks().add(4L);
+        blobCacheManager.onBlobStatus(statusPacket);
+        verify(player, never()).sendPacket(any());
+
+        // Blobs the client responded to make room for more
+        statusPacket = new ClientCacheBlobStatusPacket();
+        statusPacket.getAcks().add(1L);
+        statusPacket.getAcks().add(2L);
+        blobCacheManager.onBlobStatus(statusPacket);
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 4, 5 }, new byte[2][]));
+    }
+
+    @Test
+    public void blobsPendingForMultipleChunksShouldBeHeldUntilEveryChunkIsResponded() {
+        ImplPlayer player = mockPlayer(8);
+        PlayerBlobCacheManager blobCacheManager = new PlayerBlobCacheManager(player);
+        byte[] blob = new byte[]{ 1 };
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 1 }, new byte[][]{ blob }));
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 1 }, new byte[][]{ blob }));
+
+        ClientCacheBlobStatusPacket statusPacket = new ClientCacheBlobStatusPacket();
+        statusPacket.getAcks().add(1L);
+        blobCacheManager.onBlobStatus(statusPacket);
+
+        statusPacket = new ClientCacheBlobStatusPacket();
+        statusPacket.getNaks().add(1L);
+        blobCacheManager.onBlobStatus(statusPacket);
+        verify(player).sendPacket(any(ClientCacheMissResponsePacket.class));
+    }
+
+    @Test
+    public void blobsShouldExpireIfTheClientNeverResponds() {
+        ImplPlayer player = mockPlayer(4);
+        AtomicLong time = new AtomicLong();
+        PlayerBlobCacheManager blobCacheManager = new PlayerBlobCacheManager(player, time::get);
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 1, 2 }, new byte[][]{ new byte[]{ 1 }, new byte[]{ 2 } }));
+
+        time.set(20000);
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 3, 4 }, new byte[2][]));
+        // Blob 1 is sent again, so it no longer expires with blob 2
+        time.set(25000);
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 1 }, new byte[][]{ new byte[]{ 1 } }));
+        assertFalse(blobCacheManager.tryAddPendingBlobs(new long[]{ 5 }, new byte[1][]));
+
+        // Only blob 2 was last sent 30 seconds ago
+        time.set(30000);
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 5 }, new byte[1][]));
+        assertFalse(blobCacheManager.tryAddPendingBlobs(new long[]{ 6 }, new byte[1][]));
+
+        ClientCacheBlobStatusPacket statusPacket = new ClientCacheBlobStatusPacket();
+        statusPacket.getNaks().add(1L);
+        statusPacket.getNaks().add(2L);
+        blobCacheManager.onBlobStatus(statusPacket);
+        ArgumentCaptor<BedrockPacket> sentPacket = ArgumentCaptor.forClass(BedrockPacket.class);
+        verify(player).sendPacket(sentPacket.capture());
+        ClientCacheMissResponsePacket missResponsePacket = (ClientCacheMissResponsePacket) sentPacket.getValue();
+        assertEquals(1, missResponsePacket.getBlobs().size());
+        assertNotNull(missResponsePacket.getBlobs().get(1L));
+
+        // Every blob expires once the client stops responding
+        time.set(60000);
+        assertTrue(blobCacheManager.tryAddPendingBlobs(new long[]{ 6, 7, 8, 9 }, new byte[4][]));
+    }
+
+    private static ImplPlayer mockPlayer(int maxPendingBlobs) {
+        ImplPlayer player = mock(ImplPlayer.class, RETURNS_DEEP_STUBS);
+        when(player.getServer().getConfig().getClientChunkCacheMaxPendingBlobs()).thenReturn(maxPendingBlobs);
+        return player;
+    }
+
+}
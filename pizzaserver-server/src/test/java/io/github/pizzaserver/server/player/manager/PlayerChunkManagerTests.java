@@ -0,0 +1,125 @@
+package io.github.pizzaserver.server.player.manager;
+
+import com.nukkitx.math.vector.Vector3i;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.data.SubChunkData;
+import com.nukkitx.protocol.bedrock.data.SubChunkRequestResult;
+import com.nukkitx.protocol.bedrock.packet.SubChunkPacket;
+import com.nukkitx.protocol.bedrock.packet.SubChunkRequestPacket;
+import io.github.pizzaserver.api.level.world.data.Dimension;
+import io.github.pizzaserver.server.level.processing.LevelChunkProcessorManager;
+import io.github.pizzaserver.server.level.processing.requests.SubChunkRequest;
+import io.github.pizzaserver.server.level.world.ImplWorld;
+import io.github.pizzaserver.server.level.world.chunks.ImplChunk;
+import io.github.pizzaserver.server.player.ImplPlayer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class PlayerChunkManagerTests {
+
+    @Test
+    public void subChunkRequestsShouldBeHandledByTheChunkProcessors() {
+        ImplPlayer player = mock(ImplPlayer.class, RETURNS_DEEP_STUBS);
+        ImplWorld world = mock(ImplWorld.class, RETURNS_DEEP_STUBS);
+        LevelChunkProcessorManager processorManager = mock(LevelChunkProcessorManager.class);
+        when(player.getWorld()).thenReturn(world);
+        when(world.getLevel().getLevelManager().getProcessorManager()).thenReturn(processorManager);
+
+        SubChunkRequestPacket requestPacket = new SubChunkRequestPacket();
+        requestPacket.setSubChunkPosition(Vector3i.from(2, 1, 3));
+        new PlayerChunkManager(player).onSubChunkRequest(requestPacket);
+
+        // Nothing is serialized on the thread that handled the packet
+        verify(player, never()).sendPacket(any());
+        ArgumentCaptor<SubChunkRequest> request = ArgumentCaptor.forClass(SubChunkRequest.class);
+        verify(processorManager).addRequest(request.capture());
+        assertEquals(2, request.getValue().getX());
+        assertEquals(3, request.getValue().getZ());
+    }
+
+    @Test
+    public void singleSubChunkRequestsShouldBeAnsweredInThePacket() throws IOException {
+        byte[] data = new byte[]{ 1, 2, 3 };
+        ImplPlayer player = mockPlayer();
+        ImplChunk chunk = mock(ImplChunk.class);
+        when(chunk.getSubChunkPayload(any(), eq(1))).thenReturn(data);
+        when(player.getWorld().getChunk(2, 3, false)).thenReturn(chunk);
+
+        // Clients before v503 only send the position of the sub chunk they need
+        SubChunkRequestPacket requestPacket = new SubChunkRequestPacket();
+        requestPacket.setDimension(Dimension.OVERWORLD.ordinal());
+        requestPacket.setSubChunkPosition(Vector3i.from(2, 1, 3));
+        SubChunkPacket subChunkPacket = sendSubChunks(player, requestPacket);
+
+        assertEquals(Vector3i.from(2, 1, 3), subChunkPacket.getSubChunkPosition());
+        assertEquals(SubChunkRequestResult.SUCCESS, subChunkPacket.getResult());
+        assertArrayEquals(data, subChunkPacket.getData());
+        assertTrue(subChunkPacket.getSubChunks().isEmpty());
+    }
+
+    @Test
+    public void batchedSubChunkRequestsShouldAnswerEveryOffset() throws IOException {
+        byte[] data = new byte[]{ 1, 2, 3 };
+        ImplPlayer player = mockPlayer();
+        ImplChunk chunk = mock(ImplChunk.class);
+        when(chunk.getSubChunkPayload(any(), eq(0))).thenReturn(data);
+        when(chunk.getSubChunkPayload(any(), eq(1))).thenReturn(null);
+        when(player.getWorld().getChunk(2, 3, false)).thenReturn(chunk);
+
+        SubChunkRequestPacket requestPacket = new SubChunkRequestPacket();
+        requestPacket.setDimension(Dimension.OVERWORLD.ordinal());
+        requestPacket.setSubChunkPosition(Vector3i.from(2, 0, 3));
+        requestPacket.getPositionOffsets().add(Vector3i.from(0, 0, 0));
+        requestPacket.getPositionOffsets().add(Vector3i.from(0, 1, 0));
+        requestPacket.getPositionOffsets().add(Vector3i.from(1, 0, 0));
+        requestPacket.getPositionOffsets().add(Vector3i.from(0, 20, 0));
+        SubChunkPacket subChunkPacket = sendSubChunks(player, requestPacket);
+
+        assertEquals(4, subChunkPacket.getSubChunks().size());
+        SubChunkData subChunk = subChunkPacket.getSubChunks().get(0);
+        assertEquals(SubChunkRequestResult.SUCCESS, subChunk.getResult());
+        assertArrayEquals(data, subChunk.getData());
+        assertEquals(SubChunkRequestResult.SUCCESS_ALL_AIR, subChunkPacket.getSubChunks().get(1).getResult());
+        // Chunks that are not loaded are not loaded just for the request
+        assertEquals(SubChunkRequestResult.CHUNK_NOT_FOUND, subChunkPacket.getSubChunks().get(2).getResult());
+        assertEquals(SubChunkRequestResult.INDEX_OUT_OF_BOUNDS, subChunkPacket.getSubChunks().get(3).getResult());
+        verify(player.getWorld(), never()).getChunk(anyInt(), anyInt());
+    }
+
+    @Test
+    public void subChunksOfAnotherDimensionShouldNotBeSent() {
+        ImplPlayer player = mockPlayer();
+
+        SubChunkRequestPacket requestPacket = new SubChunkRequestPacket();
+        requestPacket.setDimension(Dimension.NETHER.ordinal());
+        requestPacket.setSubChunkPosition(Vector3i.from(2, 1, 3));
+        SubChunkPacket subChunkPacket = sendSubChunks(player, requestPacket);
+
+        assertEquals(SubChunkRequestResult.INVALID_DIMENSION, subChunkPacket.getResult());
+        verify(player.getWorld(), never()).getChunk(anyInt(), anyInt(), anyBoolean());
+    }
+
+    private static ImplPlayer mockPlayer() {
+        ImplPlayer player = mock(ImplPlayer.class, RETURNS_DEEP_STUBS);
+        ImplWorld world = mock(ImplWorld.class);
+        when(world.getDimension()).thenReturn(Dimension.OVERWORLD);
+        when(player.getWorld()).thenReturn(world);
+        return player;
+    }
+
+    private static SubChunkPacket sendSubChunks(ImplPlayer player, SubChunkRequestPacket requestPacket) {
+        new PlayerChunkManager(player).sendSubChunks(new SubChunkRequest(player, requestPacket));
+
+        ArgumentCaptor<BedrockPacket> sentPacket = ArgumentCaptor.forClass(BedrockPacket.class);
+        verify(player).sendPacket(sentPacket.capture());
+        return (SubChunkPacket) sentPacket.getValue();
+    }
+
+}
@@ -29,6 +29,14 @@ public interface BedrockLevel extends Closeable {
      */
     void setLevelData(LevelData data) throws IOException;
 
+    /**
+     * Returns if changes to this level are discarded instead of being written to its file.
+     * @return if the level is read only
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+
     /**
      * Retrieve the file/directory this level was created from.
      * @return the file
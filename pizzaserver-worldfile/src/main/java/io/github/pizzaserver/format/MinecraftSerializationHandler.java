@@ -1,6 +1,7 @@
 package io.github.pizzaserver.format;
 
 import com.nukkitx.nbt.NbtMap;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
 
 /**
  * Used for network serialization of chunks/subchunks.
@@ -15,6 +16,15 @@ public interface MinecraftSerializationHandler {
      */
     int getBlockRuntimeId(String name, NbtMap states);
 
+    /**
+     * Resolves to the runtime id of a block palette entry.
+     * @param entry the palette entry
+     * @return runtime id of the block
+     */
+    default int getBlockRuntimeId(BlockPaletteEntry entry) {
+        return this.getBlockRuntimeId(entry.getId(), entry.getState());
+    }
+
     /**
      * Resolves disk block entity NBT to network block entity NBT.
      * @param diskBlockEntityNBT disk NBT
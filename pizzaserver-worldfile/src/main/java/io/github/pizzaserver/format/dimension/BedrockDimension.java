@@ -4,6 +4,7 @@ import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
 import io.github.pizzaserver.format.provider.BedrockProvider;
 
 import java.io.IOException;
+import java.util.Collection;
 
 public class BedrockDimension {
 
@@ -20,8 +21,16 @@ public class BedrockDimension {
         return this.provider.getChunk(this.dimensionId, x, z);
     }
 
+    public BedrockChunk getChunk(int x, int z, boolean loadSubChunks) throws IOException {
+        return this.provider.getChunk(this.dimensionId, x, z, loadSubChunks);
+    }
+
     public void saveChunk(BedrockChunk chunk) throws IOException {
         this.provider.saveChunk(chunk);
     }
 
+    public void saveChunks(Collection<BedrockChunk> chunks) throws IOException {
+        this.provider.saveChunks(chunks);
+    }
+
 }
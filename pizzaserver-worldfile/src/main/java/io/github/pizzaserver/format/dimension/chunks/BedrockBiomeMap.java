@@ -9,6 +9,8 @@ public class BedrockBiomeMap {
 
     private final Map<Integer, BedrockSubChunkBiomeMap> subChunkBiomes = new HashMap<>();
 
+    private boolean dirty;
+
 
     /**
      * Retrieve a sub chunk biome map if one exists. Otherwise return null
@@ -27,10 +29,39 @@ public class BedrockBiomeMap {
      */
     public void setSubChunk(int subChunk, BedrockSubChunkBiomeMap biomeMap) {
         this.subChunkBiomes.put(subChunk, biomeMap);
+        this.dirty = true;
     }
 
     public List<BedrockSubChunkBiomeMap> getSubChunks() {
         return new ArrayList<>(this.subChunkBiomes.values());
     }
 
+    /**
+     * Returns if any biome was changed since this biome map was last saved.
+     * @return if this biome map needs to be saved
+     */
+    public boolean isDirty() {
+        if (this.dirty) {
+            return true;
+        }
+
+        for (BedrockSubChunkBiomeMap subChunkBiomeMap : this.subChunkBiomes.values()) {
+            if (subChunkBiomeMap.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mark this biome map and all of its sub chunk biome maps as changed or saved.
+     * @param dirty if the biome map needs to be saved
+     */
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+        for (BedrockSubChunkBiomeMap subChunkBiomeMap : this.subChunkBiomes.values()) {
+            subChunkBiomeMap.setDirty(dirty);
+        }
+    }
+
 }
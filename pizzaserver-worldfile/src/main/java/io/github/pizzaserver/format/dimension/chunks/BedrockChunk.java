@@ -26,8 +26,18 @@ public class BedrockChunk {
     private final Map<Vector3i, NbtMap> blockEntities = new HashMap<>();
 
     private final Map<Integer, BedrockSubChunk> subChunks = new HashMap<>();
+    // Subchunks that have no record in the world file and are empty
+    private final Set<Integer> missingSubChunks = new HashSet<>();
     private final BedrockProvider chunkProvider;
 
+    // Changes made since the chunk was last saved
+    private boolean dataDirty;
+    private boolean entitiesDirty;
+    private boolean blockEntitiesDirty;
+
+    // If this chunk does not exist in the world file yet
+    private boolean virtual;
+
 
     public BedrockChunk(BedrockProvider chunkProvider, int dimension, int x, int z) {
         this.chunkProvider = chunkProvider;
@@ -61,11 +71,19 @@ public class BedrockChunk {
     }
 
     public boolean addEntity(NbtMap entityNBT) {
-        return this.entities.add(entityNBT);
+        if (this.entities.add(entityNBT)) {
+            this.entitiesDirty = true;
+            return true;
+        }
+        return false;
     }
 
     public boolean removeEntity(NbtMap entityNBT) {
-        return this.entities.remove(entityNBT);
+        if (this.entities.remove(entityNBT)) {
+            this.entitiesDirty = true;
+            return true;
+        }
+        return false;
     }
 
     public Map<Vector3i, NbtMap> getBlockEntities() {
@@ -92,10 +110,15 @@ public class BedrockChunk {
                 .putInt("y", y)
                 .putInt("z", z)
                 .build());
+        this.blockEntitiesDirty = true;
     }
 
     public boolean removeBlockEntity(int x, int y, int z) {
-        return this.blockEntities.remove(Vector3i.from(x, y, z)) != null;
+        if (this.blockEntities.remove(Vector3i.from(x, y, z)) != null) {
+            this.blockEntitiesDirty = true;
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -108,6 +131,7 @@ public class BedrockChunk {
 
     public void setHeightMap(BedrockHeightMap heightMap) {
         this.heightMap = heightMap;
+        this.dataDirty = true;
     }
 
     public BedrockBiomeMap getBiomeMap() {
@@ -116,6 +140,7 @@ public class BedrockChunk {
 
     public void setBiomeMap(BedrockBiomeMap biomeMap) {
         this.biomeMap = biomeMap;
+        this.dataDirty = true;
     }
 
     /**
@@ -126,6 +151,12 @@ public class BedrockChunk {
     public BedrockSubChunk getSubChunk(int index) throws IOException {
         if (this.subChunks.containsKey(index)) {
             return this.subChunks.get(index);
+        } else if (this.missingSubChunks.contains(index)) {
+            // There is nothing to read for subchunks that were never stored
+            BedrockSubChunk subChunk = new BedrockSubChunk();
+            this.subChunks.put(index, subChunk);
+
+            return subChunk;
         } else {
             BedrockSubChunk subChunk = this.chunkProvider.getSubChunk(this.getDimension(), this.getX(), this.getZ(), index);
             this.subChunks.putIfAbsent(index, subChunk);
@@ -134,4 +165,108 @@ public class BedrockChunk {
         }
     }
 
+    /**
+     * Mark a subchunk as not stored in the world file.
+     * Requesting the subchunk will then return an empty {@link BedrockSubChunk} without asking the provider for it.
+     * @param index the index of the subchunk
+     */
+    public void setSubChunkMissing(int index) {
+        this.missingSubChunks.add(index);
+    }
+
+    /**
+     * Set the {@link BedrockSubChunk} at an index of this chunk.
+     * @param index the index of the subchunk
+     * @param subChunk the subchunk
+     */
+    public void setSubChunk(int index, BedrockSubChunk subChunk) {
+        this.subChunks.put(index, subChunk);
+        subChunk.setDirty(true);
+    }
+
+    /**
+     * Retrieve the subchunks that changed since this chunk was last saved.
+     * Subchunks that were never loaded are not loaded by this method.
+     * @return map of subchunk index to subchunk
+     */
+    public Map<Integer, BedrockSubChunk> getDirtySubChunks() {
+        Map<Integer, BedrockSubChunk> dirtySubChunks = new HashMap<>();
+        for (Map.Entry<Integer, BedrockSubChunk> entry : this.subChunks.entrySet()) {
+            if (entry.getValue().isDirty()) {
+                dirtySubChunks.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return dirtySubChunks;
+    }
+
+    /**
+     * Returns if the height map or biomes changed since this chunk was last saved.
+     * @return if the height map and biomes need to be saved
+     */
+    public boolean isDataDirty() {
+        return this.dataDirty || this.heightMap.isDirty() || this.biomeMap.isDirty();
+    }
+
+    /**
+     * Returns if entities were added or removed since this chunk was last saved.
+     * @return if the entities need to be saved
+     */
+    public boolean areEntitiesDirty() {
+        return this.entitiesDirty;
+    }
+
+    /**
+     * Returns if block entities were added or removed since this chunk was last saved.
+     * @return if the block entities need to be saved
+     */
+    public boolean areBlockEntitiesDirty() {
+        return this.blockEntitiesDirty;
+    }
+
+    /**
+     * Returns if anything in this chunk changed since it was last saved.
+     * @return if the chunk needs to be saved
+     */
+    public boolean isDirty() {
+        if (this.isDataDirty() || this.areEntitiesDirty() || this.areBlockEntitiesDirty()) {
+            return true;
+        }
+
+        for (BedrockSubChunk subChunk : this.subChunks.values()) {
+            if (subChunk.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns if this chunk does not exist in the world file yet.
+     * Virtual chunks are only kept in memory until they are modified, after which the entire chunk is saved.
+     * @return if this chunk is virtual
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    public void setVirtual(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    /**
+     * Mark everything loaded in this chunk as changed or saved.
+     * @param dirty if the chunk needs to be saved
+     */
+    public void setDirty(boolean dirty) {
+        this.dataDirty = dirty;
+        this.entitiesDirty = dirty;
+        this.blockEntitiesDirty = dirty;
+        this.heightMap.setDirty(dirty);
+        this.biomeMap.setDirty(dirty);
+
+        for (BedrockSubChunk subChunk : this.subChunks.values()) {
+            subChunk.setDirty(dirty);
+        }
+    }
+
 }
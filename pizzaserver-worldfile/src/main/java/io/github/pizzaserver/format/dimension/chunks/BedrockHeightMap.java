@@ -7,6 +7,8 @@ public class BedrockHeightMap {
 
     private final int[] heightMap = new int[256];
 
+    private boolean dirty;
+
     /**
      * Retrieve the tallest block at a specific coordinate.
      * @param position The {@link Vector2i} that is representative of the coordinates in the chunk we need the height of.
@@ -49,6 +51,20 @@ public class BedrockHeightMap {
         Check.inclusiveBounds(z, 0, 15, "z");
 
         this.heightMap[getChunkPosIndex(x, z)] = newHeight;
+        this.dirty = true;
+    }
+
+    /**
+     * Returns if the height map was changed since it was last saved.
+     * Changes made directly to {@link #array()} are not tracked.
+     * @return if the height map needs to be saved
+     */
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
     }
 
     public int[] array() {
@@ -2,25 +2,30 @@ package io.github.pizzaserver.format.dimension.chunks.subchunk;
 
 import io.github.pizzaserver.format.dimension.chunks.subchunk.utils.Palette;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a 16x16x16 chunk of blocks
  * Subchunks holds block layers which go up to 255 as of sub chunk version 8.
+ * Layers are added by one thread at a time, but may be read by any thread without locking.
  */
 public class BedrockSubChunk {
 
-    private final List<BlockLayer> layers = new ArrayList<>();
+    // Replaced by a new array whenever a layer is added so that layers can be read by other threads without locking
+    private volatile BlockLayer[] layers = new BlockLayer[0];
+
+    private boolean dirty;
 
 
     /**
      * Retrieve all of the {@link BlockLayer}s of this subchunk.
+     * The list does not change if layers are added afterwards.
      * @return the {@link List} of {@link BlockLayer}s this subchunk holds.
      */
     public List<BlockLayer> getLayers() {
-        return Collections.unmodifiableList(this.layers);
+        return Collections.unmodifiableList(Arrays.asList(this.layers));
     }
 
     /**
@@ -30,14 +35,21 @@ public class BedrockSubChunk {
      * @return {@link BlockLayer}
      */
     public BlockLayer getLayer(int index) {
-        while (index >= this.getLayers().size()) {
+        BlockLayer[] layers = this.layers;
+        if (index < layers.length) {
+            return layers[index];
+        }
+
+        BlockLayer[] newLayers = Arrays.copyOf(layers, index + 1);
+        for (int i = layers.length; i <= index; i++) {
             Palette<BlockPaletteEntry> blockPalette = new Palette<>();
-            blockPalette.addEntry(new BlockPaletteEntry());    // ensure the palette has air
+            blockPalette.addEntry(BlockStateRegistry.AIR);    // ensure the palette has air
 
-            BlockLayer blockLayer = new BlockLayer(blockPalette);
-            this.addLayer(blockLayer);
+            // A layer of air does not change the sub chunk until a block is set in it
+            newLayers[i] = new BlockLayer(blockPalette);
         }
-        return this.layers.get(index);
+        this.layers = newLayers;
+        return newLayers[index];
     }
 
     /**
@@ -45,11 +57,42 @@ public class BedrockSubChunk {
      * @param layer The {@link BlockLayer} to add
      */
     public void addLayer(BlockLayer layer) {
-        this.layers.add(layer);
+        BlockLayer[] newLayers = Arrays.copyOf(this.layers, this.layers.length + 1);
+        newLayers[newLayers.length - 1] = layer;
+        this.layers = newLayers;
+        this.dirty = true;
+    }
+
+    /**
+     * Returns if this subchunk or any of its {@link BlockLayer}s changed since it was last saved.
+     * @return if this subchunk needs to be saved
+     */
+    public boolean isDirty() {
+        if (this.dirty) {
+            return true;
+        }
+
+        for (BlockLayer layer : this.layers) {
+            if (layer.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mark this subchunk and all of its {@link BlockLayer}s as changed or saved.
+     * @param dirty if the subchunk needs to be saved
+     */
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+        for (BlockLayer layer : this.layers) {
+            layer.setDirty(dirty);
+        }
     }
 
     public boolean isEmpty() {
-        return this.layers.size() == 0;
+        return this.layers.length == 0;
     }
 
 }
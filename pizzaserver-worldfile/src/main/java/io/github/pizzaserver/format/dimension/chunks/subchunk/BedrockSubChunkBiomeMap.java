@@ -8,6 +8,8 @@ public class BedrockSubChunkBiomeMap implements Cloneable {
     private Palette<Integer> palette;
     private int[] biomes = new int[4096];
 
+    private boolean dirty;
+
 
     public BedrockSubChunkBiomeMap(Palette<Integer> palette) {
         this.palette = palette;
@@ -56,6 +58,19 @@ public class BedrockSubChunkBiomeMap implements Cloneable {
     public void setBiomeAt(int x, int y, int z, int biome) {
         this.palette.addEntry(biome);
         this.biomes[getChunkPosIndex(x, y, z)] = biome;
+        this.dirty = true;
+    }
+
+    /**
+     * Returns if a biome in this map was changed since it was last saved.
+     * @return if this biome map needs to be saved
+     */
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
     }
 
     @Override
@@ -2,33 +2,122 @@ package io.github.pizzaserver.format.dimension.chunks.subchunk;
 
 import io.github.pizzaserver.format.dimension.chunks.subchunk.utils.Palette;
 
-import java.util.HashMap;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
 
 /**
  * A BlockLayer is a layer of the blocks in a {@link BedrockSubChunk}.
  * A layer holds the palette entry of each block
+ * The palette indexes are packed into words the same way they are stored on disk and sent over the network.
+ * A layer where every block is the same is uniform and only stores that block until a different block is set.
+ * Changes to a layer must not be made at the same time, however blocks can be read without locking through {@link #tryGetBlockEntryAt(int, int, int)}.
+ * Those reads only notice changes made between beginChange and endChange,
+ * so the palette and words must never be changed anywhere else.
  */
 public class BlockLayer {
 
+    // Bits per block supported by the game. Indexes are never split between words.
+    private static final int[] BITS_PER_BLOCK_SIZES = { 1, 2, 3, 4, 5, 6, 8, 16 };
+    private static final int[] UNIFORM_WORDS = new int[0];
+
+    // Only changed between beginChange and endChange
     private final Palette<BlockPaletteEntry> palette;
-    private final int[] blocks = new int[4096];
+
+    private int bitsPerBlock;
+    private int blocksPerWord;
+    private int indexMask;
+    private int[] words;
+
+    // The entry of every block if this layer is uniform, otherwise null
+    private BlockPaletteEntry uniformEntry;
+
+    private boolean dirty;
+
+    // Incremented before and after every change so that readers that do not lock can tell if the layer changed. Odd during a change.
+    private volatile int version;
 
 
     public BlockLayer(Palette<BlockPaletteEntry> palette) {
         this.palette = palette;
+        if (palette.size() == 0) {
+            palette.addEntry(BlockStateRegistry.AIR);
+        }
+
+        // Every block starts as the first palette entry
+        this.setUniform(palette.getEntry(0));
+    }
+
+    /**
+     * Create a block layer from packed palette indexes.
+     * @param palette palette the indexes refer to
+     * @param bitsPerBlock amount of bits each palette index takes up or 0 if every block is the first palette entry
+     * @param words the packed palette indexes
+     */
+    public BlockLayer(Palette<BlockPaletteEntry> palette, int bitsPerBlock, int[] words) {
+        if (bitsPerBlock == 0) {
+            if (words.length != 0 || palette.size() == 0) {
+                throw new IllegalArgumentException("A uniform block layer must have no words and a palette entry");
+            }
+
+            this.palette = palette;
+            this.setUniform(palette.getEntry(0));
+            return;
+        }
+        if (bitsPerBlock < 1 || bitsPerBlock > 16) {
+            throw new IllegalArgumentException("Unsupported bits per block: " + bitsPerBlock);
+        }
+        if (words.length != getWordCount(bitsPerBlock)) {
+            throw new IllegalArgumentException("Expected " + getWordCount(bitsPerBlock) + " words for " + bitsPerBlock + " bits per block but got " + words.length);
+        }
+
+        this.palette = palette;
+        if (palette.size() == 0) {
+            // Every 0 in the words is air
+            palette.addEntry(BlockStateRegistry.AIR);
+        }
+        this.setBitsPerBlock(bitsPerBlock);
+        this.words = words;
     }
 
     /**
      * Retrieve the {@link Palette} used for this layer.
+     * The palette must not be changed through this method as readers that do not lock would not notice the change.
+     * Use {@link #setBlockEntryAt(int, int, int, BlockPaletteEntry)} and {@link #resize()} instead.
      * @return the {@link Palette} used for this layer.
      */
     public Palette<BlockPaletteEntry> getPalette() {
         return this.palette;
     }
 
+    /**
+     * Returns if every block in this layer is the same block.
+     * Uniform layers do not store any words and are serialized with 0 bits per block.
+     * @return if this layer is uniform
+     */
+    public boolean isUniform() {
+        return this.uniformEntry != null;
+    }
+
+    /**
+     * Retrieve the amount of bits each block takes up in the words of this layer.
+     * @return bits per block or 0 if this layer is uniform
+     */
+    public int getBitsPerBlock() {
+        return this.bitsPerBlock;
+    }
+
+    /**
+     * Retrieve the packed palette indexes of this layer in the order they are serialized.
+     * The returned array is used by this layer and must not be modified.
+     * @return the words of this layer
+     */
+    public int[] getWords() {
+        return this.words;
+    }
+
     /**
      * Retrieve the {@link BlockPaletteEntry} of a block at the given coordinates.
      * @param x x coordinate
@@ -37,12 +126,50 @@ public class BlockLayer {
      * @return the {@link BlockPaletteEntry} of the block at the coordinates
      */
     public BlockPaletteEntry getBlockEntryAt(int x, int y, int z) {
+        if (this.uniformEntry != null) {
+            return this.uniformEntry;
+        }
+
         if (this.palette.size() == 0) {
-            // if the palette is empty, then add an air entry in order to make this.blocks accurately return air for all 0s.
-            this.palette.addEntry(new BlockPaletteEntry());
+            // if the palette is empty, then add an air entry in order to make this.words accurately return air for all 0s.
+            this.beginChange();
+            try {
+                this.palette.addEntry(BlockStateRegistry.AIR);
+            } finally {
+                this.endChange();
+            }
+        }
+
+        return this.palette.getEntry(this.getPaletteIndexAt(getBlockIndex(x, y, z)));
+    }
+
+    /**
+     * Retrieve the {@link BlockPaletteEntry} of a block at the given coordinates without waiting for changes to this layer.
+     * Unlike {@link #getBlockEntryAt(int, int, int)}, this can be called while another thread is changing the layer.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param z z coordinate
+     * @return the {@link BlockPaletteEntry} of the block or null if the layer changed while it was being read
+     */
+    public BlockPaletteEntry tryGetBlockEntryAt(int x, int y, int z) {
+        int version = this.version;
+        if ((version & 1) != 0) {
+            return null;
+        }
+
+        BlockPaletteEntry entry;
+        try {
+            entry = this.uniformEntry;
+            if (entry == null) {
+                entry = this.palette.getEntry(this.getPaletteIndexAt(getBlockIndex(x, y, z)));
+            }
+        } catch (RuntimeException exception) {
+            // The fields were read in the middle of a change
+            return null;
         }
 
-        return this.palette.getEntry(this.blocks[getBlockIndex(x, y, z)]);
+        VarHandle.acquireFence();
+        return this.version == version ? entry : null;
     }
 
     /**
@@ -53,47 +180,260 @@ public class BlockLayer {
      * @param entry new entry to set the block to
      */
     public void setBlockEntryAt(int x, int y, int z, BlockPaletteEntry entry) {
+        if (this.uniformEntry != null && this.uniformEntry.equals(entry)) {
+            return;
+        }
+
+        this.beginChange();
+        try {
+            this.setPaletteEntryAt(getBlockIndex(x, y, z), entry);
+        } finally {
+            this.endChange();
+        }
+        this.dirty = true;
+    }
+
+    private void setPaletteEntryAt(int blockIndex, BlockPaletteEntry entry) {
         if (this.palette.size() == 0) {
-            // If the palette is empty, then add an air entry to make every 0 in this.blocks return air.
-            // Otherwise, when this method calls this.palette.add(entry), every 0 in this.blocks will be assigned that block.
-            this.palette.addEntry(new BlockPaletteEntry());
+            // If the palette is empty, then add an air entry to make every 0 in this.words return air.
+            // Otherwise, when this method calls this.palette.add(entry), every 0 in this.words will be assigned that block.
+            this.palette.addEntry(BlockStateRegistry.AIR);
         }
 
         this.palette.addEntry(entry);
-        this.blocks[getBlockIndex(x, y, z)] = this.palette.getPaletteIndex(entry);
+        int paletteIndex = this.palette.getPaletteIndex(entry);
+        if (paletteIndex >= 1 << BITS_PER_BLOCK_SIZES[BITS_PER_BLOCK_SIZES.length - 1]) {
+            // Entries that are no longer used have to be removed before the new entry fits
+            this.palette.removeEntry(entry);
+            this.removeUnusedEntries();
+            this.palette.addEntry(entry);
+            paletteIndex = this.palette.getPaletteIndex(entry);
+        }
+
+        if (this.uniformEntry != null) {
+            this.expand();
+        }
+        if (paletteIndex > this.indexMask) {
+            this.repack(getBitsPerBlockFor(paletteIndex), null);
+        }
+
+        this.setPaletteIndexAt(blockIndex, paletteIndex);
+    }
+
+    /**
+     * Returns if a block in this layer was changed since this layer was last saved.
+     * @return if this layer needs to be saved
+     */
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
     }
 
     /**
      * Resize modifies the block layer values and removes unused block palette values.
+     * The bits per block are shrunk to the least amount needed for the remaining palette
+     * and layers where every block is the same become uniform.
      */
     public void resize() {
+        this.beginChange();
+        try {
+            this.removeUnusedEntries();
+        } finally {
+            this.endChange();
+        }
+    }
+
+    private void removeUnusedEntries() {
+        if (this.uniformEntry != null) {
+            this.retainOnly(this.uniformEntry);
+            return;
+        }
+
+        if (this.palette.size() == 0) {
+            this.palette.addEntry(BlockStateRegistry.AIR);
+        }
+
         // Get all the palette indexes being used
-        Map<Integer, BlockPaletteEntry> usedEntries = new HashMap<>();
-        for (int paletteIndex : this.blocks) {
-            usedEntries.put(paletteIndex, this.palette.getEntry(paletteIndex));
+        boolean[] usedIndexes = new boolean[this.indexMask + 1];
+        int usedIndexCount = 0;
+        for (int blockIndex = 0; blockIndex < 4096; blockIndex++) {
+            int paletteIndex = this.getPaletteIndexAt(blockIndex);
+            if (!usedIndexes[paletteIndex]) {
+                usedIndexes[paletteIndex] = true;
+                usedIndexCount++;
+            }
+        }
+
+        if (usedIndexCount == 1) {
+            // Every block is the same, so no words are needed and air no longer has to be kept in the palette
+            BlockPaletteEntry entry = this.getBlockEntryAt(0, 0, 0);
+            this.setUniform(entry);
+            this.retainOnly(entry);
+            return;
+        }
+
+        BlockPaletteEntry[] oldEntries = new BlockPaletteEntry[usedIndexes.length];
+        for (int paletteIndex = 0; paletteIndex < oldEntries.length; paletteIndex++) {
+            oldEntries[paletteIndex] = this.palette.getEntry(paletteIndex);
         }
 
         // Remove unused palette entries
+        boolean removedEntries = false;
         Iterator<BlockPaletteEntry> entryIterator = new HashSet<>(this.palette.getEntries()).iterator();
         while (entryIterator.hasNext()) {
             BlockPaletteEntry entry = entryIterator.next();
             int paletteIndex = this.palette.getPaletteIndex(entry);
 
             // Air occupies the first element of the block palette and CANNOT be removed or else empty elements of
-            // this.blocks will not resolve to air. Any other palette entry can be removed.
-            if (!usedEntries.containsKey(paletteIndex) && !entry.getId().equals(BlockPaletteEntry.AIR_ID)) {
+            // this.words will not resolve to air. Any other palette entry can be removed.
+            boolean used = paletteIndex < usedIndexes.length && usedIndexes[paletteIndex];
+            if (!used && !entry.getId().equals(BlockPaletteEntry.AIR_ID)) {
                 entryIterator.remove();
                 this.palette.removeEntry(entry);
+                removedEntries = true;
             }
         }
 
         // Shift entries in the palette as far down as possible
         this.palette.resize();
 
+        int bitsPerBlock = getBitsPerBlockFor(Math.max(this.palette.size() - 1, 0));
+        if (!removedEntries && bitsPerBlock == this.bitsPerBlock) {
+            return;
+        }
+
         // Update our blocks with the new palette indexes
-        for (int i = 0; i < this.blocks.length; i++) {
-            this.blocks[i] = this.palette.getPaletteIndex(usedEntries.get(this.blocks[i]));
+        int[] newIndexes = new int[oldEntries.length];
+        for (int paletteIndex = 0; paletteIndex < oldEntries.length; paletteIndex++) {
+            if (usedIndexes[paletteIndex]) {
+                newIndexes[paletteIndex] = this.palette.getPaletteIndex(oldEntries[paletteIndex]);
+            }
+        }
+        this.repack(bitsPerBlock, newIndexes);
+    }
+
+    /**
+     * Allocate the words of a uniform layer so that different blocks can be set in it.
+     */
+    private void expand() {
+        int paletteIndex = this.palette.getPaletteIndex(this.uniformEntry);
+        this.uniformEntry = null;
+        this.setBitsPerBlock(getBitsPerBlockFor(paletteIndex));
+        this.words = new int[getWordCount(this.bitsPerBlock)];
+
+        if (paletteIndex != 0) {
+            int word = 0;
+            for (int block = 0; block < this.blocksPerWord; block++) {
+                word |= paletteIndex << (block * this.bitsPerBlock);
+            }
+            Arrays.fill(this.words, word);
+        }
+    }
+
+    /**
+     * Remove every palette entry except for one.
+     * @param entry the entry to keep
+     */
+    private void retainOnly(BlockPaletteEntry entry) {
+        if (this.palette.size() == 1 && entry.equals(this.palette.getEntry(0))) {
+            return;
+        }
+
+        for (BlockPaletteEntry paletteEntry : new ArrayList<>(this.palette.getEntries())) {
+            if (!paletteEntry.equals(entry)) {
+                this.palette.removeEntry(paletteEntry);
+            }
         }
+        this.palette.resize();
+    }
+
+    private int getPaletteIndexAt(int blockIndex) {
+        int shift = (blockIndex % this.blocksPerWord) * this.bitsPerBlock;
+        return (this.words[blockIndex / this.blocksPerWord] >>> shift) & this.indexMask;
+    }
+
+    private void setPaletteIndexAt(int blockIndex, int paletteIndex) {
+        int wordIndex = blockIndex / this.blocksPerWord;
+        int shift = (blockIndex % this.blocksPerWord) * this.bitsPerBlock;
+        this.words[wordIndex] = (this.words[wordIndex] & ~(this.indexMask << shift)) | (paletteIndex << shift);
+    }
+
+    /**
+     * Move every palette index into new words using a different amount of bits per block.
+     * @param bitsPerBlock new bits per block
+     * @param newIndexes the new palette index of each old palette index or null if the indexes stay the same
+     */
+    private void repack(int bitsPerBlock, int[] newIndexes) {
+        int[] oldWords = this.words;
+        int oldBlocksPerWord = this.blocksPerWord;
+        int oldBitsPerBlock = this.bitsPerBlock;
+        int oldIndexMask = this.indexMask;
+
+        this.setBitsPerBlock(bitsPerBlock);
+        this.words = new int[getWordCount(bitsPerBlock)];
+
+        int blockIndex = 0;
+        for (int oldWord : oldWords) {
+            for (int block = 0; block < oldBlocksPerWord && blockIndex < 4096; block++) {
+                int paletteIndex = (oldWord >>> (block * oldBitsPerBlock)) & oldIndexMask;
+                this.setPaletteIndexAt(blockIndex++, newIndexes == null ? paletteIndex : newIndexes[paletteIndex]);
+            }
+        }
+    }
+
+    /**
+     * Mark the start of a change to this layer.
+     * Readers that do not lock discard anything they read until {@link #endChange()} is called.
+     */
+    private void beginChange() {
+        this.version = this.version + 1;
+        VarHandle.storeStoreFence();
+    }
+
+    private void endChange() {
+        this.version = this.version + 1;
+    }
+
+    private void setUniform(BlockPaletteEntry entry) {
+        this.uniformEntry = entry;
+        this.bitsPerBlock = 0;
+        this.blocksPerWord = 0;
+        this.indexMask = 0;
+        this.words = UNIFORM_WORDS;
+    }
+
+    private void setBitsPerBlock(int bitsPerBlock) {
+        this.bitsPerBlock = bitsPerBlock;
+        this.blocksPerWord = 32 / bitsPerBlock;
+        this.indexMask = (1 << bitsPerBlock) - 1;
+    }
+
+    /**
+     * Retrieve the least bits per block supported by the game that can hold a palette index.
+     * @param paletteIndex the highest palette index to store
+     * @return bits per block
+     */
+    private static int getBitsPerBlockFor(int paletteIndex) {
+        int requiredBits = 32 - Integer.numberOfLeadingZeros(paletteIndex);
+        for (int bitsPerBlock : BITS_PER_BLOCK_SIZES) {
+            if (bitsPerBlock >= requiredBits) {
+                return bitsPerBlock;
+            }
+        }
+        throw new IllegalArgumentException("Palette index " + paletteIndex + " cannot be stored in a block layer");
+    }
+
+    /**
+     * Retrieve the amount of words needed to store every block at a certain amount of bits per block.
+     * @param bitsPerBlock bits per block
+     * @return amount of words
+     */
+    public static int getWordCount(int bitsPerBlock) {
+        int blocksPerWord = 32 / bitsPerBlock;
+        return (4096 + blocksPerWord - 1) / blocksPerWord;
     }
 
     private static int getBlockIndex(int x, int y, int z) {
@@ -4,6 +4,7 @@ import com.nukkitx.nbt.NbtMap;
 
 /**
  * These entries represent a block state that exists within the block palette.
+ * Entries should be retrieved from the {@link BlockStateRegistry} so that every block state is only represented by one entry.
  */
 public class BlockPaletteEntry {
 
@@ -12,12 +13,20 @@ public class BlockPaletteEntry {
     private final String id;
     private final int version;
     private final NbtMap state;
+    private final int stateId;
+    private final int hashCode;
 
 
     public BlockPaletteEntry(String id, int version, NbtMap state) {
+        this(id, version, state, -1);
+    }
+
+    BlockPaletteEntry(String id, int version, NbtMap state, int stateId) {
         this.id = id;
         this.version = version;
         this.state = state;
+        this.stateId = stateId;
+        this.hashCode = 47 * id.hashCode() + 47 * state.hashCode();
     }
 
     public BlockPaletteEntry() {
@@ -49,14 +58,31 @@ public class BlockPaletteEntry {
         return this.state;
     }
 
+    /**
+     * Dense id of the block state assigned by the {@link BlockStateRegistry}.
+     * @return the state id or -1 if this entry was not retrieved from the {@link BlockStateRegistry}
+     */
+    public int getStateId() {
+        return this.stateId;
+    }
+
     @Override
     public int hashCode() {
-        return 47 * this.getId().hashCode() + 47 * this.getState().hashCode();
+        return this.hashCode;
     }
 
     @Override
     public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
         if (obj instanceof BlockPaletteEntry entry) {
+            if (this.stateId != -1 && entry.stateId != -1) {
+                // Interned entries of the same block state are the same object
+                return false;
+            }
+
             return entry.getState().equals(this.getState())
                     && entry.getId().equals(this.getId());
         }
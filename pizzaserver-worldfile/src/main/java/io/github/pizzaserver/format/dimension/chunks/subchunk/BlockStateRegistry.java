@@ -0,0 +1,85 @@
+package io.github.pizzaserver.format.dimension.chunks.subchunk;
+
+import com.nukkitx.nbt.NbtMap;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the block states used by palettes.
+ * Every block id and state pair is represented by a single {@link BlockPaletteEntry} with a dense state id,
+ * which allows palettes to compare entries by reference and protocol versions to translate them with an array.
+ */
+public class BlockStateRegistry {
+
+    // Keys are entries that were not interned, which compare by block id and state
+    private static final Map<BlockPaletteEntry, BlockPaletteEntry> ENTRIES = new ConcurrentHashMap<>();
+
+    // Guards registering new entries
+    private static final Object LOCK = new Object();
+    private static volatile BlockPaletteEntry[] entriesByStateId = new BlockPaletteEntry[1024];
+    private static volatile int size;
+
+    public static final BlockPaletteEntry AIR = getEntry(BlockPaletteEntry.AIR_ID, 0, NbtMap.EMPTY);
+
+
+    private BlockStateRegistry() {}
+
+    /**
+     * Retrieve the interned entry of a block state, registering it if it was not seen before.
+     * @param id id of the block
+     * @param version version of the block state which is only used if the state was not registered yet
+     * @param state {@link NbtMap} of the block state data
+     * @return the interned {@link BlockPaletteEntry}
+     */
+    public static BlockPaletteEntry getEntry(String id, int version, NbtMap state) {
+        BlockPaletteEntry lookupEntry = new BlockPaletteEntry(id, version, state);
+        BlockPaletteEntry entry = ENTRIES.get(lookupEntry);
+        if (entry != null) {
+            return entry;
+        }
+
+        synchronized (LOCK) {
+            entry = ENTRIES.get(lookupEntry);
+            if (entry == null) {
+                int stateId = size;
+                entry = new BlockPaletteEntry(id, version, state, stateId);
+
+                BlockPaletteEntry[] entries = entriesByStateId;
+                if (stateId == entries.length) {
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                entries[stateId] = entry;
+                entriesByStateId = entries;
+                size = stateId + 1;
+
+                ENTRIES.put(lookupEntry, entry);
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Retrieve an interned entry by its state id.
+     * @param stateId state id of the entry
+     * @return the {@link BlockPaletteEntry} or null if no entry has the state id
+     */
+    public static BlockPaletteEntry getEntry(int stateId) {
+        // The size is read first as it is written after the entries are
+        if (stateId < 0 || stateId >= size) {
+            return null;
+        }
+        return entriesByStateId[stateId];
+    }
+
+    /**
+     * Retrieve the amount of block states registered.
+     * Every state id is less than this.
+     * @return amount of registered block states
+     */
+    public static int size() {
+        return size;
+    }
+
+}
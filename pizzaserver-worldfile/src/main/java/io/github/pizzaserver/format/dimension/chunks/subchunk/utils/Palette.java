@@ -1,15 +1,35 @@
 package io.github.pizzaserver.format.dimension.chunks.subchunk.utils;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-
-import java.util.Collections;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+/**
+ * Maps entries to the indexes stored in block layers and biome maps.
+ * Entries are stored in an array by their index and looked up by entry through an open addressing hash table of indexes,
+ * so neither direction boxes the index.
+ * @param <T> entry type
+ */
 public class Palette<T> implements Cloneable {
 
-    private BiMap<Integer, T> entries = HashBiMap.create();
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_SLOT = -1;
+
+    // index : entry. Removed entries leave a null gap until the palette is resized.
+    private Object[] entries = new Object[INITIAL_CAPACITY];
+    // index : spread hash of the entry. Reused when rehashing.
+    private int[] entryHashes = new int[INITIAL_CAPACITY];
     private int paletteEntries = 0;
+    private int size = 0;
+
+    // Hash table of palette indexes. Each slot holds the index of the entry that hashed to it or EMPTY_SLOT
+    // and the hash of that entry so that probing does not need to look at the entry itself.
+    private int[] indexTable = newIndexTable(INITIAL_CAPACITY * 2);
+    private int[] slotHashes = new int[INITIAL_CAPACITY * 2];
+
+    private Set<T> entrySet;
 
 
     /**
@@ -17,8 +37,29 @@ public class Palette<T> implements Cloneable {
      * @param entry the entry to be added
      */
     public void addEntry(T entry) {
-        if (!this.entries.inverse().containsKey(entry)) {
-            this.entries.put(this.paletteEntries++, entry);
+        if (this.size == 1 && this.paletteEntries == 1 && isSameEntry(this.entries[0], entry)) {
+            return;
+        }
+
+        int hash = hash(entry);
+        int slot = this.findSlot(entry, hash);
+        if (this.indexTable[slot] != EMPTY_SLOT) {
+            return;
+        }
+
+        if (this.paletteEntries == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+            this.entryHashes = Arrays.copyOf(this.entryHashes, this.entryHashes.length * 2);
+        }
+        this.entries[this.paletteEntries] = entry;
+        this.entryHashes[this.paletteEntries] = hash;
+        this.indexTable[slot] = this.paletteEntries++;
+        this.slotHashes[slot] = hash;
+        this.size++;
+
+        // Keep the table at most half full so that probes stay short
+        if (this.size * 2 > this.indexTable.length) {
+            this.rehash(this.indexTable.length * 2);
         }
     }
 
@@ -27,15 +68,18 @@ public class Palette<T> implements Cloneable {
      * @return length of the palette
      */
     public int size() {
-        return this.entries.size();
+        return this.size;
     }
 
     /**
      * Retrieve all of the current palette entries.
-     * @return set of all block palette entries in this palette
+     * @return set of all block palette entries in this palette ordered by their index
      */
     public Set<T> getEntries() {
-        return Collections.unmodifiableSet(this.entries.values());
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
     }
 
     /**
@@ -43,7 +87,15 @@ public class Palette<T> implements Cloneable {
      * @param entry the entry to remove
      */
     public void removeEntry(T entry) {
-        this.entries.inverse().remove(entry);
+        int slot = this.findSlot(entry, hash(entry));
+        int index = this.indexTable[slot];
+        if (index == EMPTY_SLOT) {
+            return;
+        }
+
+        this.entries[index] = null;
+        this.size--;
+        this.deleteSlot(slot);
     }
 
     /**
@@ -51,8 +103,12 @@ public class Palette<T> implements Cloneable {
      * @param index the index of the entry
      * @return the entry associated with that index
      */
+    @SuppressWarnings("unchecked")
     public T getEntry(int index) {
-        return this.entries.get(index);
+        if (index < 0 || index >= this.paletteEntries) {
+            return null;
+        }
+        return (T) this.entries[index];
     }
 
     /**
@@ -61,7 +117,16 @@ public class Palette<T> implements Cloneable {
      * @return the index associated with the entry
      */
     public int getPaletteIndex(T entry) {
-        return this.entries.inverse().get(entry);
+        // Palettes of sub chunks made of a single block do not need to hash the entry
+        if (this.size == 1 && this.paletteEntries == 1 && isSameEntry(this.entries[0], entry)) {
+            return 0;
+        }
+
+        int index = this.indexTable[this.findSlot(entry, hash(entry))];
+        if (index == EMPTY_SLOT) {
+            throw new IllegalArgumentException("The entry does not exist in this palette");
+        }
+        return index;
     }
 
     /**
@@ -69,28 +134,22 @@ public class Palette<T> implements Cloneable {
      * Unused palette entries are shifted.
      */
     public void resize() {
-        int resizeStartingIndex = -1;   // The first entry index that we need to relocate
-        for (int index = 0; index < this.paletteEntries; index++) {
-            if (!this.entries.containsKey(index)) {
-                resizeStartingIndex = index + 1;
-                break;
-            }
+        if (this.size == this.paletteEntries) {
+            return;
         }
 
-        if (resizeStartingIndex > -1) {
-            int oldTotalPaletteEntries = this.paletteEntries;
-            int freeIndexAt = resizeStartingIndex - 1;  // New entry position - incremented everytime we relocate a entry
-            for (int index = resizeStartingIndex; index < oldTotalPaletteEntries; index++) {
-                if (this.entries.containsKey(index)) {
-                    T entry = this.entries.remove(index);
-                    this.entries.put(freeIndexAt++, entry);
-                } else {
-                    // Another entry was removed
-                    this.paletteEntries--;
-                }
+        // Shift every entry down into the gaps left by removed entries while keeping their order
+        int freeIndexAt = 0;
+        for (int index = 0; index < this.paletteEntries; index++) {
+            Object entry = this.entries[index];
+            if (entry != null) {
+                this.entries[index] = null;
+                this.entryHashes[freeIndexAt] = this.entryHashes[index];
+                this.entries[freeIndexAt++] = entry;
             }
-            this.paletteEntries--;
         }
+        this.paletteEntries = freeIndexAt;
+        this.rehash(this.indexTable.length);
     }
 
     @Override
@@ -98,7 +157,11 @@ public class Palette<T> implements Cloneable {
     public Palette<T> clone() {
         try {
             Palette<T> clonedPalette = (Palette<T>) super.clone();
-            clonedPalette.entries = HashBiMap.create(this.entries);
+            clonedPalette.entries = this.entries.clone();
+            clonedPalette.entryHashes = this.entryHashes.clone();
+            clonedPalette.indexTable = this.indexTable.clone();
+            clonedPalette.slotHashes = this.slotHashes.clone();
+            clonedPalette.entrySet = null;
 
             return clonedPalette;
         } catch (CloneNotSupportedException exception) {
@@ -106,4 +169,122 @@ public class Palette<T> implements Cloneable {
         }
     }
 
+    /**
+     * Find the slot of the index table that holds the index of an entry.
+     * @param entry entry to look for
+     * @param hash spread hash of the entry
+     * @return the slot holding the entry's index or the empty slot the index would be stored in
+     */
+    private int findSlot(Object entry, int hash) {
+        int mask = this.indexTable.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int index = this.indexTable[slot];
+            if (index == EMPTY_SLOT || (this.slotHashes[slot] == hash && isSameEntry(this.entries[index], entry))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empty a slot of the index table and move back any indexes after it that could no longer be found otherwise.
+     * @param slot slot to empty
+     */
+    private void deleteSlot(int slot) {
+        int mask = this.indexTable.length - 1;
+        int emptySlot = slot;
+        int nextSlot = (slot + 1) & mask;
+        while (this.indexTable[nextSlot] != EMPTY_SLOT) {
+            int index = this.indexTable[nextSlot];
+            int idealSlot = this.slotHashes[nextSlot] & mask;
+
+            // Move the index back if the empty slot is between its ideal slot and its current slot
+            boolean canMove = emptySlot <= nextSlot
+                    ? idealSlot <= emptySlot || idealSlot > nextSlot
+                    : idealSlot <= emptySlot && idealSlot > nextSlot;
+            if (canMove) {
+                this.indexTable[emptySlot] = index;
+                this.slotHashes[emptySlot] = this.slotHashes[nextSlot];
+                emptySlot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & mask;
+        }
+        this.indexTable[emptySlot] = EMPTY_SLOT;
+    }
+
+    private void rehash(int capacity) {
+        this.indexTable = newIndexTable(capacity);
+        this.slotHashes = new int[capacity];
+        for (int index = 0; index < this.paletteEntries; index++) {
+            if (this.entries[index] != null) {
+                int slot = this.findSlot(this.entries[index], this.entryHashes[index]);
+                this.indexTable[slot] = index;
+                this.slotHashes[slot] = this.entryHashes[index];
+            }
+        }
+    }
+
+    private static int[] newIndexTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY_SLOT);
+        return table;
+    }
+
+    private static boolean isSameEntry(Object storedEntry, Object entry) {
+        return storedEntry == entry || (storedEntry != null && storedEntry.equals(entry));
+    }
+
+    private static int hash(Object entry) {
+        // Spread the hash so that entries with similar hash codes do not end up in neighbouring slots
+        return Integer.rotateLeft(entry.hashCode() * 0xcc9e2d51, 15) * 0x1b873593;
+    }
+
+
+    private class EntrySet extends AbstractSet<T> {
+
+        @Override
+        public int size() {
+            return Palette.this.size;
+        }
+
+        @Override
+        public boolean contains(Object entry) {
+            return entry != null && Palette.this.indexTable[Palette.this.findSlot(entry, hash(entry))] != EMPTY_SLOT;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+
+                private int index = this.findNext(0);
+
+                @Override
+                public boolean hasNext() {
+                    return this.index < Palette.this.paletteEntries;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    T entry = (T) Palette.this.entries[this.index];
+                    this.index = this.findNext(this.index + 1);
+                    return entry;
+                }
+
+                private int findNext(int index) {
+                    while (index < Palette.this.paletteEntries && Palette.this.entries[index] == null) {
+                        index++;
+                    }
+                    return index;
+                }
+
+            };
+        }
+
+    }
+
 }
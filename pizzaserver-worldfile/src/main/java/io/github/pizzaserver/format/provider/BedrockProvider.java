@@ -6,15 +6,35 @@ import io.github.pizzaserver.format.dimension.chunks.subchunk.BedrockSubChunk;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 
 public interface BedrockProvider extends Closeable {
 
     BedrockChunk getChunk(int dimension, int x, int z) throws IOException;
 
+    /**
+     * Retrieve a chunk.
+     * @param dimension dimension id
+     * @param x chunk x
+     * @param z chunk z
+     * @param loadSubChunks if every sub chunk should be read now instead of when it is first requested
+     * @return the chunk
+     * @throws IOException if the chunk failed to be read
+     */
+    BedrockChunk getChunk(int dimension, int x, int z, boolean loadSubChunks) throws IOException;
+
     BedrockSubChunk getSubChunk(int dimension, int x, int z, int subChunk) throws IOException;
 
     void saveChunk(BedrockChunk chunk) throws IOException;
 
+    /**
+     * Save many chunks at once.
+     * Providers may group the chunks together into fewer writes, but a chunk is never partially saved.
+     * @param chunks chunks to save
+     * @throws IOException if a chunk failed to be saved
+     */
+    void saveChunks(Collection<BedrockChunk> chunks) throws IOException;
+
     void saveSubChunk(int dimension, int x, int z, int subChunkIndex, BedrockSubChunk subChunk) throws IOException;
 
     LevelData getLevelData() throws IOException;
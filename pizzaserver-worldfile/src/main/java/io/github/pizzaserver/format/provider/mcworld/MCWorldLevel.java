@@ -20,7 +20,8 @@ public class MCWorldLevel implements BedrockLevel {
 
     protected final File mcWorldDirectory;
     protected final MCWorldProvider provider;
-    protected LevelData levelData;
+    // Level data may be saved by another thread than the one reading it
+    protected volatile LevelData levelData;
 
 
     /**
@@ -28,6 +29,17 @@ public class MCWorldLevel implements BedrockLevel {
      * @param mcWorldDirectory Folder of the unzipped contents in the .mcworld file
      */
     public MCWorldLevel(File mcWorldDirectory) throws IOException {
+        this(mcWorldDirectory, false);
+    }
+
+    /**
+     * Read the contents in an exported Bedrock world file.
+     * A read only level never writes chunks or level data to the world file and discards any changes made to it instead.
+     * LevelDB may still update its own log and manifest files when the database is opened.
+     * @param mcWorldDirectory Folder of the unzipped contents in the .mcworld file
+     * @param readOnly if the level should be opened as read only
+     */
+    public MCWorldLevel(File mcWorldDirectory, boolean readOnly) throws IOException {
         this.mcWorldDirectory = mcWorldDirectory;
 
         File levelDatFile = new File(this.mcWorldDirectory.getAbsolutePath(), LEVEL_DAT_PATH);
@@ -40,7 +52,7 @@ public class MCWorldLevel implements BedrockLevel {
             throw new FileNotFoundException("Could not find db directory");
         }
 
-        this.provider = new MCWorldProvider(levelDatFile, LevelDB.PROVIDER.open(dbDirectory, new Options().createIfMissing(true)));
+        this.provider = new MCWorldProvider(levelDatFile, LevelDB.PROVIDER.open(dbDirectory, new Options().createIfMissing(!readOnly)), readOnly);
         this.levelData = this.provider.getLevelData();
     }
 
@@ -52,6 +64,7 @@ public class MCWorldLevel implements BedrockLevel {
     @Override
     public void setLevelData(LevelData data) throws IOException {
         this.provider.saveLevelData(data);
+        this.levelData = data;
     }
 
     @Override
@@ -59,6 +72,11 @@ public class MCWorldLevel implements BedrockLevel {
         return this.levelData;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return this.provider.isReadOnly();
+    }
+
     @Override
     public File getFile() {
         return this.mcWorldDirectory;
@@ -11,47 +11,71 @@ import io.github.pizzaserver.format.dimension.chunks.subchunk.BedrockSubChunk;
 import io.github.pizzaserver.format.provider.BedrockProvider;
 import io.github.pizzaserver.format.provider.mcworld.data.ChunkKey;
 import io.github.pizzaserver.format.provider.mcworld.data.MCWorldChunkData;
+import io.github.pizzaserver.format.provider.mcworld.data.MCWorldChunkRecords;
 import io.github.pizzaserver.format.provider.mcworld.utils.MCWorldFormatUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBIterator;
+import org.iq80.leveldb.WriteBatch;
 
 import java.io.*;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 public class MCWorldProvider implements BedrockProvider {
 
     private static final int CHUNK_VERSION = 27;
 
+    // Max amount of chunks written together when saving many chunks at once.
+    // Keeps the memory used by a single batch bounded.
+    private static final int MAX_CHUNKS_PER_BATCH = 32;
+
     protected File levelFile;
     protected final DB database;
+    protected final boolean readOnly;
     private boolean closed;
 
 
     public MCWorldProvider(File levelFile, DB database) {
+        this(levelFile, database, false);
+    }
+
+    /**
+     * Create a provider for a world file.
+     * @param levelFile level.dat file
+     * @param database LevelDB database of the world
+     * @param readOnly if changes should be discarded instead of being written to the world
+     */
+    public MCWorldProvider(File levelFile, DB database, boolean readOnly) {
         this.levelFile = levelFile;
         this.database = database;
+        this.readOnly = readOnly;
     }
 
     @Override
     public BedrockChunk getChunk(int dimension, int x, int z) throws IOException {
+        return this.getChunk(dimension, x, z, false);
+    }
+
+    @Override
+    public BedrockChunk getChunk(int dimension, int x, int z, boolean loadSubChunks) throws IOException {
         if (this.isClosed()) {
             throw new IllegalStateException("Cannot retrieve chunk on closed provider.");
         }
+        MCWorldChunkRecords records = this.getChunkRecords(dimension, x, z, loadSubChunks);
+
         // Extract chunk version
-        byte chunkVersion = this.getChunkVersion(dimension, x, z);
+        byte chunkVersion = this.getChunkVersion(records.get(ChunkKey.VERSION));
 
         // Extract height map and biome data
-        MCWorldChunkData chunkDataPalette = this.getChunkData(dimension, x, z);
+        MCWorldChunkData chunkDataPalette = this.getChunkData(records.get(ChunkKey.DATA_3D), records.get(ChunkKey.DATA_2D));
 
         // Extract block entities within this chunk
-        Set<NbtMap> blockEntities = this.getBlockEntities(dimension, x, z);
+        Set<NbtMap> blockEntities = this.readNBTs(records.get(ChunkKey.BLOCK_ENTITIES));
 
         // Extract entities within this chunk
-        Set<NbtMap> entities = this.getEntities(dimension, x, z);
+        Set<NbtMap> entities = this.readNBTs(records.get(ChunkKey.ENTITIES));
 
         BedrockChunk chunk = new BedrockChunk(this, dimension, x, z);
         chunk.setVersion(chunkVersion);
@@ -66,9 +90,92 @@ public class MCWorldProvider implements BedrockProvider {
             chunk.addEntity(entityNBT);
         }
 
+        for (int subChunkIndex = -4; subChunkIndex < 20; subChunkIndex++) {
+            if (loadSubChunks) {
+                chunk.setSubChunk(subChunkIndex, this.readSubChunk(records.getSubChunk(subChunkIndex)));
+            } else if (!records.hasSubChunk(subChunkIndex)) {
+                // Sub chunks without a record are empty, so they never need to be read
+                chunk.setSubChunkMissing(subChunkIndex);
+            }
+        }
+
+        // Chunks that were never generated are not written until something in them changes
+        boolean virtual = records.get(ChunkKey.VERSION) == null && records.get(ChunkKey.DATA_3D) == null && records.get(ChunkKey.DATA_2D) == null;
+        chunk.setVirtual(virtual);
+
+        // Nothing has changed since the chunk was read
+        chunk.setDirty(false);
         return chunk;
     }
 
+    /**
+     * Read every record of a chunk in a single pass.
+     * All keys of a chunk share the same prefix and are next to each other in LevelDB,
+     * so one iterator seeked to the prefix is used instead of a separate lookup per key.
+     * @param dimension dimension id
+     * @param x chunk x
+     * @param z chunk z
+     * @param includeSubChunks if sub chunk records should be kept instead of only noting which sub chunks are stored
+     * @return the records of the chunk
+     * @throws IOException if the iterator failed to close
+     */
+    private MCWorldChunkRecords getChunkRecords(int dimension, int x, int z, boolean includeSubChunks) throws IOException {
+        byte[] prefix;
+        if (dimension == DimensionIds.OVERWORLD) {
+            prefix = ChunkKey.getLevelDBKeyPrefix(x, z);
+        } else {
+            prefix = ChunkKey.getLevelDBKeyPrefixWithDimension(x, z, dimension);
+        }
+
+        MCWorldChunkRecords records = new MCWorldChunkRecords();
+        try (DBIterator iterator = this.database.iterator()) {
+            iterator.seek(prefix);
+            while (iterator.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = iterator.next();
+                byte[] key = entry.getKey();
+                if (!startsWith(key, prefix)) {
+                    break;
+                }
+
+                // Overworld chunk keys are followed by keys of the same chunk coordinates in other dimensions, which are longer
+                int extraBytes = key.length - prefix.length;
+                if (extraBytes != 1 && extraBytes != 2) {
+                    continue;
+                }
+
+                ChunkKey chunkKey = ChunkKey.fromId(key[prefix.length]);
+                if (chunkKey == null) {
+                    continue;
+                }
+
+                if (extraBytes == 2) {
+                    if (chunkKey == ChunkKey.SUB_CHUNK_DATA) {
+                        if (includeSubChunks) {
+                            records.putSubChunk(key[prefix.length + 1], entry.getValue());
+                        } else {
+                            records.markSubChunk(key[prefix.length + 1]);
+                        }
+                    }
+                } else {
+                    records.put(chunkKey, entry.getValue());
+                }
+            }
+        }
+        return records;
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public BedrockSubChunk getSubChunk(int dimension, int x, int z, int subChunkIndex) throws IOException {
         if (this.isClosed()) {
@@ -82,79 +189,53 @@ public class MCWorldProvider implements BedrockProvider {
             subChunkKey = ChunkKey.SUB_CHUNK_DATA.getLevelDBKeyWithDimension(x, z, dimension, subChunkIndex);
         }
 
-        byte[] subChunkData = this.database.get(subChunkKey);
+        return this.readSubChunk(this.database.get(subChunkKey));
+    }
+
+    private BedrockSubChunk readSubChunk(byte[] subChunkData) throws IOException {
         if (subChunkData == null) {
-            subChunkData = new byte[]{ 8, 0 };
+            // Sub chunks that were never stored are empty
+            return new BedrockSubChunk();
         }
 
         ByteBuf buffer = Unpooled.wrappedBuffer(subChunkData);
         buffer.readerIndex(0);
 
         try {
-            return MCWorldFormatUtils.readSubChunk(buffer);
+            BedrockSubChunk subChunk = MCWorldFormatUtils.readSubChunk(buffer);
+            subChunk.setDirty(false);
+            return subChunk;
         } finally {
             buffer.release();
         }
     }
 
-    private byte getChunkVersion(int dimension, int x, int z) {
-        byte[] versionKey;
-        if (dimension == DimensionIds.OVERWORLD) {
-            versionKey = ChunkKey.VERSION.getLevelDBKey(x, z);
-        } else {
-            versionKey = ChunkKey.VERSION.getLevelDBKey(x, z, dimension);
-        }
-
-        byte[] versionData = this.database.get(versionKey);
+    private byte getChunkVersion(byte[] versionData) {
         if (versionData == null) {
-            versionData = new byte[] { (byte) CHUNK_VERSION };
-            this.database.put(versionKey, versionData);
+            // The version is written when the chunk is saved
+            return (byte) CHUNK_VERSION;
         }
 
         return versionData[0];
     }
 
-    private void saveChunkVersion(int x, int z, int dimension, byte version) {
+    private void saveChunkVersion(WriteBatch batch, int dimension, int x, int z, byte version) {
         byte[] versionKey;
         if (dimension == DimensionIds.OVERWORLD) {
             versionKey = ChunkKey.VERSION.getLevelDBKey(x, z);
         } else {
-            versionKey = ChunkKey.VERSION.getLevelDBKey(x, z, dimension);
+            versionKey = ChunkKey.VERSION.getLevelDBKeyWithDimension(x, z, dimension);
         }
 
-        this.database.put(versionKey, new byte[]{ version });
+        batch.put(versionKey, new byte[]{ version });
     }
 
-    private MCWorldChunkData getChunkData(int dimension, int x, int z) throws IOException {
-        byte[] heightAnd3DBiomeKey;
-        byte[] heightAnd2DBiomeKey;
-        if (dimension == DimensionIds.OVERWORLD) {
-            heightAnd2DBiomeKey = ChunkKey.DATA_2D.getLevelDBKey(x, z);
-            heightAnd3DBiomeKey = ChunkKey.DATA_3D.getLevelDBKey(x, z);
-        } else {
-            heightAnd2DBiomeKey = ChunkKey.DATA_2D.getLevelDBKeyWithDimension(x, z, dimension);
-            heightAnd3DBiomeKey = ChunkKey.DATA_3D.getLevelDBKeyWithDimension(x, z, dimension);
-        }
-
-
-        byte[] heightAnd3DBiomeData = this.database.get(heightAnd3DBiomeKey);
-        byte[] heightAnd2DBiomeData = this.database.get(heightAnd2DBiomeKey);
-
+    private MCWorldChunkData getChunkData(byte[] heightAnd3DBiomeData, byte[] heightAnd2DBiomeData) throws IOException {
         // Check for 3D data before 2D data
         MCWorldChunkData chunkData;
         if (heightAnd3DBiomeData == null && heightAnd2DBiomeData == null) {
-            // Biome and height map data does not exist.
+            // Biome and height map data does not exist. It is written when the chunk is saved.
             chunkData = new MCWorldChunkData(new BedrockHeightMap(), new BedrockBiomeMap());
-
-            byte[] biomeData = MCWorldFormatUtils.biomeMapToBytes(chunkData.getBiomeMap());
-            byte[] heightData = MCWorldFormatUtils.heightMapToBytes(chunkData.getHeightMap());
-
-            // Put data together to form complete 3D data
-            byte[] data = new byte[biomeData.length + heightData.length];
-            System.arraycopy(heightData, 0, data, 0, heightData.length);
-            System.arraycopy(biomeData, 0, data, heightData.length, biomeData.length);
-
-            this.database.put(heightAnd3DBiomeKey, data);
         } else if (heightAnd3DBiomeData != null) {
             // 3D biome data
             chunkData = MCWorldFormatUtils.read3DChunkData(heightAnd3DBiomeData);
@@ -166,7 +247,7 @@ public class MCWorldProvider implements BedrockProvider {
         return chunkData;
     }
 
-    private void saveData(int dimension, int x, int z, MCWorldChunkData chunkData) throws IOException {
+    private void saveData(WriteBatch batch, int dimension, int x, int z, MCWorldChunkData chunkData) throws IOException {
         byte[] heightAnd3DBiomeKey;
         if (dimension == DimensionIds.OVERWORLD) {
             heightAnd3DBiomeKey = ChunkKey.DATA_3D.getLevelDBKey(x, z);
@@ -182,35 +263,32 @@ public class MCWorldProvider implements BedrockProvider {
         System.arraycopy(heightData, 0, data, 0, heightData.length);
         System.arraycopy(biomeData, 0, data, heightData.length, biomeData.length);
 
-        this.database.put(heightAnd3DBiomeKey, data);
+        batch.put(heightAnd3DBiomeKey, data);
     }
 
-    private Set<NbtMap> getBlockEntities(int dimension, int x, int z) throws IOException {
-        byte[] blockEntityKey;
-        if (dimension == DimensionIds.OVERWORLD) {
-            blockEntityKey = ChunkKey.BLOCK_ENTITIES.getLevelDBKey(x, z);
-        } else {
-            blockEntityKey = ChunkKey.BLOCK_ENTITIES.getLevelDBKeyWithDimension(x, z, dimension);
-        }
-
-        byte[] blockEntityData = this.database.get(blockEntityKey);
-        if (blockEntityData == null) {
-            blockEntityData = new byte[0];
+    /**
+     * Read the NBT tags stored one after another in a record.
+     * @param data record value
+     * @return the tags or an empty set if the record does not exist
+     * @throws IOException if the tags could not be read
+     */
+    private Set<NbtMap> readNBTs(byte[] data) throws IOException {
+        Set<NbtMap> tags = new HashSet<>();
+        if (data == null) {
+            return tags;
         }
 
-        Set<NbtMap> blockEntities = new HashSet<>();
-        try (InputStream blockEntityDataStream = new ByteArrayInputStream(blockEntityData);
-                NBTInputStream blockEntityNBTInputStream = NbtUtils.createReaderLE(blockEntityDataStream)) {
-            while (blockEntityDataStream.available() > 0) {
-                NbtMap blockEntityNBT = (NbtMap) blockEntityNBTInputStream.readTag();
-                blockEntities.add(blockEntityNBT);
+        try (InputStream dataStream = new ByteArrayInputStream(data);
+                NBTInputStream nbtInputStream = NbtUtils.createReaderLE(dataStream)) {
+            while (dataStream.available() > 0) {
+                tags.add((NbtMap) nbtInputStream.readTag());
             }
         }
 
-        return blockEntities;
+        return tags;
     }
 
-    private void saveBlockEntities(int dimension, int x, int z, Map<Vector3i, NbtMap> blockEntities) throws IOException {
+    private void saveBlockEntities(WriteBatch batch, int dimension, int x, int z, Map<Vector3i, NbtMap> blockEntities) throws IOException {
         byte[] blockEntityKey;
         if (dimension == DimensionIds.OVERWORLD) {
             blockEntityKey = ChunkKey.BLOCK_ENTITIES.getLevelDBKey(x, z);
@@ -226,36 +304,11 @@ public class MCWorldProvider implements BedrockProvider {
             }
 
             byte[] data = outputStream.toByteArray();
-            this.database.put(blockEntityKey, data);
+            batch.put(blockEntityKey, data);
         }
     }
 
-    private Set<NbtMap> getEntities(int dimension, int x, int z) throws IOException {
-        byte[] entitiesKey;
-        if (dimension == DimensionIds.OVERWORLD) {
-            entitiesKey = ChunkKey.ENTITIES.getLevelDBKey(x, z);
-        } else {
-            entitiesKey = ChunkKey.ENTITIES.getLevelDBKeyWithDimension(x, z, dimension);
-        }
-
-        byte[] entitiesData = this.database.get(entitiesKey);
-        if (entitiesData == null) {
-            entitiesData = new byte[0];
-        }
-
-        Set<NbtMap> entities = new HashSet<>();
-        try (InputStream entityDataStream = new ByteArrayInputStream(entitiesData);
-             NBTInputStream entityNBTInputStream = NbtUtils.createReaderLE(entityDataStream)) {
-            while (entityDataStream.available() > 0) {
-                NbtMap entityNBT = (NbtMap) entityNBTInputStream.readTag();
-                entities.add(entityNBT);
-            }
-        }
-
-        return entities;
-    }
-
-    private void saveEntities(int dimension, int x, int z, Set<NbtMap> entities) throws IOException {
+    private void saveEntities(WriteBatch batch, int dimension, int x, int z, Set<NbtMap> entities) throws IOException {
         byte[] entitiesKey;
         if (dimension == DimensionIds.OVERWORLD) {
             entitiesKey = ChunkKey.ENTITIES.getLevelDBKey(x, z);
@@ -271,35 +324,162 @@ public class MCWorldProvider implements BedrockProvider {
             }
 
             byte[] data = outputStream.toByteArray();
-            this.database.put(entitiesKey, data);
+            batch.put(entitiesKey, data);
         }
     }
 
     @Override
     public void saveChunk(BedrockChunk bedrockChunk) throws IOException {
         if (this.isClosed()) {
-            throw new IllegalStateException("Cannot retrieve chunk on closed provider.");
+            throw new IllegalStateException("Cannot save chunk on closed provider.");
+        }
+
+        if (!bedrockChunk.isDirty()) {
+            return;
+        }
+
+        if (this.readOnly) {
+            bedrockChunk.setDirty(false);
+            return;
+        }
+
+        // Every key of the chunk is written at once so that a chunk is never partially saved
+        try (WriteBatch batch = this.database.createWriteBatch()) {
+            this.writeChunk(batch, bedrockChunk);
+            this.writeBatch(batch, Collections.singletonList(bedrockChunk));
+        }
+    }
+
+    @Override
+    public void saveChunks(Collection<BedrockChunk> bedrockChunks) throws IOException {
+        if (this.isClosed()) {
+            throw new IllegalStateException("Cannot save chunks on closed provider.");
+        }
+
+        if (this.readOnly) {
+            for (BedrockChunk bedrockChunk : bedrockChunks) {
+                synchronized (bedrockChunk) {
+                    bedrockChunk.setDirty(false);
+                }
+            }
+            return;
+        }
+
+        WriteBatch batch = this.database.createWriteBatch();
+        // Chunks written to the current batch are already marked as saved, so they are marked as changed again if it is never written
+        List<BedrockChunk> chunksInBatch = new ArrayList<>(MAX_CHUNKS_PER_BATCH);
+        boolean saved = false;
+        try {
+            for (BedrockChunk bedrockChunk : bedrockChunks) {
+                // The chunk may still be modified by other threads while it is being written
+                synchronized (bedrockChunk) {
+                    if (!bedrockChunk.isDirty()) {
+                        continue;
+                    }
+                    this.writeChunk(batch, bedrockChunk);
+                }
+                chunksInBatch.add(bedrockChunk);
+
+                if (chunksInBatch.size() >= MAX_CHUNKS_PER_BATCH) {
+                    this.writeBatch(batch, chunksInBatch);
+                    chunksInBatch.clear();
+                    batch.close();
+
+                    batch = this.database.createWriteBatch();
+                }
+            }
+
+            if (chunksInBatch.size() > 0) {
+                this.writeBatch(batch, chunksInBatch);
+                chunksInBatch.clear();
+            }
+            saved = true;
+        } finally {
+            if (!saved) {
+                markDirty(chunksInBatch);
+            }
+            batch.close();
+        }
+    }
+
+    /**
+     * Write a batch to the database.
+     * The chunks in the batch are marked as changed again if the write fails so that they are not lost.
+     * @param batch batch to write
+     * @param chunks chunks written to the batch
+     */
+    private void writeBatch(WriteBatch batch, Collection<BedrockChunk> chunks) {
+        boolean written = false;
+        try {
+            this.database.write(batch);
+            written = true;
+        } finally {
+            if (!written) {
+                markDirty(chunks);
+            }
         }
+    }
+
+    private static void markDirty(Collection<BedrockChunk> chunks) {
+        for (BedrockChunk chunk : chunks) {
+            synchronized (chunk) {
+                chunk.setDirty(true);
+            }
+        }
+    }
+
+    /**
+     * Write the parts of a chunk that changed since it was last saved to a batch and mark them as saved.
+     * @param batch batch to write to
+     * @param bedrockChunk chunk to save
+     * @throws IOException if the chunk failed to be serialized
+     */
+    private void writeChunk(WriteBatch batch, BedrockChunk bedrockChunk) throws IOException {
+        int dimension = bedrockChunk.getDimension();
+        int x = bedrockChunk.getX();
+        int z = bedrockChunk.getZ();
+
+        // Virtual chunks were never written, so their height map and biomes are written even if they did not change
+        boolean virtual = bedrockChunk.isVirtual();
 
         // Save chunk data
-        this.saveChunkVersion(bedrockChunk.getDimension(), bedrockChunk.getX(), bedrockChunk.getZ(), bedrockChunk.getVersion());
-        this.saveData(bedrockChunk.getDimension(), bedrockChunk.getX(), bedrockChunk.getZ(), new MCWorldChunkData(bedrockChunk.getHeightMap(), bedrockChunk.getBiomeMap()));
-        this.saveBlockEntities(bedrockChunk.getDimension(), bedrockChunk.getX(), bedrockChunk.getZ(), bedrockChunk.getBlockEntities());
-        this.saveEntities(bedrockChunk.getDimension(), bedrockChunk.getX(), bedrockChunk.getZ(), bedrockChunk.getEntities());
+        this.saveChunkVersion(batch, dimension, x, z, bedrockChunk.getVersion());
+        if (virtual || bedrockChunk.isDataDirty()) {
+            this.saveData(batch, dimension, x, z, new MCWorldChunkData(bedrockChunk.getHeightMap(), bedrockChunk.getBiomeMap()));
+        }
+        if (bedrockChunk.areBlockEntitiesDirty()) {
+            this.saveBlockEntities(batch, dimension, x, z, bedrockChunk.getBlockEntities());
+        }
+        if (bedrockChunk.areEntitiesDirty()) {
+            this.saveEntities(batch, dimension, x, z, bedrockChunk.getEntities());
+        }
 
-        // Save every subchunk
-        for (int subChunkIndex = -4; subChunkIndex < 20; subChunkIndex++) {
-            BedrockSubChunk subChunk = bedrockChunk.getSubChunk(subChunkIndex);
-            this.saveSubChunk(bedrockChunk.getDimension(), bedrockChunk.getX(), bedrockChunk.getZ(), subChunkIndex, subChunk);
+        // Save only the subchunks that were changed. Subchunks that were never loaded cannot have changed.
+        for (Map.Entry<Integer, BedrockSubChunk> entry : bedrockChunk.getDirtySubChunks().entrySet()) {
+            this.saveSubChunk(batch, dimension, x, z, entry.getKey(), entry.getValue());
         }
+
+        bedrockChunk.setDirty(false);
+        bedrockChunk.setVirtual(false);
     }
 
     @Override
     public void saveSubChunk(int dimension, int x, int z, int subChunkIndex, BedrockSubChunk subChunk) throws IOException {
         if (this.isClosed()) {
-            throw new IllegalStateException("Cannot retrieve chunk on closed provider.");
+            throw new IllegalStateException("Cannot save chunk on closed provider.");
+        }
+
+        if (this.readOnly) {
+            return;
         }
 
+        try (WriteBatch batch = this.database.createWriteBatch()) {
+            this.saveSubChunk(batch, dimension, x, z, subChunkIndex, subChunk);
+            this.database.write(batch);
+        }
+    }
+
+    private void saveSubChunk(WriteBatch batch, int dimension, int x, int z, int subChunkIndex, BedrockSubChunk subChunk) throws IOException {
         byte[] subChunkKey;
         if (dimension == DimensionIds.OVERWORLD) {
             subChunkKey = ChunkKey.SUB_CHUNK_DATA.getLevelDBKey(x, z, subChunkIndex);
@@ -314,7 +494,7 @@ public class MCWorldProvider implements BedrockProvider {
             byte[] data = new byte[buffer.readableBytes()];
             buffer.readBytes(data);
 
-            this.database.put(subChunkKey, data);
+            batch.put(subChunkKey, data);
         } finally {
             buffer.release();
         }
@@ -327,9 +507,21 @@ public class MCWorldProvider implements BedrockProvider {
 
     @Override
     public void saveLevelData(LevelData data) throws IOException {
+        if (this.readOnly) {
+            return;
+        }
+
         MCWorldFormatUtils.writeLevelData(this.levelFile, data);
     }
 
+    /**
+     * Returns if changes are discarded instead of being written to the world.
+     * @return if this provider is read only
+     */
+    public boolean isReadOnly() {
+        return this.readOnly;
+    }
+
     @Override
     public boolean isClosed() {
         return this.closed;
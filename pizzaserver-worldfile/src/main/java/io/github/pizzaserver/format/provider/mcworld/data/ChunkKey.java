@@ -50,6 +50,53 @@ public enum ChunkKey {
         this.id = id;
     }
 
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Retrieve the chunk key with the given id.
+     * @param id key id
+     * @return the chunk key or null if the id is unknown
+     */
+    public static ChunkKey fromId(int id) {
+        for (ChunkKey key : values()) {
+            if (key.getId() == id) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieve the bytes every key of an overworld chunk starts with.
+     * Keys are sorted by their bytes in LevelDB so all keys of a chunk can be read by seeking to this prefix.
+     * @param x chunk x
+     * @param z chunk z
+     * @return key prefix
+     */
+    public static byte[] getLevelDBKeyPrefix(int x, int z) {
+        return new byte[]{
+                (byte) (x & 0xff), (byte) ((x >> 8) & 0xff), (byte) ((x >> 16) & 0xff), (byte) ((x >> 24) & 0xff),
+                (byte) (z & 0xff), (byte) ((z >> 8) & 0xff), (byte) ((z >> 16) & 0xff), (byte) ((z >> 24) & 0xff)
+        };
+    }
+
+    /**
+     * Retrieve the bytes every key of a chunk outside the overworld starts with.
+     * @param x chunk x
+     * @param z chunk z
+     * @param dimension dimension id
+     * @return key prefix
+     */
+    public static byte[] getLevelDBKeyPrefixWithDimension(int x, int z, int dimension) {
+        return new byte[]{
+                (byte) (x & 0xff), (byte) ((x >> 8) & 0xff), (byte) ((x >> 16) & 0xff), (byte) ((x >> 24) & 0xff),
+                (byte) (z & 0xff), (byte) ((z >> 8) & 0xff), (byte) ((z >> 16) & 0xff), (byte) ((z >> 24) & 0xff),
+                (byte) (dimension & 0xff), (byte) ((dimension >> 8) & 0xff), (byte) ((dimension >> 16) & 0xff), (byte) ((dimension >> 24) & 0xff)
+        };
+    }
+
     public byte[] getLevelDBKey(int x, int z) {
         return new byte[]{
                 (byte) (x & 0xff), (byte) ((x >> 8) & 0xff), (byte) ((x >> 16) & 0xff), (byte) ((x >> 24) & 0xff),
@@ -0,0 +1,77 @@
+package io.github.pizzaserver.format.provider.mcworld.data;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Raw LevelDB values of every key belonging to a chunk.
+ */
+public class MCWorldChunkRecords {
+
+    private static final int MIN_SUB_CHUNK_INDEX = -4;
+    private static final int SUB_CHUNK_COUNT = 24;
+
+    private final Map<ChunkKey, byte[]> records = new EnumMap<>(ChunkKey.class);
+    private final byte[][] subChunkRecords = new byte[SUB_CHUNK_COUNT][];
+    private int storedSubChunks;
+
+
+    /**
+     * Retrieve the value stored under a chunk key.
+     * @param key chunk key
+     * @return the value or null if the chunk has no value for the key
+     */
+    public byte[] get(ChunkKey key) {
+        return this.records.get(key);
+    }
+
+    public void put(ChunkKey key, byte[] value) {
+        this.records.put(key, value);
+    }
+
+    /**
+     * Retrieve the value stored for a sub chunk.
+     * @param subChunkIndex sub chunk index
+     * @return the value or null if the sub chunk was not stored
+     */
+    public byte[] getSubChunk(int subChunkIndex) {
+        int index = subChunkIndex - MIN_SUB_CHUNK_INDEX;
+        if (index < 0 || index >= SUB_CHUNK_COUNT) {
+            return null;
+        }
+        return this.subChunkRecords[index];
+    }
+
+    public void putSubChunk(int subChunkIndex, byte[] value) {
+        int index = subChunkIndex - MIN_SUB_CHUNK_INDEX;
+        if (index >= 0 && index < SUB_CHUNK_COUNT) {
+            this.subChunkRecords[index] = value;
+            this.storedSubChunks |= 1 << index;
+        }
+    }
+
+    /**
+     * Note that a sub chunk is stored without keeping its value.
+     * @param subChunkIndex sub chunk index
+     */
+    public void markSubChunk(int subChunkIndex) {
+        int index = subChunkIndex - MIN_SUB_CHUNK_INDEX;
+        if (index >= 0 && index < SUB_CHUNK_COUNT) {
+            this.storedSubChunks |= 1 << index;
+        }
+    }
+
+    /**
+     * Returns if a sub chunk was stored.
+     * @param subChunkIndex sub chunk index
+     * @return if the chunk has a record for the sub chunk
+     */
+    public boolean hasSubChunk(int subChunkIndex) {
+        int index = subChunkIndex - MIN_SUB_CHUNK_INDEX;
+        if (index < 0 || index >= SUB_CHUNK_COUNT) {
+            return false;
+        }
+        return (this.storedSubChunks & (1 << index)) != 0;
+    }
+
+}
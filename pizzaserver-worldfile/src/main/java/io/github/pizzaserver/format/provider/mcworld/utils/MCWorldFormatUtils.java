@@ -15,7 +15,11 @@ import io.github.pizzaserver.format.provider.mcworld.data.MCWorldChunkData;
 import io.netty.buffer.*;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -64,71 +68,47 @@ public class MCWorldFormatUtils {
 
     public static BlockLayer readLayer(ByteBuf buffer) throws IOException {
         int bitsPerBlock = buffer.readByte() >> 1;
-        int blocksPerWord = 32 / bitsPerBlock;
-        int wordsPerChunk = (int) Math.ceil(4096d / blocksPerWord); // there are 4096 blocks in a chunk stored in x words
-
-        // We want to read the palette first so that we can translate what blocks are immediately.
-        int chunkBlocksIndex = buffer.readerIndex();
-        buffer.setIndex(chunkBlocksIndex + (wordsPerChunk * 4), buffer.writerIndex());
-
-        Palette<BlockPaletteEntry> palette = readPalette(buffer);
-        int endPaletteIndex = buffer.readerIndex(); // we jump to this index after reading the blocks
-
-        // Go back and parse the blocks.
-        buffer.setIndex(chunkBlocksIndex, buffer.writerIndex());
-        BlockLayer layer = new BlockLayer(palette);
-
-        int pos = 0;
-        for (int chunk = 0; chunk < wordsPerChunk; chunk++) {
-            int word = buffer.readIntLE();  // This integer can store multiple minecraft blocks.
-            for (int block = 0; block < blocksPerWord; block++) {
-                if (pos >= 4096) {
-                    break;
-                }
-
-                int paletteIndex = (word >> (pos % blocksPerWord) * bitsPerBlock) & ((1 << bitsPerBlock) - 1);
-                layer.setBlockEntryAt(pos >> 8, pos & 15, (pos >> 4) & 15, palette.getEntry(paletteIndex));
-
-                pos++;
-            }
+        if (bitsPerBlock == 0) {
+            // Every block in the layer is the only palette entry which is stored without a palette length
+            return new BlockLayer(readPalette(buffer, 1), 0, new int[0]);
+        }
+        if (bitsPerBlock > 16) {
+            throw new ChunkParseException("Unsupported bits per block: " + bitsPerBlock);
         }
 
-        // Go back to the end of the palette to prepare for the next layer
-        buffer.setIndex(endPaletteIndex, buffer.writerIndex());
+        // The words are stored in the same format the block layer uses, so they can be used as is.
+        int[] words = new int[BlockLayer.getWordCount(bitsPerBlock)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.readIntLE();  // This integer can store multiple minecraft blocks.
+        }
 
-        return layer;
+        Palette<BlockPaletteEntry> palette = readPalette(buffer);
+        return new BlockLayer(palette, bitsPerBlock, words);
     }
 
     public static void writeLayer(ByteBuf buffer, BlockLayer layer) throws IOException {
+        // Removes unused palette entries and shrinks the layer to the least bits per block its palette needs
         layer.resize();
 
-        int bitsPerBlock = Math.max((int) Math.ceil(Math.log(layer.getPalette().getEntries().size()) / Math.log(2)), 1);
-        int blocksPerWord = 32 / bitsPerBlock;
-        int wordsPerChunk = (int) Math.ceil(4096d / blocksPerWord);
-
-        buffer.writeByte((bitsPerBlock << 1) | 1);
-
-        int pos = 0;
-        for (int chunk = 0; chunk < wordsPerChunk; chunk++) {
-            int word = 0;
-            for (int block = 0; block < blocksPerWord; block++) {
-                if (pos >= 4096) {
-                    break;
-                }
+        buffer.writeByte((layer.getBitsPerBlock() << 1) | 1);
+        if (layer.isUniform()) {
+            // Layers with 0 bits per block only store their block without a palette length
+            writePaletteEntries(buffer, Collections.singleton(layer.getBlockEntryAt(0, 0, 0)));
+            return;
+        }
 
-                word |= layer.getPalette().getPaletteIndex(layer.getBlockEntryAt(pos >> 8, pos & 15, (pos >> 4) & 15)) << (bitsPerBlock * block);
-                pos++;
-            }
+        for (int word : layer.getWords()) {
             buffer.writeIntLE(word);
         }
-
         writePalette(buffer, layer.getPalette());
     }
 
     public static Palette<BlockPaletteEntry> readPalette(ByteBuf buffer) throws IOException {
-        Palette<BlockPaletteEntry> palette = new Palette<>();
+        return readPalette(buffer, buffer.readIntLE());
+    }
 
-        int paletteLength = buffer.readIntLE();
+    public static Palette<BlockPaletteEntry> readPalette(ByteBuf buffer, int paletteLength) throws IOException {
+        Palette<BlockPaletteEntry> palette = new Palette<>();
         try (NBTInputStream inputStream = NbtUtils.createReaderLE(new ByteBufInputStream(buffer))) {
             for (int i = 0; i < paletteLength; i++) {
                 NbtMap compound = (NbtMap) inputStream.readTag();
@@ -137,7 +117,7 @@ public class MCWorldFormatUtils {
                 int version = compound.getInt("version");
                 NbtMap states = compound.getCompound("states");
 
-                palette.addEntry(new BlockPaletteEntry(blockId, version, states));
+                palette.addEntry(BlockStateRegistry.getEntry(blockId, version, states));
             }
         } catch (IOException exception) {
             throw new ChunkParseException("Failed to parse chunk palette.", exception);
@@ -149,6 +129,10 @@ public class MCWorldFormatUtils {
     public static void writePalette(ByteBuf buffer, Palette<BlockPaletteEntry> palette) throws IOException {
         Set<BlockPaletteEntry> entries = palette.getEntries();
         buffer.writeIntLE(entries.size());
+        writePaletteEntries(buffer, entries);
+    }
+
+    private static void writePaletteEntries(ByteBuf buffer, Set<BlockPaletteEntry> entries) throws IOException {
         try (NBTOutputStream outputStream = NbtUtils.createWriterLE(new ByteBufOutputStream(buffer))) {
             for (BlockPaletteEntry data : entries) {
                 NbtMap compound = NbtMap.builder()
@@ -506,8 +490,18 @@ public class MCWorldFormatUtils {
         return levelData;
     }
 
+    /**
+     * Write level data to a level.dat file.
+     * The data is written to a temporary file first which then replaces the level.dat file
+     * so that the level.dat is never left partially written.
+     * If writing the temporary file fails, it is deleted and the level.dat file is kept as is.
+     * @param levelDatFile level.dat file
+     * @param data level data
+     * @throws IOException if the file could not be written
+     */
     public static void writeLevelData(File levelDatFile, LevelData data) throws IOException {
-        try (FileOutputStream fileStream = new FileOutputStream(levelDatFile);
+        File temporaryFile = new File(levelDatFile.getAbsolutePath() + ".tmp");
+        try (FileOutputStream fileStream = new FileOutputStream(temporaryFile);
                 LittleEndianDataOutputStream leOutputStream = new LittleEndianDataOutputStream(fileStream);
                 ByteArrayOutputStream payloadStream = new ByteArrayOutputStream();
                 NBTOutputStream nbtStream = NbtUtils.createWriterLE(payloadStream)) {
@@ -626,7 +620,18 @@ public class MCWorldFormatUtils {
             leOutputStream.writeInt(payloadStream.size());  // size of nbt
             leOutputStream.write(payloadStream.toByteArray());  // the nbt
 
-            fileStream.flush();
+            leOutputStream.flush();
+            fileStream.getFD().sync();
+        } catch (IOException | RuntimeException exception) {
+            // The level.dat file was not touched yet
+            Files.deleteIfExists(temporaryFile.toPath());
+            throw exception;
+        }
+
+        try {
+            Files.move(temporaryFile.toPath(), levelDatFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(temporaryFile.toPath(), levelDatFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
@@ -22,27 +22,19 @@ public class BedrockNetworkUtils {
     }
 
     public static void serializeBlockLayer(ByteBuf buffer, BlockLayer blockLayer, MinecraftSerializationHandler serializationHandler) {
-        int bitsPerBlock = Math.max((int) Math.ceil(Math.log(blockLayer.getPalette().getEntries().size()) / Math.log(2)), 1);
-        int blocksPerWord = 32 / bitsPerBlock;
-        int wordsPerChunk = (int) Math.ceil(4096d / blocksPerWord);
-
-        buffer.writeByte((bitsPerBlock << 1) | 1);
-
-        int pos = 0;
-        for (int chunk = 0; chunk < wordsPerChunk; chunk++) {
-            int word = 0;
-            for (int block = 0; block < blocksPerWord; block++) {
-                if (pos >= 4096) {
-                    break;
-                }
-
-                word |= blockLayer.getPalette().getPaletteIndex(blockLayer.getBlockEntryAt(pos >> 8, pos & 15, (pos >> 4) & 15)) << (bitsPerBlock * block);
-                pos++;
-            }
+        // The layer already stores its blocks in the format the client expects
+        buffer.writeByte((blockLayer.getBitsPerBlock() << 1) | 1);
+        for (int word : blockLayer.getWords()) {
             buffer.writeIntLE(word);
         }
 
-        serializeBlockPalette(buffer, blockLayer.getPalette(), serializationHandler);
+        if (blockLayer.isUniform()) {
+            // Layers with 0 bits per block are followed by the runtime id of their block without a palette length
+            BlockPaletteEntry entry = blockLayer.getBlockEntryAt(0, 0, 0);
+            VarInts.writeInt(buffer, serializationHandler.getBlockRuntimeId(entry));
+        } else {
+            serializeBlockPalette(buffer, blockLayer.getPalette(), serializationHandler);
+        }
     }
 
     public static void serializeBlockPalette(ByteBuf buffer, Palette<BlockPaletteEntry> palette, MinecraftSerializationHandler serializationHandler) {
@@ -50,7 +42,7 @@ public class BedrockNetworkUtils {
         VarInts.writeInt(buffer, entries.size());
 
         for (BlockPaletteEntry data : entries) {
-            int id = serializationHandler.getBlockRuntimeId(data.getId(), data.getState());
+            int id = serializationHandler.getBlockRuntimeId(data);
             VarInts.writeInt(buffer, id);
         }
     }
@@ -3,14 +3,16 @@ package io.github.pizzaserver.format;
 import io.github.pizzaserver.format.data.LevelData;
 import io.github.pizzaserver.format.provider.ResourceUtils;
 import io.github.pizzaserver.format.provider.mcworld.MCWorldLevel;
+import io.github.pizzaserver.format.provider.mcworld.utils.MCWorldFormatUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class BedrockLevelTests {
 
@@ -47,4 +49,53 @@ public class BedrockLevelTests {
         }
     }
 
+    @Test
+    public void shouldNotSaveReadOnlyWorldInfo(@TempDir Path temporaryDir) throws IOException {
+        ResourceUtils.extractZipContents("testworld", temporaryDir);
+        try (MCWorldLevel world = new MCWorldLevel(temporaryDir.toFile(), true)) {
+            LevelData data = world.getLevelData();
+
+            data.setName("New Name!");
+
+            world.setLevelData(data);
+        }
+
+        try (MCWorldLevel world = new MCWorldLevel(temporaryDir.toFile())) {
+            LevelData data = world.getLevelData();
+
+            assertEquals("1.16.100 World Test", data.getName());
+        }
+    }
+
+    @Test
+    public void shouldReplaceWorldInfoWithoutLeavingTemporaryFiles(@TempDir Path temporaryDir) throws IOException {
+        ResourceUtils.extractZipContents("testworld", temporaryDir);
+        File levelDatFile = temporaryDir.resolve("level.dat").toFile();
+        File temporaryFile = temporaryDir.resolve("level.dat.tmp").toFile();
+        // Left behind by a save that was interrupted
+        Files.write(temporaryFile.toPath(), new byte[]{ 1, 2, 3 });
+
+        LevelData data = MCWorldFormatUtils.readLevelData(levelDatFile);
+        data.setName("New Name!");
+        MCWorldFormatUtils.writeLevelData(levelDatFile, data);
+
+        assertEquals("New Name!", MCWorldFormatUtils.readLevelData(levelDatFile).getName());
+        assertFalse(temporaryFile.exists());
+    }
+
+    @Test
+    public void shouldKeepWorldInfoIfItFailsToSave(@TempDir Path temporaryDir) throws IOException {
+        ResourceUtils.extractZipContents("testworld", temporaryDir);
+        File levelDatFile = temporaryDir.resolve("level.dat").toFile();
+        byte[] contents = Files.readAllBytes(levelDatFile.toPath());
+
+        LevelData data = MCWorldFormatUtils.readLevelData(levelDatFile);
+        data.setName("New Name!");
+        data.setWorldSpawn(null);
+        assertThrows(NullPointerException.class, () -> MCWorldFormatUtils.writeLevelData(levelDatFile, data));
+
+        assertArrayEquals(contents, Files.readAllBytes(levelDatFile.toPath()));
+        assertFalse(temporaryDir.resolve("level.dat.tmp").toFile().exists());
+    }
+
 }
@@ -0,0 +1,40 @@
+package io.github.pizzaserver.format.dimension.chunks;
+
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BedrockSubChunk;
+import io.github.pizzaserver.format.provider.BedrockProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class BedrockChunkTest {
+
+    @Test
+    public void missingSubChunksShouldNotBeRead() throws IOException {
+        BedrockProvider provider = mock(BedrockProvider.class);
+        BedrockChunk chunk = new BedrockChunk(provider, 0, 0, 0);
+        chunk.setSubChunkMissing(4);
+
+        BedrockSubChunk subChunk = chunk.getSubChunk(4);
+        assertTrue(subChunk.getLayers().isEmpty());
+        assertFalse(subChunk.isDirty());
+        assertSame(subChunk, chunk.getSubChunk(4));
+        verify(provider, never()).getSubChunk(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void storedSubChunksShouldBeReadFromTheProvider() throws IOException {
+        BedrockProvider provider = mock(BedrockProvider.class);
+        BedrockSubChunk storedSubChunk = new BedrockSubChunk();
+        when(provider.getSubChunk(0, 0, 0, 5)).thenReturn(storedSubChunk);
+        BedrockChunk chunk = new BedrockChunk(provider, 0, 0, 0);
+        chunk.setSubChunkMissing(4);
+
+        assertSame(storedSubChunk, chunk.getSubChunk(5));
+        verify(provider, times(1)).getSubChunk(0, 0, 0, 5);
+    }
+
+}
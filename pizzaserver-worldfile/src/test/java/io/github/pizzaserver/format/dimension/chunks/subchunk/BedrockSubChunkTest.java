@@ -0,0 +1,69 @@
+package io.github.pizzaserver.format.dimension.chunks.subchunk;
+
+import com.nukkitx.nbt.NbtMap;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.utils.Palette;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BedrockSubChunkTest {
+
+    private static final BlockPaletteEntry STONE = new BlockPaletteEntry("minecraft:stone", 0, NbtMap.EMPTY);
+
+
+    @Test
+    public void retrievedLayersShouldNotChangeWhenLayersAreAdded() {
+        BedrockSubChunk subChunk = new BedrockSubChunk();
+        assertTrue(subChunk.isEmpty());
+        List<BlockLayer> emptyLayers = subChunk.getLayers();
+
+        // Layers before the requested layer are created as well
+        BlockLayer layer = subChunk.getLayer(1);
+        List<BlockLayer> layers = subChunk.getLayers();
+        assertEquals(2, layers.size());
+        assertSame(layer, layers.get(1));
+        assertSame(layers.get(0), subChunk.getLayer(0));
+
+        subChunk.addLayer(new BlockLayer(new Palette<>()));
+        assertTrue(emptyLayers.isEmpty());
+        assertEquals(2, layers.size());
+        assertEquals(3, subChunk.getLayers().size());
+        assertThrows(UnsupportedOperationException.class, () -> subChunk.getLayers().clear());
+    }
+
+    @Test
+    public void layersShouldBeReadableWhileLayersAreAdded() throws InterruptedException {
+        BedrockSubChunk subChunk = new BedrockSubChunk();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            try {
+                while (writing.get()) {
+                    // Every layer seen by the reader is complete
+                    for (BlockLayer layer : subChunk.getLayers()) {
+                        BlockPaletteEntry entry = layer.tryGetBlockEntryAt(0, 0, 0);
+                        assertTrue(entry == null || entry.equals(STONE) || entry.equals(BlockStateRegistry.AIR));
+                    }
+                }
+            } catch (Throwable throwable) {
+                failure.set(throwable);
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 200; i++) {
+            subChunk.getLayer(i).setBlockEntryAt(0, 0, 0, STONE);
+        }
+        writing.set(false);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(200, subChunk.getLayers().size());
+    }
+
+}
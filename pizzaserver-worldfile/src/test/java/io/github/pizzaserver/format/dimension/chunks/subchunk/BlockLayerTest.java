@@ -0,0 +1,222 @@
+package io.github.pizzaserver.format.dimension.chunks.subchunk;
+
+import com.nukkitx.nbt.NbtMap;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.utils.Palette;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockLayerTest {
+
+    private static final BlockPaletteEntry STONE = new BlockPaletteEntry("minecraft:stone", 0, NbtMap.EMPTY);
+
+
+    @Test
+    public void setBlocksShouldBeReadBack() {
+        BlockLayer layer = new BlockLayer(new Palette<>());
+        BlockPaletteEntry[] entries = new BlockPaletteEntry[300];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new BlockPaletteEntry("block" + i, 0, NbtMap.EMPTY);
+        }
+
+        // Every new entry needs more bits per block until the palette no longer fits in a byte
+        for (int blockIndex = 0; blockIndex < 4096; blockIndex++) {
+            setBlock(layer, blockIndex, entries[blockIndex % entries.length]);
+        }
+        assertEquals(16, layer.getBitsPerBlock());
+        assertTrue(layer.isDirty());
+
+        for (int blockIndex = 0; blockIndex < 4096; blockIndex++) {
+            assertEquals(entries[blockIndex % entries.length], getBlock(layer, blockIndex));
+        }
+    }
+
+    @Test
+    public void wordsShouldRoundTripThroughANewLayer() {
+        BlockLayer layer = new BlockLayer(new Palette<>());
+        for (int blockIndex = 0; blockIndex < 4096; blockIndex += 7) {
+            setBlock(layer, blockIndex, new BlockPaletteEntry("block" + (blockIndex % 5), 0, NbtMap.EMPTY));
+        }
+        // 6 palette entries need 3 bits per block, which leaves 2 unused bits in every word
+        assertEquals(3, layer.getBitsPerBlock());
+        assertEquals(BlockLayer.getWordCount(3), layer.getWords().length);
+
+        BlockLayer readLayer = new BlockLayer(layer.getPalette().clone(), layer.getBitsPerBlock(), layer.getWords().clone());
+        for (int blockIndex = 0; blockIndex < 4096; blockIndex++) {
+            assertEquals(getBlock(layer, blockIndex), getBlock(readLayer, blockIndex));
+        }
+    }
+
+    @Test
+    public void resizeShouldRemoveUnusedEntriesAndShrinkTheWords() {
+        BlockLayer layer = new BlockLayer(new Palette<>());
+        for (int i = 0; i < 20; i++) {
+            setBlock(layer, i, new BlockPaletteEntry("block" + i, 0, NbtMap.EMPTY));
+        }
+        assertEquals(5, layer.getBitsPerBlock());
+
+        // Only the first two blocks remain, so air and two entries are left
+        for (int i = 2; i < 20; i++) {
+            setBlock(layer, i, BlockStateRegistry.AIR);
+        }
+        layer.resize();
+
+        assertEquals(3, layer.getPalette().size());
+        assertEquals(2, layer.getBitsPerBlock());
+        assertEquals(BlockLayer.getWordCount(2), layer.getWords().length);
+        assertEquals(new BlockPaletteEntry("block0", 0, NbtMap.EMPTY), getBlock(layer, 0));
+        assertEquals(new BlockPaletteEntry("block1", 0, NbtMap.EMPTY), getBlock(layer, 1));
+        for (int blockIndex = 2; blockIndex < 4096; blockIndex++) {
+            assertEquals(BlockStateRegistry.AIR, getBlock(layer, blockIndex));
+        }
+    }
+
+    @Test
+    public void paletteShouldMakeRoomWhenItOutgrowsSixteenBits() {
+        BlockLayer layer = new BlockLayer(new Palette<>());
+        setBlock(layer, 1, STONE);
+
+        // Replaced entries stay in the palette until it has no indexes left
+        BlockPaletteEntry lastEntry = null;
+        for (int i = 0; i < (1 << 16) + 10; i++) {
+            lastEntry = new BlockPaletteEntry("block" + i, 0, NbtMap.EMPTY);
+            setBlock(layer, 0, lastEntry);
+        }
+
+        assertTrue(layer.getPalette().size() < 1 << 16);
+        assertEquals(lastEntry, getBlock(layer, 0));
+        assertEquals(STONE, getBlock(layer, 1));
+        assertEquals(BlockStateRegistry.AIR, getBlock(layer, 2));
+    }
+
+    @Test
+    public void layersShouldStartUniform() {
+        BlockLayer layer = new BlockLayer(new Palette<>());
+
+        assertTrue(layer.isUniform());
+        assertFalse(layer.isDirty());
+        assertEquals(0, layer.getBitsPerBlock());
+        assertEquals(0, layer.getWords().length);
+        assertEquals(BlockStateRegistry.AIR, getBlock(layer, 4095));
+
+        // Setting the block the layer is made of does not change it
+        setBlock(layer, 0, BlockStateRegistry.AIR);
+        assertTrue(layer.isUniform());
+        assertFalse(layer.isDirty());
+    }
+
+    @Test
+    public void uniformLayersShouldBePackedOnceADifferentBlockIsSet() {
+        Palette<BlockPaletteEntry> palette = new Palette<>();
+        palette.addEntry(STONE);
+        BlockLayer layer = new BlockLayer(palette, 0, new int[0]);
+        assertTrue(layer.isUniform());
+
+        setBlock(layer, 100, BlockStateRegistry.AIR);
+
+        assertFalse(layer.isUniform());
+        assertEquals(1, layer.getBitsPerBlock());
+        assertEquals(BlockLayer.getWordCount(1), layer.getWords().length);
+        for (int blockIndex = 0; blockIndex < 4096; blockIndex++) {
+            assertEquals(blockIndex == 100 ? BlockStateRegistry.AIR : STONE, getBlock(layer, blockIndex));
+        }
+    }
+
+    @Test
+    public void packedLayersShouldBecomeUniformWhenResized() {
+        BlockLayer layer = new BlockLayer(new Palette<>());
+        for (int blockIndex = 0; blockIndex < 4096; blockIndex++) {
+            setBlock(layer, blockIndex, STONE);
+        }
+        assertFalse(layer.isUniform());
+
+        layer.resize();
+
+        // Air is no longer needed for the 0s of the words
+        assertTrue(layer.isUniform());
+        assertEquals(0, layer.getWords().length);
+        assertEquals(1, layer.getPalette().size());
+        assertEquals(STONE, layer.getPalette().getEntry(0));
+        assertEquals(STONE, getBlock(layer, 2048));
+
+        // The layer can be packed again
+        setBlock(layer, 5, BlockStateRegistry.AIR);
+        assertFalse(layer.isUniform());
+        assertEquals(BlockStateRegistry.AIR, getBlock(layer, 5));
+        assertEquals(STONE, getBlock(layer, 6));
+    }
+
+    @Test
+    public void uniformLayersShouldRejectWords() {
+        Palette<BlockPaletteEntry> palette = new Palette<>();
+        palette.addEntry(STONE);
+
+        assertThrows(IllegalArgumentException.class, () -> new BlockLayer(palette, 0, new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> new BlockLayer(new Palette<>(), 0, new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> new BlockLayer(palette, 4, new int[1]));
+    }
+
+    @Test
+    public void readsWithoutLockingShouldOnlySeeWrittenBlocks() throws InterruptedException {
+        BlockLayer layer = new BlockLayer(new Palette<>());
+        setBlock(layer, 4095, STONE);
+
+        // Every entry the first block was set to, so that readers can check what they saw
+        Set<BlockPaletteEntry> writtenEntries = ConcurrentHashMap.newKeySet();
+        writtenEntries.add(BlockStateRegistry.AIR);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread reader = new Thread(() -> {
+                while (writing.get() && failure.get() == null) {
+                    BlockPaletteEntry entry = layer.tryGetBlockEntryAt(0, 0, 0);
+                    if (entry != null && !writtenEntries.contains(entry)) {
+                        failure.set("Read a block that was never written: " + entry.getId());
+                    }
+
+                    BlockPaletteEntry lastEntry = layer.tryGetBlockEntryAt(15, 15, 15);
+                    if (lastEntry != null && !lastEntry.equals(STONE)) {
+                        failure.set("Read a block that was never written: " + lastEntry.getId());
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        // Grow the palette through every bits per block size, shrinking it again now and then
+        for (int i = 0; i < 20000 && failure.get() == null; i++) {
+            BlockPaletteEntry entry = new BlockPaletteEntry("block" + (i % 500), 0, NbtMap.EMPTY);
+            writtenEntries.add(entry);
+            setBlock(layer, 0, entry);
+            if (i % 1000 == 999) {
+                layer.resize();
+            }
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(STONE, layer.tryGetBlockEntryAt(15, 15, 15));
+    }
+
+    private static void setBlock(BlockLayer layer, int blockIndex, BlockPaletteEntry entry) {
+        layer.setBlockEntryAt(blockIndex >> 8, blockIndex & 15, (blockIndex >> 4) & 15, entry);
+    }
+
+    private static BlockPaletteEntry getBlock(BlockLayer layer, int blockIndex) {
+        return layer.getBlockEntryAt(blockIndex >> 8, blockIndex & 15, (blockIndex >> 4) & 15);
+    }
+
+}
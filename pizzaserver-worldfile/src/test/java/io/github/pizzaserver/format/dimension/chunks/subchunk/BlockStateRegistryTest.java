@@ -0,0 +1,88 @@
+package io.github.pizzaserver.format.dimension.chunks.subchunk;
+
+import com.nukkitx.nbt.NbtMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockStateRegistryTest {
+
+    @Test
+    public void equalStatesShouldReturnTheSameEntry() {
+        BlockPaletteEntry entry = BlockStateRegistry.getEntry("test:log", 1, NbtMap.builder().putString("axis", "y").build());
+        // The version is not part of the block state
+        BlockPaletteEntry sameEntry = BlockStateRegistry.getEntry("test:log", 2, NbtMap.builder().putString("axis", "y").build());
+
+        assertSame(entry, sameEntry);
+        assertEquals(1, entry.getVersion());
+        assertSame(entry, BlockStateRegistry.getEntry(entry.getStateId()));
+        assertSame(entry, BlockStateRegistry.getEntry(entry.getId(), entry.getVersion(), entry.getState()));
+    }
+
+    @Test
+    public void differentStatesShouldReturnDifferentEntries() {
+        BlockPaletteEntry entry = BlockStateRegistry.getEntry("test:log", 1, NbtMap.builder().putString("axis", "x").build());
+        BlockPaletteEntry otherState = BlockStateRegistry.getEntry("test:log", 1, NbtMap.builder().putString("axis", "z").build());
+        BlockPaletteEntry otherBlock = BlockStateRegistry.getEntry("test:wood", 1, NbtMap.builder().putString("axis", "x").build());
+
+        assertNotSame(entry, otherState);
+        assertNotSame(entry, otherBlock);
+        assertNotEquals(entry, otherState);
+        assertNotEquals(entry.getStateId(), otherState.getStateId());
+        assertNotEquals(entry.getStateId(), otherBlock.getStateId());
+        assertTrue(BlockStateRegistry.size() > Math.max(otherState.getStateId(), otherBlock.getStateId()));
+    }
+
+    @Test
+    public void entriesShouldEqualTheirUninternedState() {
+        BlockPaletteEntry entry = BlockStateRegistry.getEntry("test:stone", 1, NbtMap.EMPTY);
+
+        assertEquals(new BlockPaletteEntry("test:stone", 1, NbtMap.EMPTY), entry);
+        assertEquals(entry, new BlockPaletteEntry("test:stone", 1, NbtMap.EMPTY));
+        assertEquals(-1, new BlockPaletteEntry("test:stone", 1, NbtMap.EMPTY).getStateId());
+        assertEquals(BlockPaletteEntry.AIR_ID, BlockStateRegistry.AIR.getId());
+        assertNull(BlockStateRegistry.getEntry(-1));
+        assertNull(BlockStateRegistry.getEntry(BlockStateRegistry.size()));
+    }
+
+    @Test
+    public void statesRegisteredConcurrentlyShouldOnlyBeRegisteredOnce() throws Exception {
+        int threads = 4;
+        int states = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            List<Future<BlockPaletteEntry[]>> results = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                results.add(executor.submit(() -> {
+                    barrier.await();
+                    BlockPaletteEntry[] entries = new BlockPaletteEntry[states];
+                    for (int i = 0; i < states; i++) {
+                        entries[i] = BlockStateRegistry.getEntry("test:concurrent", 0, NbtMap.builder().putInt("value", i).build());
+                    }
+                    return entries;
+                }));
+            }
+
+            BlockPaletteEntry[] entries = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<BlockPaletteEntry[]> result : results) {
+                assertArrayEquals(entries, result.get(10, TimeUnit.SECONDS));
+            }
+
+            Set<Integer> stateIds = new HashSet<>();
+            for (BlockPaletteEntry entry : entries) {
+                assertTrue(stateIds.add(entry.getStateId()));
+                assertSame(entry, BlockStateRegistry.getEntry(entry.getStateId()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
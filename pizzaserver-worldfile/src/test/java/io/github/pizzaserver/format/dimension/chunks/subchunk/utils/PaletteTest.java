@@ -4,7 +4,10 @@ import com.nukkitx.nbt.NbtMap;
 import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class PaletteTest {
 
@@ -29,4 +32,92 @@ public class PaletteTest {
         assertEquals(1, palette.getPaletteIndex(entries[4]));
     }
 
+    @Test
+    public void entriesShouldRoundTripThroughTheirIndexes() {
+        Palette<BlockPaletteEntry> palette = new Palette<>();
+        List<BlockPaletteEntry> entries = createEntries(1000);
+        for (BlockPaletteEntry entry : entries) {
+            palette.addEntry(entry);
+        }
+        // Adding an equal entry again does not give it a new index
+        palette.addEntry(new BlockPaletteEntry("block0", 0, NbtMap.EMPTY));
+
+        assertEquals(entries.size(), palette.size());
+        for (int index = 0; index < entries.size(); index++) {
+            assertEquals(index, palette.getPaletteIndex(entries.get(index)));
+            assertSame(entries.get(index), palette.getEntry(index));
+        }
+        assertNull(palette.getEntry(entries.size()));
+        assertEquals(entries, new ArrayList<>(palette.getEntries()));
+    }
+
+    @Test
+    public void removingEntriesShouldKeepTheIndexesOfOtherEntries() {
+        Palette<BlockPaletteEntry> palette = new Palette<>();
+        List<BlockPaletteEntry> entries = createEntries(100);
+        for (BlockPaletteEntry entry : entries) {
+            palette.addEntry(entry);
+        }
+
+        List<BlockPaletteEntry> remainingEntries = new ArrayList<>();
+        for (int index = 0; index < entries.size(); index++) {
+            if (index % 3 == 0) {
+                palette.removeEntry(entries.get(index));
+            } else {
+                remainingEntries.add(entries.get(index));
+            }
+        }
+
+        assertEquals(remainingEntries.size(), palette.size());
+        for (int index = 0; index < entries.size(); index++) {
+            BlockPaletteEntry entry = entries.get(index);
+            if (index % 3 == 0) {
+                assertNull(palette.getEntry(index));
+                assertFalse(palette.getEntries().contains(entry));
+                assertThrows(IllegalArgumentException.class, () -> palette.getPaletteIndex(entry));
+            } else {
+                assertEquals(index, palette.getPaletteIndex(entry));
+            }
+        }
+        assertEquals(remainingEntries, new ArrayList<>(palette.getEntries()));
+
+        // Resizing closes the gaps while keeping the order of the entries
+        palette.resize();
+        for (int index = 0; index < remainingEntries.size(); index++) {
+            assertEquals(index, palette.getPaletteIndex(remainingEntries.get(index)));
+            assertSame(remainingEntries.get(index), palette.getEntry(index));
+        }
+
+        // Entries added after resizing take the next free index
+        BlockPaletteEntry newEntry = new BlockPaletteEntry("new", 0, NbtMap.EMPTY);
+        palette.addEntry(newEntry);
+        assertEquals(remainingEntries.size(), palette.getPaletteIndex(newEntry));
+    }
+
+    @Test
+    public void clonedPalettesShouldNotShareChanges() {
+        Palette<BlockPaletteEntry> palette = new Palette<>();
+        List<BlockPaletteEntry> entries = createEntries(20);
+        for (BlockPaletteEntry entry : entries) {
+            palette.addEntry(entry);
+        }
+
+        Palette<BlockPaletteEntry> clonedPalette = palette.clone();
+        clonedPalette.removeEntry(entries.get(0));
+        clonedPalette.addEntry(new BlockPaletteEntry("new", 0, NbtMap.EMPTY));
+
+        assertEquals(entries, new ArrayList<>(palette.getEntries()));
+        assertEquals(0, palette.getPaletteIndex(entries.get(0)));
+        assertFalse(clonedPalette.getEntries().contains(entries.get(0)));
+        assertEquals(20, clonedPalette.getPaletteIndex(new BlockPaletteEntry("new", 0, NbtMap.EMPTY)));
+    }
+
+    private static List<BlockPaletteEntry> createEntries(int amount) {
+        List<BlockPaletteEntry> entries = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            entries.add(new BlockPaletteEntry("block" + i, 0, NbtMap.EMPTY));
+        }
+        return entries;
+    }
+
 }
@@ -0,0 +1,197 @@
+package io.github.pizzaserver.format.provider.mcworld;
+
+import com.nukkitx.nbt.NbtMap;
+import io.github.pizzaserver.format.data.DimensionIds;
+import io.github.pizzaserver.format.dimension.BedrockDimension;
+import io.github.pizzaserver.format.dimension.chunks.BedrockChunk;
+import io.github.pizzaserver.format.dimension.chunks.subchunk.BlockPaletteEntry;
+import io.github.pizzaserver.format.provider.ResourceUtils;
+import io.github.pizzaserver.format.provider.mcworld.data.ChunkKey;
+import org.iq80.leveldb.DBException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MCWorldProviderTest {
+
+    private static final BlockPaletteEntry STONE = new BlockPaletteEntry("minecraft:stone", 0, NbtMap.EMPTY);
+
+
+    @Test
+    public void chunksShouldStayChangedIfTheirBatchFailsToWrite() throws IOException {
+        MemoryDatabase database = new MemoryDatabase();
+        MCWorldProvider provider = new MCWorldProvider(null, database.getDatabase());
+        BedrockChunk chunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        chunk.getHeightMap().setHighestBlockAt(0, 0, 10);
+
+        database.setFailingWrites(true);
+        assertThrows(DBException.class, () -> provider.saveChunks(Arrays.asList(chunk)));
+        assertTrue(chunk.isDirty());
+        assertTrue(database.getEntries().isEmpty());
+
+        // The change is written by the next save
+        database.setFailingWrites(false);
+        provider.saveChunks(Arrays.asList(chunk));
+        assertFalse(chunk.isDirty());
+        assertEquals(10, provider.getChunk(DimensionIds.OVERWORLD, 0, 0).getHeightMap().getHighestBlockAt(0, 0));
+    }
+
+    @Test
+    public void chunksInABatchShouldStayChangedIfALaterChunkFailsToSerialize() throws IOException {
+        MemoryDatabase database = new MemoryDatabase();
+        MCWorldProvider provider = new MCWorldProvider(null, database.getDatabase());
+        BedrockChunk chunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        chunk.getHeightMap().setHighestBlockAt(0, 0, 10);
+
+        BedrockChunk brokenChunk = mock(BedrockChunk.class);
+        when(brokenChunk.isDirty()).thenReturn(true);
+        when(brokenChunk.isVirtual()).thenReturn(true);
+        when(brokenChunk.getHeightMap()).thenThrow(new IllegalStateException("Failed to serialize"));
+
+        // The first chunk was already added to the batch when the second one failed, so the batch was never written
+        assertThrows(IllegalStateException.class, () -> provider.saveChunks(Arrays.asList(chunk, brokenChunk)));
+        assertTrue(chunk.isDirty());
+        assertTrue(database.getEntries().isEmpty());
+    }
+
+    @Test
+    public void chunkShouldStayChangedIfItFailsToWrite() throws IOException {
+        MemoryDatabase database = new MemoryDatabase();
+        MCWorldProvider provider = new MCWorldProvider(null, database.getDatabase());
+        BedrockChunk chunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        chunk.getHeightMap().setHighestBlockAt(0, 0, 10);
+
+        database.setFailingWrites(true);
+        assertThrows(DBException.class, () -> provider.saveChunk(chunk));
+        assertTrue(chunk.isDirty());
+    }
+
+    @Test
+    public void unmodifiedChunksShouldNotBeWritten() throws IOException {
+        MemoryDatabase database = new MemoryDatabase();
+        MCWorldProvider provider = new MCWorldProvider(null, database.getDatabase());
+        BedrockChunk chunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        chunk.getSubChunk(0).getLayer(0).setBlockEntryAt(0, 0, 0, STONE);
+        provider.saveChunk(chunk);
+        database.clearWrittenKeys();
+
+        BedrockChunk loadedChunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        loadedChunk.getSubChunk(0);
+        provider.saveChunk(loadedChunk);
+        provider.saveChunks(Arrays.asList(loadedChunk));
+        assertTrue(database.getWrittenKeys().isEmpty());
+    }
+
+    @Test
+    public void untouchedSubChunksShouldNotBeWritten() throws IOException {
+        MemoryDatabase database = new MemoryDatabase();
+        MCWorldProvider provider = new MCWorldProvider(null, database.getDatabase());
+        BedrockChunk chunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        chunk.getSubChunk(0).getLayer(0).setBlockEntryAt(0, 0, 0, STONE);
+        chunk.getSubChunk(1).getLayer(0).setBlockEntryAt(0, 0, 0, STONE);
+        provider.saveChunk(chunk);
+        database.clearWrittenKeys();
+
+        // Only the modified sub chunk is written. Sub chunks that were only read and the height map and biomes are not.
+        BedrockChunk loadedChunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        loadedChunk.getSubChunk(0);
+        loadedChunk.getSubChunk(1).getLayer(0).setBlockEntryAt(1, 0, 0, STONE);
+        provider.saveChunk(loadedChunk);
+        assertTrue(wasWritten(database, ChunkKey.SUB_CHUNK_DATA.getLevelDBKey(0, 0, 1)));
+        assertFalse(wasWritten(database, ChunkKey.SUB_CHUNK_DATA.getLevelDBKey(0, 0, 0)));
+        assertFalse(wasWritten(database, ChunkKey.DATA_3D.getLevelDBKey(0, 0)));
+        assertFalse(wasWritten(database, ChunkKey.ENTITIES.getLevelDBKey(0, 0)));
+        assertFalse(wasWritten(database, ChunkKey.BLOCK_ENTITIES.getLevelDBKey(0, 0)));
+
+        assertEquals(STONE, provider.getChunk(DimensionIds.OVERWORLD, 0, 0).getSubChunk(1).getLayer(0).getBlockEntryAt(1, 0, 0));
+    }
+
+    @Test
+    public void readingAMissingChunkShouldNotChangeTheDatabase() throws IOException {
+        MemoryDatabase database = new MemoryDatabase();
+        MCWorldProvider provider = new MCWorldProvider(null, database.getDatabase());
+
+        BedrockChunk chunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        assertTrue(chunk.isVirtual());
+        assertTrue(chunk.getSubChunk(0).isEmpty());
+
+        // A virtual chunk that was only read is not written when it is saved or unloaded
+        provider.saveChunk(chunk);
+        provider.saveChunks(Arrays.asList(chunk));
+        assertTrue(database.getWrittenKeys().isEmpty());
+        assertTrue(database.getEntries().isEmpty());
+        assertTrue(chunk.isVirtual());
+    }
+
+    @Test
+    public void virtualChunksShouldBeFullyWrittenOnceModified() throws IOException {
+        MemoryDatabase database = new MemoryDatabase();
+        MCWorldProvider provider = new MCWorldProvider(null, database.getDatabase());
+        BedrockChunk chunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        chunk.getSubChunk(1).getLayer(0).setBlockEntryAt(0, 0, 0, STONE);
+
+        provider.saveChunks(Arrays.asList(chunk));
+        assertFalse(chunk.isVirtual());
+        // The height map and biomes did not change, but are written as the chunk was never written before
+        assertTrue(wasWritten(database, ChunkKey.VERSION.getLevelDBKey(0, 0)));
+        assertTrue(wasWritten(database, ChunkKey.DATA_3D.getLevelDBKey(0, 0)));
+        assertTrue(wasWritten(database, ChunkKey.SUB_CHUNK_DATA.getLevelDBKey(0, 0, 1)));
+
+        BedrockChunk loadedChunk = provider.getChunk(DimensionIds.OVERWORLD, 0, 0);
+        assertFalse(loadedChunk.isVirtual());
+        assertEquals(chunk.getVersion(), loadedChunk.getVersion());
+        assertEquals(STONE, loadedChunk.getSubChunk(1).getLayer(0).getBlockEntryAt(0, 0, 0));
+        assertTrue(loadedChunk.getSubChunk(0).isEmpty());
+    }
+
+    @Test
+    public void chunksOfDifferentDimensionsWithTheSameCoordinatesShouldBeSeparate(@TempDir Path temporaryDir) throws IOException {
+        // The test world only has overworld chunks
+        ResourceUtils.extractZipContents("testworld", temporaryDir);
+        BlockPaletteEntry overworldBlock;
+        try (MCWorldLevel level = new MCWorldLevel(temporaryDir.toFile())) {
+            BedrockChunk overworldChunk = level.getDimension(DimensionIds.OVERWORLD).getChunk(200, 0);
+            assertFalse(overworldChunk.isVirtual());
+            overworldBlock = overworldChunk.getSubChunk(0).getLayer(0).getBlockEntryAt(0, 0, 0);
+
+            // Nether keys start with the overworld prefix of the same coordinates, but are not part of the overworld chunk
+            BedrockDimension nether = level.getDimension(DimensionIds.NETHER);
+            BedrockChunk netherChunk = nether.getChunk(200, 0);
+            assertTrue(netherChunk.isVirtual());
+            assertTrue(netherChunk.getSubChunk(0).isEmpty());
+
+            netherChunk.getSubChunk(0).getLayer(0).setBlockEntryAt(0, 0, 0, STONE);
+            nether.saveChunk(netherChunk);
+        }
+
+        try (MCWorldLevel level = new MCWorldLevel(temporaryDir.toFile())) {
+            BedrockChunk overworldChunk = level.getDimension(DimensionIds.OVERWORLD).getChunk(200, 0, true);
+            assertEquals(overworldBlock, overworldChunk.getSubChunk(0).getLayer(0).getBlockEntryAt(0, 0, 0));
+            assertFalse(overworldChunk.isDirty());
+
+            // The version is stored under the key with the dimension, so the nether chunk is no longer virtual
+            BedrockChunk netherChunk = level.getDimension(DimensionIds.NETHER).getChunk(200, 0);
+            assertFalse(netherChunk.isVirtual());
+            assertEquals(STONE, netherChunk.getSubChunk(0).getLayer(0).getBlockEntryAt(0, 0, 0));
+            assertTrue(netherChunk.getSubChunk(1).isEmpty());
+        } finally {
+            ResourceUtils.deleteDirectoryContents(temporaryDir);
+        }
+    }
+
+    private static boolean wasWritten(MemoryDatabase database, byte[] key) {
+        for (byte[] writtenKey : database.getWrittenKeys()) {
+            if (Arrays.equals(writtenKey, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
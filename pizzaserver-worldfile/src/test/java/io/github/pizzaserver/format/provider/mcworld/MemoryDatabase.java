@@ -0,0 +1,108 @@
+package io.github.pizzaserver.format.provider.mcworld;
+
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBException;
+import org.iq80.leveldb.DBIterator;
+import org.iq80.leveldb.WriteBatch;
+
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * LevelDB database kept in memory that records every key written to it.
+ * Only supports the operations used by the providers.
+ */
+public class MemoryDatabase {
+
+    // Keys are ordered the same way LevelDB orders them
+    private final NavigableMap<byte[], byte[]> entries = new TreeMap<>(Arrays::compareUnsigned);
+    private final List<byte[]> writtenKeys = new ArrayList<>();
+    // batch : records put in the batch
+    private final Map<WriteBatch, Map<byte[], byte[]>> batches = new IdentityHashMap<>();
+    private final DB database = mock(DB.class);
+    private boolean failingWrites;
+
+
+    public MemoryDatabase() {
+        when(this.database.get(any())).thenAnswer(invocation -> this.entries.get(invocation.<byte[]>getArgument(0)));
+        when(this.database.iterator()).thenAnswer(invocation -> this.createIterator());
+        when(this.database.createWriteBatch()).thenAnswer(invocation -> this.createWriteBatch());
+        doAnswer(invocation -> {
+            this.write(invocation.getArgument(0));
+            return null;
+        }).when(this.database).write(any());
+    }
+
+    public DB getDatabase() {
+        return this.database;
+    }
+
+    public NavigableMap<byte[], byte[]> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Retrieve every key written to this database since it was created or last cleared.
+     * @return written keys in the order they were written
+     */
+    public List<byte[]> getWrittenKeys() {
+        return this.writtenKeys;
+    }
+
+    public void clearWrittenKeys() {
+        this.writtenKeys.clear();
+    }
+
+    /**
+     * Make every write batch fail to be written until this is called again.
+     * @param failingWrites if writes should fail
+     */
+    public void setFailingWrites(boolean failingWrites) {
+        this.failingWrites = failingWrites;
+    }
+
+    private WriteBatch createWriteBatch() {
+        Map<byte[], byte[]> puts = new LinkedHashMap<>();
+        WriteBatch batch = mock(WriteBatch.class);
+        doAnswer(invocation -> {
+            puts.put(invocation.getArgument(0), invocation.getArgument(1));
+            return batch;
+        }).when(batch).put(any(), any());
+
+        this.batches.put(batch, puts);
+        return batch;
+    }
+
+    private void write(WriteBatch batch) {
+        Map<byte[], byte[]> puts = this.batches.get(batch);
+        if (puts == null) {
+            throw new IllegalArgumentException("Batch of another database");
+        }
+        if (this.failingWrites) {
+            throw new DBException("Failed to write batch");
+        }
+
+        for (Map.Entry<byte[], byte[]> put : puts.entrySet()) {
+            this.entries.put(put.getKey(), put.getValue());
+            this.writtenKeys.add(put.getKey());
+        }
+    }
+
+    private DBIterator createIterator() {
+        // Iterators see the entries at the time they were created
+        NavigableMap<byte[], byte[]> snapshot = new TreeMap<>(this.entries);
+        Iterator<?>[] position = new Iterator<?>[]{ snapshot.entrySet().iterator() };
+
+        DBIterator iterator = mock(DBIterator.class);
+        doAnswer(invocation -> {
+            position[0] = snapshot.tailMap(invocation.getArgument(0), true).entrySet().iterator();
+            return null;
+        }).when(iterator).seek(any());
+        when(iterator.hasNext()).thenAnswer(invocation -> position[0].hasNext());
+        when(iterator.next()).thenAnswer(invocation -> position[0].next());
+        return iterator;
+    }
+
+}